@@ -0,0 +1,80 @@
+package io.codeforall.bootcamp.javabank.benchmark;
+
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
+import io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link Account} balance operations, cycling through a number of accounts
+ * so the larger parameters also account for the cost of reaching accounts out of cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountBenchmark {
+
+    private static final long AMOUNT = 100;
+
+    @Param({"16", "65536"})
+    private int accounts;
+
+    private Account[] checkingAccounts;
+    private Account[] savingsAccounts;
+    private int next;
+
+    @Setup
+    public void setup() {
+
+        checkingAccounts = new Account[accounts];
+        savingsAccounts = new Account[accounts];
+
+        for (int i = 0; i < accounts; i++) {
+            checkingAccounts[i] = new CheckingAccount();
+            checkingAccounts[i].credit(Money.ofUnits(1000));
+            savingsAccounts[i] = new SavingsAccount();
+            savingsAccounts[i].credit(Money.ofUnits(1000));
+        }
+    }
+
+    @Benchmark
+    public boolean checkingCanDebit() {
+        return checkingAccounts[nextIndex()].canDebit(AMOUNT);
+    }
+
+    @Benchmark
+    public long checkingCreditDebit() {
+        Account account = checkingAccounts[nextIndex()];
+        account.credit(AMOUNT);
+        account.debit(AMOUNT);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public boolean savingsCanDebit() {
+        return savingsAccounts[nextIndex()].canDebit(AMOUNT);
+    }
+
+    @Benchmark
+    public long savingsCreditDebit() {
+        Account account = savingsAccounts[nextIndex()];
+        account.credit(AMOUNT);
+        account.debit(AMOUNT);
+        return account.getBalance();
+    }
+
+    private int nextIndex() {
+
+        if (++next == accounts) {
+            next = 0;
+        }
+
+        return next;
+    }
+}
@@ -0,0 +1,35 @@
+package io.codeforall.bootcamp.javabank.benchmark;
+
+import io.codeforall.bootcamp.javabank.factories.AccountFactory;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link AccountFactory} account creation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountFactoryBenchmark {
+
+    @Param({"CHECKING", "SAVINGS"})
+    private AccountType accountType;
+
+    private AccountFactory accountFactory;
+
+    @Setup
+    public void setup() {
+        accountFactory = new AccountFactory();
+    }
+
+    @Benchmark
+    public Account createAccount() {
+        return accountFactory.createAccount(accountType);
+    }
+}
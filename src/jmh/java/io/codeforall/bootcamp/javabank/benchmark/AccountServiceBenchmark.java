@@ -0,0 +1,156 @@
+package io.codeforall.bootcamp.javabank.benchmark;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
+import io.codeforall.bootcamp.javabank.services.AccountService;
+import io.codeforall.bootcamp.javabank.services.AsyncAccountService;
+import io.codeforall.bootcamp.javabank.services.ConcurrencyMode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link AccountService} money movements against the in memory
+ * H2 database of the test profile, run with more threads to measure contention
+ * <p>
+ * Movements are either applied directly on the benchmark threads, or submitted to the
+ * single writer partitions of the {@link AsyncAccountService}, waiting for each one to complete
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountServiceBenchmark {
+
+    // few accounts for high contention, many for low contention
+    @Param({"10", "100", "10000"})
+    private int accounts;
+
+    @Param({"OPTIMISTIC", "ATOMIC", "PESSIMISTIC"})
+    private ConcurrencyMode concurrencyMode;
+
+    @Param({"DIRECT", "PARTITIONED"})
+    private Execution execution;
+
+    // the overhead of measuring every service and DAO call
+    @Param({"true", "false"})
+    private boolean metrics;
+
+    private GenericXmlApplicationContext ctx;
+    private AccountService accountService;
+    private AsyncAccountService asyncAccountService;
+    private int[] accountIds;
+
+    @Setup
+    public void setup() {
+
+        ctx = new GenericXmlApplicationContext();
+        ctx.getEnvironment().setActiveProfiles("test");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("account.concurrency.mode", concurrencyMode.name());
+        properties.put("metrics.enabled", metrics);
+
+        ctx.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        ctx.load("file:src/main/webapp/WEB-INF/spring/spring-config.xml");
+        ctx.refresh();
+
+        accountService = ctx.getBean(AccountService.class);
+        asyncAccountService = ctx.getBean(AsyncAccountService.class);
+
+        List<Account> newAccounts = new ArrayList<>(accounts);
+
+        for (int i = 0; i < accounts; i++) {
+            Account account = new CheckingAccount();
+            account.credit(Money.ofUnits(1000000));
+            newAccounts.add(account);
+        }
+
+        AccountDao accountDao = ctx.getBean(AccountDao.class);
+        List<Account> savedAccounts = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class))
+                .execute(status -> accountDao.saveAll(newAccounts));
+
+        accountIds = savedAccounts.stream().mapToInt(Account::getId).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public boolean deposit() {
+
+        int id = randomId();
+
+        return execution == Execution.DIRECT ?
+                apply(() -> accountService.deposit(id, 100)) :
+                apply(() -> asyncAccountService.deposit(id, 100, null).join());
+    }
+
+    @Benchmark
+    public boolean transfer() {
+
+        int srcId = randomId();
+        int dstId = randomId();
+
+        return execution == Execution.DIRECT ?
+                apply(() -> accountService.transfer(srcId, dstId, 100)) :
+                apply(() -> asyncAccountService.transfer(srcId, dstId, 100, null).join());
+    }
+
+    private int randomId() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+    }
+
+    // concurrent changes to the same account can still fail after all the retries,
+    // the failed attempts are still measured, as a client would have waited for them
+    private boolean apply(Runnable operation) {
+
+        try {
+            operation.run();
+            return true;
+
+        } catch (ConcurrencyFailureException ex) {
+            return false;
+
+        } catch (CompletionException ex) {
+
+            if (!(ex.getCause() instanceof ConcurrencyFailureException)) {
+                throw ex;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * The possible ways for the benchmark threads to apply the money movements
+     */
+    public enum Execution {
+
+        /**
+         * Movements are applied on the benchmark threads, concurrent changes to the same account conflict
+         */
+        DIRECT,
+
+        /**
+         * Movements are applied by the workers of the account partitions, one writer per account
+         */
+        PARTITIONED
+    }
+}
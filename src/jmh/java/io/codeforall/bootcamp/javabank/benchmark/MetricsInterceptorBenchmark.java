@@ -0,0 +1,54 @@
+package io.codeforall.bootcamp.javabank.benchmark;
+
+import io.codeforall.bootcamp.javabank.metrics.MetricsInterceptor;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
+import io.codeforall.bootcamp.javabank.services.AccountService;
+import io.codeforall.bootcamp.javabank.services.mock.MockAccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cost the {@link MetricsInterceptor} adds to each call, measured on an in memory
+ * {@link AccountService} so that nothing but the proxy and the interceptor is left to measure
+ * <p>
+ * Run with more threads to measure contention on the counters of the same method
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsInterceptorBenchmark {
+
+    @Param({"true", "false"})
+    private boolean enabled;
+
+    private AccountService accountService;
+    private Integer accountId;
+
+    @Setup
+    public void setup() {
+
+        MockAccountService target = new MockAccountService();
+        Account account = new CheckingAccount();
+        account.credit(Money.ofUnits(1000));
+        accountId = target.add(account).getId();
+
+        MetricsInterceptor metricsInterceptor = new MetricsInterceptor();
+        metricsInterceptor.setEnabled(enabled);
+
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(metricsInterceptor);
+        accountService = (AccountService) proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public Account get() {
+        return accountService.get(accountId);
+    }
+}
@@ -0,0 +1,218 @@
+package io.codeforall.bootcamp.javabank.controller;
+
+import io.codeforall.bootcamp.javabank.metrics.LatencyHistogram;
+import io.codeforall.bootcamp.javabank.metrics.MethodMetrics;
+import io.codeforall.bootcamp.javabank.metrics.MetricsInterceptor;
+import io.codeforall.bootcamp.javabank.metrics.StatementStatisticsInterceptor;
+import io.codeforall.bootcamp.javabank.persistence.dao.cache.CachingDaoInterceptor;
+import io.codeforall.bootcamp.javabank.services.BalanceCache;
+import io.codeforall.bootcamp.javabank.services.IdempotencyPurger;
+import io.codeforall.bootcamp.javabank.services.RetryOnConflictInterceptor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller responsible for exposing the application metrics as json
+ */
+@Controller
+@RequestMapping("/admin")
+public class AdminController {
+
+    private MetricsInterceptor metricsInterceptor;
+    private CachingDaoInterceptor cachingDaoInterceptor;
+    private RetryOnConflictInterceptor retryOnConflictInterceptor;
+    private BalanceCache balanceCache;
+    private IdempotencyPurger idempotencyPurger;
+    private StatementStatisticsInterceptor statementStatisticsInterceptor;
+    private EntityManagerFactory emf;
+
+    /**
+     * Sets the interceptor measuring the DAO and service methods
+     *
+     * @param metricsInterceptor the metrics interceptor to set
+     */
+    @Autowired
+    public void setMetricsInterceptor(MetricsInterceptor metricsInterceptor) {
+        this.metricsInterceptor = metricsInterceptor;
+    }
+
+    /**
+     * Sets the interceptor caching the models read by id
+     *
+     * @param cachingDaoInterceptor the caching DAO interceptor to set
+     */
+    @Autowired
+    public void setCachingDaoInterceptor(CachingDaoInterceptor cachingDaoInterceptor) {
+        this.cachingDaoInterceptor = cachingDaoInterceptor;
+    }
+
+    /**
+     * Sets the interceptor retrying the account operations failed by conflicts
+     *
+     * @param retryOnConflictInterceptor the retry on conflict interceptor to set
+     */
+    @Autowired
+    public void setRetryOnConflictInterceptor(RetryOnConflictInterceptor retryOnConflictInterceptor) {
+        this.retryOnConflictInterceptor = retryOnConflictInterceptor;
+    }
+
+    /**
+     * Sets the customer balance cache, missing in the memory profile
+     *
+     * @param balanceCache the balance cache to set
+     */
+    @Autowired(required = false)
+    public void setBalanceCache(BalanceCache balanceCache) {
+        this.balanceCache = balanceCache;
+    }
+
+    /**
+     * Sets the purger of the expired idempotency keys, missing in the memory profile
+     *
+     * @param idempotencyPurger the idempotency purger to set
+     */
+    @Autowired(required = false)
+    public void setIdempotencyPurger(IdempotencyPurger idempotencyPurger) {
+        this.idempotencyPurger = idempotencyPurger;
+    }
+
+    /**
+     * Sets the interceptor recording the statements prepared by each request
+     *
+     * @param statementStatisticsInterceptor the statement statistics interceptor to set
+     */
+    @Autowired
+    public void setStatementStatisticsInterceptor(StatementStatisticsInterceptor statementStatisticsInterceptor) {
+        this.statementStatisticsInterceptor = statementStatisticsInterceptor;
+    }
+
+    /**
+     * Sets the entity manager factory gathering the hibernate statistics, missing in the memory profile
+     *
+     * @param emf the entity manager factory to set
+     */
+    @Autowired(required = false)
+    public void setEmf(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * Renders the metrics of each measured method, of the caches and of the statements prepared
+     *
+     * @return the metrics, latencies in microseconds
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> showMetrics() {
+
+        Map<String, Object> methods = new LinkedHashMap<>();
+        metricsInterceptor.getMetrics().forEach((name, metrics) -> methods.put(name, toMap(metrics)));
+
+        Map<String, Object> daoCache = new LinkedHashMap<>();
+        daoCache.put("hits", cachingDaoInterceptor.getHits());
+        daoCache.put("misses", cachingDaoInterceptor.getMisses());
+        daoCache.put("evictions", cachingDaoInterceptor.getEvictions());
+        daoCache.put("invalidations", cachingDaoInterceptor.getInvalidations());
+        daoCache.put("size", cachingDaoInterceptor.getSize());
+
+        Map<String, Object> retries = new LinkedHashMap<>();
+        retries.put("attempts", retryOnConflictInterceptor.getAttempts());
+        retries.put("retries", retryOnConflictInterceptor.getRetries());
+        retries.put("giveUps", retryOnConflictInterceptor.getGiveUps());
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("methods", methods);
+        metrics.put("daoCache", daoCache);
+        metrics.put("retries", retries);
+
+        if (balanceCache != null) {
+            Map<String, Object> balances = new LinkedHashMap<>();
+            balances.put("hits", balanceCache.getHits());
+            balances.put("misses", balanceCache.getMisses());
+            balances.put("repairs", balanceCache.getRepairs());
+            balances.put("size", balanceCache.size());
+            balances.put("failures", balanceCache.getFailures());
+            metrics.put("balanceCache", balances);
+        }
+
+        if (idempotencyPurger != null) {
+            Map<String, Object> purges = new LinkedHashMap<>();
+            purges.put("purged", idempotencyPurger.getPurged());
+            purges.put("failures", idempotencyPurger.getFailures());
+            metrics.put("idempotencyPurger", purges);
+        }
+
+        Map<String, Object> statements = new LinkedHashMap<>();
+        statements.put("requests", statementStatisticsInterceptor.getRequests());
+        statements.put("statements", statementStatisticsInterceptor.getStatements());
+        statements.put("flaggedRequests", statementStatisticsInterceptor.getFlaggedRequests());
+        statements.put("reports", statementStatisticsInterceptor.getReports());
+        metrics.put("statements", statements);
+
+        if (emf != null) {
+            metrics.put("hibernate", toMap(emf.unwrap(SessionFactory.class).getStatistics()));
+        }
+
+        return metrics;
+    }
+
+    private Map<String, Object> toMap(Statistics statistics) {
+
+        long cacheHits = statistics.getSecondLevelCacheHitCount();
+        long cacheMisses = statistics.getSecondLevelCacheMissCount();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", statistics.isStatisticsEnabled());
+        map.put("statements", statistics.getPrepareStatementCount());
+        map.put("queries", statistics.getQueryExecutionCount());
+        map.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        map.put("slowestQueryTime", statistics.getQueryExecutionMaxTime());
+        map.put("entityLoads", statistics.getEntityLoadCount());
+        map.put("entityFetches", statistics.getEntityFetchCount());
+        map.put("collectionLoads", statistics.getCollectionLoadCount());
+        map.put("collectionFetches", statistics.getCollectionFetchCount());
+        map.put("secondLevelCacheHits", cacheHits);
+        map.put("secondLevelCacheMisses", cacheMisses);
+        map.put("secondLevelCacheHitRatio", cacheHits + cacheMisses == 0 ? 0 : (double) cacheHits / (cacheHits + cacheMisses));
+        map.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        map.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        map.put("flushes", statistics.getFlushCount());
+        map.put("transactions", statistics.getTransactionCount());
+        return map;
+    }
+
+    private Map<String, Object> toMap(MethodMetrics metrics) {
+
+        LatencyHistogram latencies = metrics.getLatencies();
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", toMicros(latencies.getMean()));
+        latency.put("p50", toMicros(latencies.getValueAtPercentile(50)));
+        latency.put("p90", toMicros(latencies.getValueAtPercentile(90)));
+        latency.put("p99", toMicros(latencies.getValueAtPercentile(99)));
+        latency.put("p999", toMicros(latencies.getValueAtPercentile(99.9)));
+        latency.put("max", toMicros(latencies.getMax()));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("calls", metrics.getCalls());
+        map.put("errors", metrics.getErrors());
+        map.put("inFlight", metrics.getInFlight());
+        map.put("latency", latency);
+        return map;
+    }
+
+    private double toMicros(double nanos) {
+        return Math.round(nanos / TimeUnit.MICROSECONDS.toNanos(1) * 10) / 10.0;
+    }
+}
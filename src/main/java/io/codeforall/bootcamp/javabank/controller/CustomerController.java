@@ -2,6 +2,7 @@ package io.codeforall.bootcamp.javabank.controller;
 
 import io.codeforall.bootcamp.javabank.services.CustomerService;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -10,9 +11,11 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
+import java.util.List;
 
 /**
  * Controller responsible for rendering {@link Customer} related views
@@ -21,6 +24,8 @@ import javax.validation.Valid;
 @RequestMapping("/customer")
 public class CustomerController {
 
+    public static final int PAGE_SIZE = 20;
+
     private CustomerService customerService;
 
     /**
@@ -34,14 +39,26 @@ public class CustomerController {
     }
 
     /**
-     * Renders a view with a list of customers
+     * Renders a view with a page of customers
      *
+     * @param after the id of the last customer of the previous page
      * @param model the model object
      * @return the view to render
      */
     @RequestMapping(method = RequestMethod.GET, path = {"/list", "/", ""})
-    public String listCustomers(Model model) {
-        model.addAttribute("customers", customerService.list());
+    public String listCustomers(@RequestParam(value = "after", required = false) Integer after, Model model) {
+
+        // fetch one extra customer to find out if there is a next page
+        List<CustomerSummary> customers = customerService.listSummaries(after, PAGE_SIZE + 1);
+        boolean hasNext = customers.size() > PAGE_SIZE;
+
+        if (hasNext) {
+            customers = customers.subList(0, PAGE_SIZE);
+        }
+
+        model.addAttribute("customers", customers);
+        model.addAttribute("after", after);
+        model.addAttribute("next", hasNext ? customers.get(PAGE_SIZE - 1).getId() : null);
         return "customer/list";
     }
 
@@ -54,8 +71,7 @@ public class CustomerController {
      */
     @RequestMapping(method = RequestMethod.GET, path = "/{id}")
     public String showCustomer(@PathVariable Integer id, Model model) {
-        model.addAttribute("customer", customerService.get(id));
-        model.addAttribute("recipients", customerService.listRecipients(id));
+        model.addAttribute("customer", customerService.getDetail(id));
         return "customer/show";
     }
 
@@ -0,0 +1,148 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size histogram of latencies, safe to be recorded to concurrently without locking
+ * <p>
+ * Buckets are laid out as in HdrHistogram, each power of two range of values is split in the
+ * same number of linear sub buckets, so any value is kept within 2% of its real value and
+ * recording is a couple of shifts and two counter increments, the count and the highest value
+ * are read from the buckets
+ */
+public class LatencyHistogram {
+
+    // 128 sub buckets per power of two, values below them are exact
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    /**
+     * The highest value kept apart from the others, about 18 minutes in nanoseconds,
+     * higher values are counted as this one
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_VALUE) + 1);
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Records a value
+     *
+     * @param value the value to record, negative values are recorded as zero
+     */
+    public void record(long value) {
+
+        long bounded = Math.min(Math.max(value, 0), MAX_VALUE);
+
+        counts.incrementAndGet(index(bounded));
+        total.add(bounded);
+    }
+
+    /**
+     * Gets the number of values recorded
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+
+        long count = 0;
+
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the highest value recorded
+     *
+     * @return the highest value of the highest bucket holding a value, zero if none was recorded
+     */
+    public long getMax() {
+
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return highestValue(i);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Gets the mean of the values recorded
+     *
+     * @return the mean value, zero if none was recorded
+     */
+    public double getMean() {
+
+        long count = getCount();
+        return count == 0 ? 0 : (double) total.sum() / count;
+    }
+
+    /**
+     * Gets the value below or at which a percentage of the values recorded are
+     *
+     * @param percentile the percentage of values, from 0 to 100
+     * @return the highest value of the bucket holding the percentile, zero if none was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+
+        // copied first, so that the counts walked agree with their total
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < snapshot.length; i++) {
+
+            seen += snapshot[i];
+
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+
+        return highestValue(snapshot.length - 1);
+    }
+
+    // values below the sub buckets have a bucket each, the others are shifted down
+    // until they fall in the upper half of the sub buckets
+    private static int index(long value) {
+
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValue(int index) {
+
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index - shift * HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
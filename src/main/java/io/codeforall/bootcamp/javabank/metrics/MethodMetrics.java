@@ -0,0 +1,72 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The calls, failures, calls in progress and latencies of a single method
+ */
+public class MethodMetrics {
+
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Records the start of a call
+     */
+    public void start() {
+        inFlight.increment();
+    }
+
+    /**
+     * Records the end of a call
+     *
+     * @param latency the time the call took, in nanoseconds
+     * @param failed  {@code true} if the call threw
+     */
+    public void end(long latency, boolean failed) {
+
+        inFlight.decrement();
+        latencies.record(latency);
+
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Gets the number of calls ended, failed or not
+     *
+     * @return the number of calls
+     */
+    public long getCalls() {
+        return latencies.getCount();
+    }
+
+    /**
+     * Gets the number of calls that threw
+     *
+     * @return the number of errors
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Gets the number of calls in progress
+     *
+     * @return the number of calls in flight
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Gets the latencies of the calls ended
+     *
+     * @return the latency histogram, in nanoseconds
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+}
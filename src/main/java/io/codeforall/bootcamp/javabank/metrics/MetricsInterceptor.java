@@ -0,0 +1,107 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link MethodInterceptor} measuring the calls of each method of the beans it is applied to,
+ * the same interface method of two beans is measured apart
+ * <p>
+ * Costs two clock reads, two map lookups and a few counter increments per call, without locking
+ */
+public class MetricsInterceptor implements MethodInterceptor {
+
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Method, MethodMetrics>> metrics =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, MethodMetrics> metricsByName = new ConcurrentHashMap<>();
+
+    private boolean enabled = true;
+
+    /**
+     * Sets if calls are measured, disabled calls are only passed through
+     *
+     * @param enabled {@code true} to measure the calls
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @see MethodInterceptor#invoke(MethodInvocation)
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        if (!enabled) {
+            return invocation.proceed();
+        }
+
+        MethodMetrics methodMetrics = getMetrics(AopUtils.getTargetClass(invocation.getThis()), invocation.getMethod());
+        boolean failed = true;
+
+        methodMetrics.start();
+        long start = System.nanoTime();
+
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+
+        } finally {
+            methodMetrics.end(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Gets the metrics of each method called so far
+     *
+     * @return the method metrics, by class and method name, with parameter types for overloaded methods
+     */
+    public Map<String, MethodMetrics> getMetrics() {
+        return new TreeMap<>(metricsByName);
+    }
+
+    private MethodMetrics getMetrics(Class<?> targetClass, Method method) {
+
+        Map<Method, MethodMetrics> classMetrics = metrics.get(targetClass);
+
+        if (classMetrics == null) {
+            classMetrics = metrics.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>());
+        }
+
+        MethodMetrics methodMetrics = classMetrics.get(method);
+
+        if (methodMetrics != null) {
+            return methodMetrics;
+        }
+
+        // the first call of each method names it, later calls only look it up
+        return classMetrics.computeIfAbsent(method, key ->
+                metricsByName.computeIfAbsent(name(targetClass, method), name -> new MethodMetrics()));
+    }
+
+    private String name(Class<?> targetClass, Method method) {
+
+        String name = targetClass.getSimpleName() + "." + method.getName();
+        long overloads = Arrays.stream(targetClass.getMethods())
+                .filter(candidate -> !candidate.isBridge() && candidate.getName().equals(method.getName()))
+                .count();
+
+        if (overloads <= 1) {
+            return name;
+        }
+
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", name + "(", ")"));
+    }
+}
@@ -0,0 +1,53 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import java.util.Map;
+
+/**
+ * A request that prepared the same select statement a number of times, likely an N+1 pattern
+ */
+public class StatementReport {
+
+    private final String request;
+    private final int statements;
+    private final Map<String, Integer> repeatedSelects;
+
+    /**
+     * Initializes a new {@code StatementReport}
+     *
+     * @param request         the request method and uri
+     * @param statements      the number of statements the request prepared
+     * @param repeatedSelects the number of times, by statement sql, of the selects repeated
+     */
+    public StatementReport(String request, int statements, Map<String, Integer> repeatedSelects) {
+        this.request = request;
+        this.statements = statements;
+        this.repeatedSelects = repeatedSelects;
+    }
+
+    /**
+     * Gets the request method and uri
+     *
+     * @return the request
+     */
+    public String getRequest() {
+        return request;
+    }
+
+    /**
+     * Gets the number of statements the request prepared
+     *
+     * @return the number of statements
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Gets the selects the request repeated
+     *
+     * @return the number of times, by statement sql
+     */
+    public Map<String, Integer> getRepeatedSelects() {
+        return repeatedSelects;
+    }
+}
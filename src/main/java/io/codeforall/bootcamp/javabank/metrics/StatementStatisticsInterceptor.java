@@ -0,0 +1,142 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import io.codeforall.bootcamp.javabank.persistence.statistics.StatementRecorder;
+import io.codeforall.bootcamp.javabank.persistence.statistics.StatementStatistics;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A web interceptor recording the statements prepared by each request, and reporting the
+ * requests repeating the same select, the usual sign of an N+1 pattern
+ * <p>
+ * Only the latest reports are kept, the number of requests and statements is kept for all
+ */
+public class StatementStatisticsInterceptor extends HandlerInterceptorAdapter {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder flaggedRequests = new LongAdder();
+    private final Deque<StatementReport> reports = new ArrayDeque<>();
+
+    private int repeatedSelectThreshold = 3;
+    private int maxReports = 100;
+
+    /**
+     * Sets the number of times a request must prepare the same select to be reported
+     *
+     * @param repeatedSelectThreshold the number of times to set
+     */
+    public void setRepeatedSelectThreshold(int repeatedSelectThreshold) {
+
+        if (repeatedSelectThreshold < 2) {
+            throw new IllegalArgumentException("repeated select threshold must be at least 2");
+        }
+
+        this.repeatedSelectThreshold = repeatedSelectThreshold;
+    }
+
+    /**
+     * Sets the number of reports kept, older reports are dropped first
+     *
+     * @param maxReports the number of reports to set
+     */
+    public void setMaxReports(int maxReports) {
+
+        if (maxReports < 1) {
+            throw new IllegalArgumentException("max reports must be positive");
+        }
+
+        this.maxReports = maxReports;
+    }
+
+    /**
+     * @see HandlerInterceptorAdapter#preHandle(HttpServletRequest, HttpServletResponse, Object)
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementRecorder.start();
+        return true;
+    }
+
+    /**
+     * @see HandlerInterceptorAdapter#afterCompletion(HttpServletRequest, HttpServletResponse, Object, Exception)
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+
+        StatementStatistics statistics = StatementRecorder.stop();
+
+        if (statistics == null) {
+            return;
+        }
+
+        requests.increment();
+        statements.add(statistics.getStatementCount());
+
+        Map<String, Integer> repeatedSelects = statistics.getRepeatedSelects(repeatedSelectThreshold);
+
+        if (repeatedSelects.isEmpty()) {
+            return;
+        }
+
+        flaggedRequests.increment();
+        StatementReport report = new StatementReport(request.getMethod() + " " + request.getRequestURI(),
+                statistics.getStatementCount(), repeatedSelects);
+
+        synchronized (reports) {
+
+            reports.addLast(report);
+
+            if (reports.size() > maxReports) {
+                reports.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests recorded
+     *
+     * @return the number of requests
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Gets the number of statements prepared by all requests recorded
+     *
+     * @return the number of statements
+     */
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    /**
+     * Gets the number of requests reported
+     *
+     * @return the number of flagged requests
+     */
+    public long getFlaggedRequests() {
+        return flaggedRequests.sum();
+    }
+
+    /**
+     * Gets the latest reports
+     *
+     * @return the reports, oldest first
+     */
+    public List<StatementReport> getReports() {
+
+        synchronized (reports) {
+            return new ArrayList<>(reports);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.codeforall.bootcamp.javabank.persistence.cache;
+
+/**
+ * The settings of a second level cache region, named after the region of an entity or collection mapping
+ */
+public class CacheRegion {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_TIME_TO_LIVE = 600000;
+
+    private String name;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    /**
+     * Gets the region name
+     *
+     * @return the region name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the region name
+     *
+     * @param name the region name to set
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the maximum number of entries kept in the region
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Sets the maximum number of entries kept in the region
+     *
+     * @param maxEntries the maximum number of entries to set
+     */
+    public void setMaxEntries(int maxEntries) {
+
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("max entries must be positive");
+        }
+
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets the time an entry is kept for
+     *
+     * @return the time to live, in milliseconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets the time an entry is kept for
+     *
+     * @param timeToLive the time to live to set, in milliseconds
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
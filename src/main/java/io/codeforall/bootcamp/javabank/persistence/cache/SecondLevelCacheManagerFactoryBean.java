@@ -0,0 +1,89 @@
+package io.codeforall.bootcamp.javabank.persistence.cache;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the in process cache manager of the hibernate second level cache, with one cache per
+ * configured region, sized and expired as configured
+ * <p>
+ * Each factory has its own caching provider, so application contexts never share cached entities
+ */
+public class SecondLevelCacheManagerFactoryBean implements FactoryBean<CacheManager>, DisposableBean {
+
+    private List<CacheRegion> regions = new ArrayList<>();
+
+    private EhcacheCachingProvider cachingProvider;
+    private CacheManager cacheManager;
+
+    /**
+     * Sets the cache regions
+     *
+     * @param regions the regions to set
+     */
+    public void setRegions(List<CacheRegion> regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * @see FactoryBean#getObject()
+     */
+    @Override
+    public synchronized CacheManager getObject() {
+
+        if (cacheManager != null) {
+            return cacheManager;
+        }
+
+        cachingProvider = new EhcacheCachingProvider();
+        cacheManager = cachingProvider.getCacheManager();
+
+        for (CacheRegion region : regions) {
+
+            // heap only, entries are evicted once the region is full and expire after their time to live
+            cacheManager.createCache(region.getName(), Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                            ResourcePoolsBuilder.heap(region.getMaxEntries()))
+                            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(region.getTimeToLive())))));
+        }
+
+        return cacheManager;
+    }
+
+    /**
+     * @see FactoryBean#getObjectType()
+     */
+    @Override
+    public Class<?> getObjectType() {
+        return CacheManager.class;
+    }
+
+    /**
+     * @see FactoryBean#isSingleton()
+     */
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+    /**
+     * @see DisposableBean#destroy()
+     */
+    @Override
+    public synchronized void destroy() {
+
+        if (cachingProvider != null) {
+            cachingProvider.close();
+        }
+    }
+}
@@ -1,9 +1,155 @@
 package io.codeforall.bootcamp.javabank.persistence.dao;
 
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Common interface for account data access objects
  */
 public interface AccountDao extends Dao<Account> {
+
+    /**
+     * Gets the account with its row locked for writing until the end of the transaction
+     *
+     * @param id the account id
+     * @return the account, {@code null} if it does not exist
+     */
+    Account findByIdForUpdate(Integer id);
+
+    /**
+     * Gets the accounts with the given ids in a single query
+     *
+     * @param ids the account ids
+     * @return the existing accounts, in no particular order
+     */
+    List<Account> findByIds(Collection<Integer> ids);
+
+    /**
+     * Locks the account rows for writing until the end of the transaction, in ascending id order,
+     * without loading the accounts
+     *
+     * @param ids the account ids
+     */
+    void lockAll(Collection<Integer> ids);
+
+    /**
+     * Credits the account with a single guarded update, without loading it
+     *
+     * @param id     the account id
+     * @param amount the amount to credit, in cents
+     * @return {@code true} if the account exists and the amount could be credited
+     * @see Account#canCredit(long)
+     */
+    boolean credit(Integer id, long amount);
+
+    /**
+     * Debits the account with a single guarded update, without loading it,
+     * only if the account balance rules still hold after the debit
+     *
+     * @param id     the account id
+     * @param amount the amount to debit, in cents
+     * @return {@code true} if the account exists and the amount could be debited
+     * @see Account#canDebit(long)
+     */
+    boolean debit(Integer id, long amount);
+
+    /**
+     * Withdraws from the account with a single guarded update, without loading it,
+     * only if the account allows withdrawals and has enough funds
+     *
+     * @param id     the account id
+     * @param amount the amount to withdraw, in cents
+     * @return {@code true} if the account exists and the amount could be withdrawn
+     * @see Account#canWithdraw()
+     * @see Account#canDebit(long)
+     */
+    boolean withdraw(Integer id, long amount);
+
+    /**
+     * Gets the ids of the hot accounts, the ones with balance slots
+     *
+     * @return the hot account ids
+     * @see io.codeforall.bootcamp.javabank.persistence.model.account.AccountSlot
+     */
+    List<Integer> findHotIds();
+
+    /**
+     * Gives the account the balance slots it is still missing, making it a hot account
+     *
+     * @param id    the account id
+     * @param slots the number of slots
+     * @return {@code true} if the account exists
+     */
+    boolean createSlots(Integer id, int slots);
+
+    /**
+     * Credits one of the account balance slots with a single update, without loading the account
+     *
+     * @param id     the account id
+     * @param slot   the slot number
+     * @param amount the amount to credit, in cents
+     * @return {@code true} if the slot exists and the amount could be credited
+     * @see Account#canCredit(long)
+     */
+    boolean creditSlot(Integer id, int slot, long amount);
+
+    /**
+     * Moves the balance of the account slots into the account, locking the slots
+     * until the end of the transaction
+     *
+     * @param id the account id
+     * @return the amount moved, in cents
+     */
+    long consolidateSlots(Integer id);
+
+    /**
+     * Gets the sum of the balances of the slots of each account, without loading them
+     *
+     * @param ids the account ids
+     * @return the slot balance in cents of each hot account, by account id
+     */
+    Map<Integer, Long> sumSlotsByAccounts(Collection<Integer> ids);
+
+    /**
+     * Gets the sum of the balances of the customer accounts, without loading them
+     *
+     * @param customerId the customer id
+     * @return the customer balance in cents, {@code null} if the customer does not exist
+     */
+    Long sumBalanceByCustomer(Integer customerId);
+
+    /**
+     * Gets the balance of each of the customer accounts, slots included, without loading them
+     *
+     * @param customerId the customer id
+     * @return the balance in cents of each account, by account id,
+     * {@code null} if the customer does not exist
+     */
+    Map<Integer, Long> findBalancesByCustomer(Integer customerId);
+
+    /**
+     * Gets the sum of the balances of the accounts of each customer, without loading them
+     *
+     * @param customerIds the customer ids
+     * @return the balance in cents of each existing customer, by customer id
+     */
+    Map<Integer, Long> sumBalanceByCustomers(Collection<Integer> customerIds);
+
+    /**
+     * Gets the sum of the balances of all accounts owned by a customer
+     *
+     * @return the bank balance, in cents
+     */
+    long sumBalanceTotal();
+
+    /**
+     * Gets the sum of the balances of all accounts owned by a customer of each account type
+     *
+     * @return the balance in cents of each account type, by account type
+     */
+    Map<AccountType, Long> sumBalanceByType();
 }
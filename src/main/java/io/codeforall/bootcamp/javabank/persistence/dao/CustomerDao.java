@@ -1,9 +1,42 @@
 package io.codeforall.bootcamp.javabank.persistence.dao;
 
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
+
+import java.util.List;
 
 /**
  * Common interface for customer data access objects
  */
 public interface CustomerDao extends Dao<Customer> {
+
+    /**
+     * Gets the customer together with its accounts, in a single query
+     *
+     * @param id the customer id
+     * @return the customer with its accounts loaded, {@code null} if it does not exist
+     * @see Dao#findById(Integer)
+     */
+    Customer findByIdWithAccounts(Integer id);
+
+    /**
+     * Gets a page of customer summaries using keyset pagination,
+     * without loading the customer entities or their accounts
+     *
+     * @param afterId the id of the last customer of the previous page, {@code null} for the first page
+     * @param limit   the maximum number of summaries to fetch
+     * @param order   the order of the summaries, by id
+     * @return the customer summaries page
+     * @see Dao#findPage(Integer, int, SortOrder)
+     */
+    List<CustomerSummary> findSummaryPage(Integer afterId, int limit, SortOrder order);
+
+    /**
+     * Gets the customer together with its accounts and recipients, in a single query
+     *
+     * @param id the customer id
+     * @return the customer detail view, {@code null} if the customer does not exist
+     */
+    CustomerDetailView findDetail(Integer id);
 }
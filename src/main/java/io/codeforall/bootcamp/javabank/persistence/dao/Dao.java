@@ -2,6 +2,7 @@ package io.codeforall.bootcamp.javabank.persistence.dao;
 
 import io.codeforall.bootcamp.javabank.persistence.model.Model;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,6 +18,17 @@ public interface Dao<T extends Model> {
      */
     List<T> findAll();
 
+    /**
+     * Gets a page of the model type using keyset pagination, so the cost
+     * of fetching a page does not depend on how deep into the list it is
+     *
+     * @param afterId the id of the last model of the previous page, {@code null} for the first page
+     * @param limit   the maximum number of models to fetch
+     * @param order   the order of the models, by id
+     * @return the model page
+     */
+    List<T> findPage(Integer afterId, int limit, SortOrder order);
+
     /**
      * Gets the model
      *
@@ -33,6 +45,15 @@ public interface Dao<T extends Model> {
      */
     T saveOrUpdate(T modelObject);
 
+    /**
+     * Saves or updates a collection of models using batched writes,
+     * the persistence context is flushed and cleared after each batch
+     *
+     * @param modelObjects the models to be saved or updated
+     * @return the saved or updated models, detached from the persistence context
+     */
+    List<T> saveAll(Collection<T> modelObjects);
+
     /**
      * Deletes the model
      *
@@ -0,0 +1,37 @@
+package io.codeforall.bootcamp.javabank.persistence.dao;
+
+import io.codeforall.bootcamp.javabank.persistence.model.account.IdempotencyRecord;
+
+import java.util.Date;
+
+/**
+ * Common interface for idempotency data access objects, records are only ever inserted,
+ * and deleted once expired
+ */
+public interface IdempotencyDao {
+
+    /**
+     * Gets the record of an idempotency key
+     *
+     * @param key the idempotency key
+     * @return the idempotency record, {@code null} if the key is unknown
+     */
+    IdempotencyRecord findByKey(String key);
+
+    /**
+     * Inserts a record right away, so that a concurrent request with the same key
+     * fails with a {@link org.springframework.dao.ConcurrencyFailureException} before changing anything
+     *
+     * @param record the idempotency record
+     */
+    void insert(IdempotencyRecord record);
+
+    /**
+     * Deletes the records expired by the given time
+     *
+     * @param now the current time
+     * @return the number of records deleted
+     * @see IdempotencyRecord#getExpirationTime()
+     */
+    int deleteExpired(Date now);
+}
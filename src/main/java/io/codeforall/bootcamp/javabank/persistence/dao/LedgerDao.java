@@ -0,0 +1,29 @@
+package io.codeforall.bootcamp.javabank.persistence.dao;
+
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+
+import java.util.List;
+
+/**
+ * Common interface for ledger data access objects, entries are only ever appended
+ */
+public interface LedgerDao {
+
+    /**
+     * Appends an entry to the ledger
+     *
+     * @param entry the ledger entry
+     */
+    void append(LedgerEntry entry);
+
+    /**
+     * Gets a page of the history of an account, newest entries first, using keyset pagination,
+     * so the cost of fetching a page does not depend on the size of the history
+     *
+     * @param accountId the account id
+     * @param beforeId  the id of the last entry of the previous page, {@code null} for the latest page
+     * @param limit     the maximum number of entries to fetch
+     * @return the ledger entries
+     */
+    List<LedgerEntry> findHistory(Integer accountId, Integer beforeId, int limit);
+}
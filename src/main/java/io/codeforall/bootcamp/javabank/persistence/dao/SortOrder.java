@@ -0,0 +1,19 @@
+package io.codeforall.bootcamp.javabank.persistence.dao;
+
+/**
+ * The possible orderings of a keyset paginated query
+ *
+ * @see Dao#findPage(Integer, int, SortOrder)
+ */
+public enum SortOrder {
+
+    /**
+     * Lowest ids first, pages continue with ids greater than the cursor
+     */
+    ASCENDING,
+
+    /**
+     * Highest ids first, pages continue with ids lower than the cursor
+     */
+    DESCENDING
+}
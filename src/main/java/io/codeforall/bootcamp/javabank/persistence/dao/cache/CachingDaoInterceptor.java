@@ -0,0 +1,339 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.cache;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.Dao;
+import io.codeforall.bootcamp.javabank.persistence.model.AbstractModel;
+import io.codeforall.bootcamp.javabank.persistence.model.Model;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link MethodInterceptor} that decorates {@link Dao} implementations with a read through cache
+ * of {@link Dao#findById(Integer)}, keeping the most frequently read models of each type
+ * <p>
+ * Models are only served from and added to the cache outside of transactions, where they are
+ * detached anyway, so transactions always change managed models read from the database
+ * <p>
+ * Every model a read write transaction may have changed, the ones it passed to or got from
+ * any DAO method, is removed from the cache right away and again once the transaction is over,
+ * a model loaded before an invalidation is never cached, and a cached model is never replaced
+ * by an older version of it
+ * <p>
+ * Deletes may cascade to the models of other DAOs, such as the accounts and recipients of a
+ * customer, whose ids are not known here, so a delete drops every cached model instead
+ * <p>
+ * Callers always get their own copy of a cached model, which they are free to change, with the
+ * associations that were not loaded with it left unset instead of failing when read
+ * <p>
+ * Models read together with their associations, such as the customers read with their accounts,
+ * are not cached, as the associated models are changed through other DAOs and would go stale
+ */
+public class CachingDaoInterceptor implements MethodInterceptor {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+    public static final long DEFAULT_TIME_TO_LIVE = 60000;
+
+    private static final String FIND_BY_ID = "findById";
+    private static final String DELETE = "delete";
+
+    private final LongSupplier clock;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private TinyLfuCache<Key, Entry> cache = new TinyLfuCache<>(DEFAULT_MAXIMUM_SIZE);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // bumped by every invalidation, loads that see it change are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Initializes a new caching DAO interceptor
+     */
+    public CachingDaoInterceptor() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Initializes a new caching DAO interceptor
+     *
+     * @param clock the current time, in milliseconds
+     */
+    public CachingDaoInterceptor(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the maximum number of cached models, of all types
+     *
+     * @param maximumSize the maximum size to set
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.cache = new TinyLfuCache<>(maximumSize);
+    }
+
+    /**
+     * Sets the time a model is cached for, bounding how long the changes made by
+     * other application instances to the same database may go unnoticed
+     *
+     * @param timeToLive the time to live to set, in milliseconds
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Gets the number of reads served from the cache
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of reads that went to the database
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of models removed to make room for more frequently read ones
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * Gets the number of models removed because they may have changed
+     *
+     * @return the number of invalidations
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * Gets the number of cached models
+     *
+     * @return the cache size
+     */
+    public int getSize() {
+        return cache.size();
+    }
+
+    /**
+     * @see MethodInterceptor#invoke(MethodInvocation)
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        Class<?> daoType = AopUtils.getTargetClass(invocation.getThis());
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+
+            if (FIND_BY_ID.equals(invocation.getMethod().getName()) && invocation.getArguments().length == 1) {
+                return findById(invocation, new Key(daoType, (Integer) invocation.getArguments()[0]));
+            }
+
+            return invocation.proceed();
+        }
+
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return invocation.proceed();
+        }
+
+        if (DELETE.equals(invocation.getMethod().getName())) {
+            return delete(invocation);
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        Class<?>[] parameterTypes = invocation.getMethod().getParameterTypes();
+
+        // primitive arguments, such as slot numbers and amounts, are never ids
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!parameterTypes[i].isPrimitive()) {
+                collectIds(invocation.getArguments()[i], ids);
+            }
+        }
+
+        // invalidated before, so the models can not be cached while they change
+        invalidate(daoType, ids);
+
+        Object result = invocation.proceed();
+        Set<Integer> resultIds = new HashSet<>();
+        collectIds(result, resultIds);
+        ids.addAll(resultIds);
+        invalidate(daoType, resultIds);
+
+        // and after, as reads outside of the transaction see the old models until it commits
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(daoType, ids);
+            }
+        });
+
+        return result;
+    }
+
+    private Object delete(MethodInvocation invocation) throws Throwable {
+
+        invalidateAll();
+        Object result = invocation.proceed();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCompletion(int status) {
+                invalidateAll();
+            }
+        });
+
+        return result;
+    }
+
+    private Object findById(MethodInvocation invocation, Key key) throws Throwable {
+
+        if (key.id == null) {
+            return invocation.proceed();
+        }
+
+        long now = clock.getAsLong();
+        Entry entry = cache.get(key);
+
+        if (entry != null && entry.expiresAt > now) {
+            hits.increment();
+            return ModelCopier.copy(entry.model);
+        }
+
+        misses.increment();
+        long stamp = invalidations.get();
+        Object model = invocation.proceed();
+
+        if (model == null) {
+            return null;
+        }
+
+        synchronized (this) {
+
+            Entry cached = cache.peek(key);
+
+            // the model may be older than an invalidation that happened while it was loaded,
+            // or than a newer version cached meanwhile
+            if (stamp == invalidations.get() && (cached == null || !isNewer(cached.model, model))) {
+                cache.put(key, new Entry(ModelCopier.copy(model), now + timeToLive));
+            }
+        }
+
+        return model;
+    }
+
+    private void invalidate(Class<?> daoType, Set<Integer> ids) {
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+
+            for (Integer id : ids) {
+                cache.remove(new Key(daoType, id));
+            }
+
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private void invalidateAll() {
+
+        synchronized (this) {
+            cache.clear();
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private static boolean isNewer(Object cached, Object loaded) {
+
+        if (!(cached instanceof AbstractModel) || !(loaded instanceof AbstractModel)) {
+            return false;
+        }
+
+        Integer cachedVersion = ((AbstractModel) cached).getVersion();
+        Integer loadedVersion = ((AbstractModel) loaded).getVersion();
+
+        return cachedVersion != null && loadedVersion != null && cachedVersion > loadedVersion;
+    }
+
+    private static void collectIds(Object value, Set<Integer> ids) {
+
+        if (value instanceof Integer) {
+            ids.add((Integer) value);
+
+        } else if (value instanceof Model && ((Model) value).getId() != null) {
+            ids.add(((Model) value).getId());
+
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                collectIds(element, ids);
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final Class<?> daoType;
+        private final Integer id;
+
+        private Key(Class<?> daoType, Integer id) {
+            this.daoType = daoType;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return daoType == key.daoType && Objects.equals(id, key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * daoType.hashCode() + Objects.hashCode(id);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object model;
+        private final long expiresAt;
+
+        private Entry(Object model, long expiresAt) {
+            this.model = model;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
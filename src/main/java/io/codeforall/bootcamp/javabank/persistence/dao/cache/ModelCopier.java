@@ -0,0 +1,123 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.cache;
+
+import io.codeforall.bootcamp.javabank.persistence.model.Model;
+import org.hibernate.Hibernate;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copies detached models together with the models they reference, so that a copy can be
+ * changed without changing the original
+ * <p>
+ * Associations that were not loaded with the original are left with the value the model
+ * gets when it is created, instead of failing once they are read outside of a session
+ */
+final class ModelCopier {
+
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+    private ModelCopier() {
+    }
+
+    /**
+     * Copies a model, any other value is returned as it is
+     *
+     * @param value the value to copy
+     * @param <T>   the value type
+     * @return the copy
+     */
+    static <T> T copy(T value) {
+        return new ModelCopier().copyValue(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T copyValue(T value) {
+
+        if (value instanceof Model) {
+            return (T) copyModel(value);
+        }
+
+        if (value instanceof List) {
+            return (T) copyElements((Collection<?>) value, new ArrayList<>());
+        }
+
+        if (value instanceof Set) {
+            return (T) copyElements((Collection<?>) value, new LinkedHashSet<>());
+        }
+
+        return value;
+    }
+
+    private Object copyModel(Object value) {
+
+        // the proxies of loaded models are replaced by plain copies of them
+        Object model = Hibernate.unproxy(value);
+        Object copy = copies.get(model);
+
+        if (copy != null) {
+            return copy;
+        }
+
+        copy = newInstance(model.getClass());
+
+        // registered before its fields are copied, as they may lead back to it
+        copies.put(model, copy);
+
+        for (Class<?> type = model.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                copyField(field, model, copy);
+            }
+        }
+
+        return copy;
+    }
+
+    private Collection<Object> copyElements(Collection<?> elements, Collection<Object> copy) {
+
+        for (Object element : elements) {
+            copy.add(copyValue(element));
+        }
+
+        return copy;
+    }
+
+    private void copyField(Field field, Object model, Object copy) {
+
+        if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+            return;
+        }
+
+        try {
+            field.setAccessible(true);
+            Object value = field.get(model);
+
+            if (Hibernate.isInitialized(value)) {
+                field.set(copy, copyValue(value));
+            }
+
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("model field can not be copied: " + field, ex);
+        }
+    }
+
+    private static Object newInstance(Class<?> type) {
+
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("model can not be copied: " + type.getName(), ex);
+        }
+    }
+}
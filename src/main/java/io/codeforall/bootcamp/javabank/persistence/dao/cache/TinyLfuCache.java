@@ -0,0 +1,192 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size bounded cache that keeps the most frequently used entries, safe to be used concurrently
+ * <p>
+ * Entries are kept in least recently used order, but once the cache is full a new entry only
+ * replaces the least recently used one if its key was asked for more often, so a burst of keys
+ * used once does not push out the popular ones
+ * <p>
+ * Frequencies are estimated by a count-min sketch of small counters, halved every so many
+ * accesses so that keys that stopped being popular are eventually replaced
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int MAX_FREQUENCY = 15;
+    private static final int[] SEEDS = {0x97CB3127, 0xB7E15163, 0x8F1BBCDD, 0xC2B2AE35};
+
+    private final int maximumSize;
+    private final LinkedHashMap<K, V> entries;
+
+    private final byte[][] sketch;
+    private final int sketchMask;
+    private final int resetInterval;
+    private int accesses;
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Initializes a new cache
+     *
+     * @param maximumSize the maximum number of entries
+     */
+    public TinyLfuCache(int maximumSize) {
+
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximum size must be positive");
+        }
+
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        // a few counters per entry keep the estimates apart, a power of two to mask the hashes
+        int width = Integer.highestOneBit(Math.max(16, maximumSize * 4 - 1)) << 1;
+        this.sketch = new byte[SKETCH_DEPTH][width];
+        this.sketchMask = width - 1;
+        this.resetInterval = maximumSize * 10;
+    }
+
+    /**
+     * Gets the value of a key
+     *
+     * @param key the key
+     * @return the value, {@code null} if the key is not cached
+     */
+    public synchronized V get(K key) {
+        record(key);
+        return entries.get(key);
+    }
+
+    /**
+     * Gets the value of a key, without counting it as a use of the key
+     *
+     * @param key the key
+     * @return the value, {@code null} if the key is not cached
+     */
+    public synchronized V peek(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches the value of a key, unless the cache is full and the key is used less often than
+     * the least recently used key
+     *
+     * @param key   the key
+     * @param value the value
+     * @return {@code true} if the value was cached
+     */
+    public synchronized boolean put(K key, V value) {
+
+        if (entries.containsKey(key) || entries.size() < maximumSize) {
+            entries.put(key, value);
+            return true;
+        }
+
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        K victim = eldest.next().getKey();
+
+        if (frequency(key) <= frequency(victim)) {
+            return false;
+        }
+
+        eldest.remove();
+        evictions.increment();
+        entries.put(key, value);
+        return true;
+    }
+
+    /**
+     * Removes the value of a key
+     *
+     * @param key the key
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all the values
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of cached entries
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of entries removed to make room for more frequently used ones
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void record(K key) {
+
+        int hash = spread(key.hashCode());
+
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+
+            int index = index(hash, row);
+
+            if (sketch[row][index] < MAX_FREQUENCY) {
+                sketch[row][index]++;
+            }
+        }
+
+        if (++accesses == resetInterval) {
+            age();
+        }
+    }
+
+    // the estimate is the lowest of the counters, the others were also counting other keys
+    private int frequency(K key) {
+
+        int hash = spread(key.hashCode());
+        int frequency = MAX_FREQUENCY;
+
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            frequency = Math.min(frequency, sketch[row][index(hash, row)]);
+        }
+
+        return frequency;
+    }
+
+    private void age() {
+
+        for (byte[] counters : sketch) {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] >>= 1;
+            }
+        }
+
+        accesses = 0;
+    }
+
+    private int index(int hash, int row) {
+        int rowHash = hash * SEEDS[row];
+        return (rowHash ^ (rowHash >>> 16)) & sketchMask;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
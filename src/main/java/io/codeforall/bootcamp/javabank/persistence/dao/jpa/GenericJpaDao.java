@@ -2,11 +2,18 @@ package io.codeforall.bootcamp.javabank.persistence.dao.jpa;
 
 import io.codeforall.bootcamp.javabank.persistence.model.Model;
 import io.codeforall.bootcamp.javabank.persistence.dao.Dao;
+import io.codeforall.bootcamp.javabank.persistence.dao.SortOrder;
+import org.springframework.beans.factory.annotation.Value;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -17,7 +24,12 @@ import java.util.List;
  */
 public abstract class GenericJpaDao<T extends Model> implements Dao<T> {
 
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
     protected Class<T> modelType;
+    protected int batchSize = DEFAULT_BATCH_SIZE;
 
     @PersistenceContext
     protected EntityManager em;
@@ -40,6 +52,22 @@ public abstract class GenericJpaDao<T extends Model> implements Dao<T> {
         this.em = em;
     }
 
+    /**
+     * Sets the number of models written before the persistence context is flushed and cleared,
+     * should match the hibernate jdbc batch size
+     *
+     * @param batchSize the batch size to set
+     */
+    @Value("${jdbc.batch.size:" + DEFAULT_BATCH_SIZE + "}")
+    public void setBatchSize(int batchSize) {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+
+        this.batchSize = batchSize;
+    }
+
     /**
      * @see Dao#findAll()
      */
@@ -54,6 +82,30 @@ public abstract class GenericJpaDao<T extends Model> implements Dao<T> {
         // return em.createQuery( "from " + modelType.getSimpleName(), modelType).getResultList();
     }
 
+    /**
+     * @see Dao#findPage(Integer, int, SortOrder)
+     */
+    @Override
+    public List<T> findPage(Integer afterId, int limit, SortOrder order) {
+
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<T> criteriaQuery = builder.createQuery(modelType);
+        Root<T> root = criteriaQuery.from(modelType);
+        Path<Integer> id = root.get("id");
+
+        // seek past the cursor using the primary key index instead of an offset,
+        // so the database never has to scan and discard the previous pages
+        if (afterId != null) {
+            criteriaQuery.where(order == SortOrder.DESCENDING ? builder.lt(id, afterId) : builder.gt(id, afterId));
+        }
+
+        criteriaQuery.orderBy(order == SortOrder.DESCENDING ? builder.desc(id) : builder.asc(id));
+
+        return em.createQuery(criteriaQuery)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     /**
      * @see Dao#findById(Integer)
      */
@@ -62,6 +114,19 @@ public abstract class GenericJpaDao<T extends Model> implements Dao<T> {
         return em.find(modelType, id);
     }
 
+    /**
+     * Gets the model with the given id, fetching the associations of a named entity graph
+     * together with it, on top of the ones fetched by default
+     *
+     * @param id          the model id
+     * @param entityGraph the name of the entity graph
+     * @return the model, {@code null} if it does not exist
+     */
+    protected T findById(Integer id, String entityGraph) {
+        return em.find(modelType, id,
+                Collections.singletonMap(LOAD_GRAPH, em.getEntityGraph(entityGraph)));
+    }
+
     /**
      * @see Dao#saveOrUpdate(Model)
      */
@@ -70,6 +135,39 @@ public abstract class GenericJpaDao<T extends Model> implements Dao<T> {
         return em.merge(modelObject);
     }
 
+    /**
+     * @see Dao#saveAll(Collection)
+     */
+    @Override
+    public List<T> saveAll(Collection<T> modelObjects) {
+
+        List<T> saved = new ArrayList<>(modelObjects.size());
+        int pending = 0;
+
+        for (T modelObject : modelObjects) {
+
+            // new models are persisted directly, merge would issue a select for each one
+            if (modelObject.getId() == null) {
+                em.persist(modelObject);
+                saved.add(modelObject);
+            } else {
+                saved.add(em.merge(modelObject));
+            }
+
+            // keep the persistence context small, each flush is sent as one jdbc batch
+            if (++pending == batchSize) {
+                em.flush();
+                em.clear();
+                pending = 0;
+            }
+        }
+
+        em.flush();
+        em.clear();
+
+        return saved;
+    }
+
     /**
      * @see Dao#delete(Integer)
      */
@@ -2,18 +2,455 @@ package io.codeforall.bootcamp.javabank.persistence.dao.jpa;
 
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
 import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountSlot;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
+import io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.Cache;
+import javax.persistence.LockModeType;
+import javax.persistence.Query;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * A JPA {@link AccountDao} implementation
  */
 @Repository
+@Profile("!memory")
 public class JpaAccountDao extends GenericJpaDao<Account> implements AccountDao {
 
+    // bulk updates bypass the entity version check, so the version is bumped to keep
+    // optimistic readers consistent, native sql is used as hibernate can not render
+    // the TYPE() of a single table inheritance entity inside an update statement
+    private static final String UPDATE_BALANCE = "UPDATE account SET balance = balance %s :amount, " +
+            "version = version + 1, updateTime = CURRENT_TIMESTAMP WHERE id = :id";
+
+    private static final String CREDIT = String.format(UPDATE_BALANCE, "+");
+
+    // mirrors Account#canDebit and SavingsAccount#canDebit
+    private static final String DEBIT = String.format(UPDATE_BALANCE, "-") +
+            " AND balance >= :amount" +
+            " AND (account_type <> '" + SavingsAccount.class.getSimpleName() + "' OR balance - :amount >= :minBalance)";
+
+    // mirrors SavingsAccount#canWithdraw
+    private static final String WITHDRAW = String.format(UPDATE_BALANCE, "-") +
+            " AND balance >= :amount" +
+            " AND account_type <> '" + SavingsAccount.class.getSimpleName() + "'";
+
+    private static final String FIND_BY_IDS = "SELECT a FROM Account a WHERE a.id IN :ids";
+
+    // ascending order, so that transactions locking overlapping accounts can not deadlock
+    private static final String LOCK_ALL = "SELECT id FROM account WHERE id IN :ids ORDER BY id FOR UPDATE";
+
+    private static final String CREDIT_SLOT = "UPDATE account_slot SET balance = balance + :amount, " +
+            "version = version + 1, updateTime = CURRENT_TIMESTAMP WHERE account_id = :id AND slot = :slot";
+
+    // locks the slots, in the same order for everyone, so no credit lands on them while they are emptied
+    private static final String LOCK_SLOTS = "SELECT balance FROM account_slot WHERE account_id = :id " +
+            "ORDER BY slot FOR UPDATE";
+
+    private static final String EMPTY_SLOTS = "UPDATE account_slot SET balance = 0, " +
+            "version = version + 1, updateTime = CURRENT_TIMESTAMP WHERE account_id = :id";
+
+    private static final String FIND_HOT_IDS = "SELECT DISTINCT s.account.id FROM AccountSlot s";
+
+    private static final String FIND_SLOT_NUMBERS = "SELECT s.slot FROM AccountSlot s WHERE s.account.id = :id";
+
+    // the customer is the root so that a missing customer and a customer
+    // without accounts can be told apart, accounts are never hydrated
+    private static final String SUM_BY_CUSTOMER = "SELECT c.id, SUM(a.balance) FROM Customer c " +
+            "LEFT JOIN c.accounts a WHERE c.id IN :ids GROUP BY c.id";
+
+    // same customer root, a customer without accounts is a single row without an account
+    private static final String FIND_BALANCES_BY_CUSTOMER = "SELECT c.id, a.id, a.balance FROM Customer c " +
+            "LEFT JOIN c.accounts a WHERE c.id = :id";
+
+    // the bank balance is the balance of the customers, accounts without a customer are left out
+    private static final String SUM_TOTAL = "SELECT SUM(a.balance) FROM Account a WHERE a.customer IS NOT NULL";
+
+    private static final String SUM_BY_TYPE = "SELECT TYPE(a), SUM(a.balance) FROM Account a " +
+            "WHERE a.customer IS NOT NULL GROUP BY TYPE(a)";
+
+    // slot balances are summed apart, the account aggregates keep using the covering index
+    private static final String SUM_SLOTS_BY_CUSTOMER = "SELECT a.customer.id, SUM(s.balance) FROM AccountSlot s " +
+            "JOIN s.account a WHERE a.customer.id IN :ids GROUP BY a.customer.id";
+
+    private static final String SUM_SLOTS_BY_ACCOUNT = "SELECT a.id, SUM(s.balance) FROM AccountSlot s " +
+            "JOIN s.account a WHERE a.customer.id = :id GROUP BY a.id";
+
+    private static final String SUM_SLOTS_BY_ACCOUNTS = "SELECT s.account.id, SUM(s.balance) FROM AccountSlot s " +
+            "WHERE s.account.id IN :ids GROUP BY s.account.id";
+
+    private static final String SUM_SLOTS_TOTAL = "SELECT SUM(s.balance) FROM AccountSlot s " +
+            "JOIN s.account a WHERE a.customer IS NOT NULL";
+
+    private static final String SUM_SLOTS_BY_TYPE = "SELECT TYPE(a), SUM(s.balance) FROM AccountSlot s " +
+            "JOIN s.account a WHERE a.customer IS NOT NULL GROUP BY TYPE(a)";
+
+    private static final Map<Class<?>, AccountType> ACCOUNT_TYPES = new HashMap<>();
+
+    static {
+        ACCOUNT_TYPES.put(CheckingAccount.class, AccountType.CHECKING);
+        ACCOUNT_TYPES.put(SavingsAccount.class, AccountType.SAVINGS);
+    }
+
     /**
      * @see GenericJpaDao#GenericJpaDao(Class)
      */
     public JpaAccountDao() {
         super(Account.class);
     }
+
+    /**
+     * Deletes an account not owned by a customer, owned accounts are
+     * removed by unlinking them from their customer
+     *
+     * @see GenericJpaDao#delete(Integer)
+     */
+    @Override
+    public void delete(Integer id) {
+
+        Account account = em.find(modelType, id);
+
+        // owned accounts are part of the customer, see the orphan removal of Customer#accounts
+        if (account != null && account.getCustomer() != null) {
+            return;
+        }
+
+        em.remove(account);
+    }
+
+    /**
+     * @see AccountDao#findByIdForUpdate(Integer)
+     */
+    @Override
+    public Account findByIdForUpdate(Integer id) {
+        return em.find(modelType, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * @see AccountDao#findByIds(Collection)
+     */
+    @Override
+    public List<Account> findByIds(Collection<Integer> ids) {
+
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return em.createQuery(FIND_BY_IDS, Account.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * @see AccountDao#lockAll(Collection)
+     */
+    @Override
+    public void lockAll(Collection<Integer> ids) {
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        em.createNativeQuery(LOCK_ALL)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * @see AccountDao#credit(Integer, long)
+     */
+    @Override
+    public boolean credit(Integer id, long amount) {
+        return amount > 0 && update(CREDIT, id)
+                .setParameter("id", id)
+                .setParameter("amount", amount)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * @see AccountDao#debit(Integer, long)
+     */
+    @Override
+    public boolean debit(Integer id, long amount) {
+        return amount > 0 && update(DEBIT, id)
+                .setParameter("id", id)
+                .setParameter("amount", amount)
+                .setParameter("minBalance", SavingsAccount.MIN_BALANCE)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * @see AccountDao#withdraw(Integer, long)
+     */
+    @Override
+    public boolean withdraw(Integer id, long amount) {
+        return amount > 0 && update(WITHDRAW, id)
+                .setParameter("id", id)
+                .setParameter("amount", amount)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * @see AccountDao#findHotIds()
+     */
+    @Override
+    public List<Integer> findHotIds() {
+        return em.createQuery(FIND_HOT_IDS, Integer.class).getResultList();
+    }
+
+    /**
+     * @see AccountDao#createSlots(Integer, int)
+     */
+    @Override
+    public boolean createSlots(Integer id, int slots) {
+
+        Account account = em.find(modelType, id);
+
+        if (account == null) {
+            return false;
+        }
+
+        List<Integer> existing = em.createQuery(FIND_SLOT_NUMBERS, Integer.class)
+                .setParameter("id", id)
+                .getResultList();
+
+        for (int slotNumber = 0; slotNumber < slots; slotNumber++) {
+
+            if (existing.contains(slotNumber)) {
+                continue;
+            }
+
+            AccountSlot slot = new AccountSlot();
+            slot.setAccount(account);
+            slot.setSlot(slotNumber);
+            em.persist(slot);
+        }
+
+        return true;
+    }
+
+    /**
+     * @see AccountDao#creditSlot(Integer, int, long)
+     */
+    @Override
+    public boolean creditSlot(Integer id, int slot, long amount) {
+        return amount > 0 && updateSlots(CREDIT_SLOT)
+                .setParameter("id", id)
+                .setParameter("slot", slot)
+                .setParameter("amount", amount)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * @see AccountDao#consolidateSlots(Integer)
+     */
+    @Override
+    public long consolidateSlots(Integer id) {
+
+        List<?> balances = em.createNativeQuery(LOCK_SLOTS)
+                .setParameter("id", id)
+                .getResultList();
+
+        long amount = Money.ZERO;
+
+        for (Object balance : balances) {
+            amount = Money.add(amount, toCents(balance));
+        }
+
+        if (amount == Money.ZERO) {
+            return amount;
+        }
+
+        updateSlots(EMPTY_SLOTS)
+                .setParameter("id", id)
+                .executeUpdate();
+
+        update(CREDIT, id)
+                .setParameter("id", id)
+                .setParameter("amount", amount)
+                .executeUpdate();
+
+        return amount;
+    }
+
+    /**
+     * @see AccountDao#sumSlotsByAccounts(Collection)
+     */
+    @Override
+    public Map<Integer, Long> sumSlotsByAccounts(Collection<Integer> ids) {
+
+        Map<Integer, Long> balances = new HashMap<>();
+
+        if (ids.isEmpty()) {
+            return balances;
+        }
+
+        List<Object[]> rows = em.createQuery(SUM_SLOTS_BY_ACCOUNTS, Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+
+        for (Object[] row : rows) {
+            balances.put((Integer) row[0], toCents(row[1]));
+        }
+
+        return balances;
+    }
+
+    /**
+     * @see AccountDao#sumBalanceByCustomer(Integer)
+     */
+    @Override
+    public Long sumBalanceByCustomer(Integer customerId) {
+        return sumBalanceByCustomers(Collections.singletonList(customerId)).get(customerId);
+    }
+
+    /**
+     * @see AccountDao#findBalancesByCustomer(Integer)
+     */
+    @Override
+    public Map<Integer, Long> findBalancesByCustomer(Integer customerId) {
+
+        List<Object[]> rows = em.createQuery(FIND_BALANCES_BY_CUSTOMER, Object[].class)
+                .setParameter("id", customerId)
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        Map<Integer, Long> balances = new HashMap<>();
+
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                balances.put((Integer) row[1], toCents(row[2]));
+            }
+        }
+
+        if (balances.isEmpty()) {
+            return balances;
+        }
+
+        List<Object[]> slotRows = em.createQuery(SUM_SLOTS_BY_ACCOUNT, Object[].class)
+                .setParameter("id", customerId)
+                .getResultList();
+
+        for (Object[] row : slotRows) {
+            balances.merge((Integer) row[0], toCents(row[1]), Money::add);
+        }
+
+        return balances;
+    }
+
+    /**
+     * @see AccountDao#sumBalanceByCustomers(Collection)
+     */
+    @Override
+    public Map<Integer, Long> sumBalanceByCustomers(Collection<Integer> customerIds) {
+
+        Map<Integer, Long> balances = new HashMap<>();
+
+        if (customerIds.isEmpty()) {
+            return balances;
+        }
+
+        List<Object[]> rows = em.createQuery(SUM_BY_CUSTOMER, Object[].class)
+                .setParameter("ids", customerIds)
+                .getResultList();
+
+        for (Object[] row : rows) {
+            balances.put((Integer) row[0], toCents(row[1]));
+        }
+
+        List<Object[]> slotRows = em.createQuery(SUM_SLOTS_BY_CUSTOMER, Object[].class)
+                .setParameter("ids", customerIds)
+                .getResultList();
+
+        for (Object[] row : slotRows) {
+            balances.merge((Integer) row[0], toCents(row[1]), Money::add);
+        }
+
+        return balances;
+    }
+
+    /**
+     * @see AccountDao#sumBalanceTotal()
+     */
+    @Override
+    public long sumBalanceTotal() {
+        return Money.add(toCents(em.createQuery(SUM_TOTAL, Long.class).getSingleResult()),
+                toCents(em.createQuery(SUM_SLOTS_TOTAL, Long.class).getSingleResult()));
+    }
+
+    /**
+     * @see AccountDao#sumBalanceByType()
+     */
+    @Override
+    public Map<AccountType, Long> sumBalanceByType() {
+
+        Map<AccountType, Long> balances = new EnumMap<>(AccountType.class);
+
+        for (AccountType type : AccountType.values()) {
+            balances.put(type, Money.ZERO);
+        }
+
+        List<Object[]> rows = em.createQuery(SUM_BY_TYPE, Object[].class).getResultList();
+
+        for (Object[] row : rows) {
+            balances.put(ACCOUNT_TYPES.get(row[0]), toCents(row[1]));
+        }
+
+        List<Object[]> slotRows = em.createQuery(SUM_SLOTS_BY_TYPE, Object[].class).getResultList();
+
+        for (Object[] row : slotRows) {
+            balances.merge(ACCOUNT_TYPES.get(row[0]), toCents(row[1]), Money::add);
+        }
+
+        return balances;
+    }
+
+    // hibernate evicts the whole second level cache region of every entity a native update is
+    // synchronized with, so they are only synchronized with the slots, which are not cached
+    private Query updateSlots(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(AccountSlot.class);
+    }
+
+    // pending changes are flushed first, as they would be if the accounts were synchronized too,
+    // and only the account row the update changes is evicted
+    private Query update(String sql, Integer id) {
+
+        em.flush();
+        evict(id);
+
+        return updateSlots(sql);
+    }
+
+    // evicted right away and again once the transaction is over,
+    // as other transactions may cache the old row until it commits
+    private void evict(Integer id) {
+
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Account.class, id);
+
+        em.unwrap(SessionImplementor.class).getActionQueue()
+                .registerProcess((success, session) -> cache.evict(Account.class, id));
+    }
+
+    // the sum of no rows is null
+    private long toCents(Object sum) {
+        return sum == null ? Money.ZERO : ((Number) sum).longValue();
+    }
 }
@@ -1,19 +1,86 @@
 package io.codeforall.bootcamp.javabank.persistence.dao.jpa;
 
 import io.codeforall.bootcamp.javabank.persistence.dao.CustomerDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.SortOrder;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.TypedQuery;
+import java.util.List;
+
 /**
  * A JPA {@link CustomerDao} implementation
  */
 @Repository
+@Profile("!memory")
 public class JpaCustomerDao extends GenericJpaDao<Customer> implements CustomerDao {
 
+    private static final String SUMMARY_SELECT = "SELECT NEW " + CustomerSummary.class.getName() +
+            "(c.id, c.firstName, c.lastName, c.email, c.phone) FROM Customer c";
+
+    private static final String RECIPIENTS_SELECT = "SELECT r FROM Recipient r " +
+            "WHERE r.customer.id = :id ORDER BY r.id";
+
     /**
      * @see GenericJpaDao#GenericJpaDao(Class)
      */
     public JpaCustomerDao() {
         super(Customer.class);
     }
+
+    /**
+     * @see CustomerDao#findByIdWithAccounts(Integer)
+     */
+    @Override
+    public Customer findByIdWithAccounts(Integer id) {
+        return findById(id, Customer.ACCOUNTS_GRAPH);
+    }
+
+    /**
+     * @see CustomerDao#findSummaryPage(Integer, int, SortOrder)
+     */
+    @Override
+    public List<CustomerSummary> findSummaryPage(Integer afterId, int limit, SortOrder order) {
+
+        boolean descending = order == SortOrder.DESCENDING;
+
+        // only the customer table columns are selected, the accounts are never joined
+        // and the resulting summaries are not tracked by the persistence context
+        String jpql = SUMMARY_SELECT +
+                (afterId != null ? (descending ? " WHERE c.id < :afterId" : " WHERE c.id > :afterId") : "") +
+                (descending ? " ORDER BY c.id DESC" : " ORDER BY c.id ASC");
+
+        TypedQuery<CustomerSummary> query = em.createQuery(jpql, CustomerSummary.class);
+
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * @see CustomerDao#findDetail(Integer)
+     */
+    @Override
+    public CustomerDetailView findDetail(Integer id) {
+
+        Customer customer = findByIdWithAccounts(id);
+
+        if (customer == null) {
+            return null;
+        }
+
+        // both collections are bags which can not be join fetched together, and joining them
+        // side by side selects the product of accounts and recipients, so each one is its own query
+        List<Recipient> recipients = em.createQuery(RECIPIENTS_SELECT, Recipient.class)
+                .setParameter("id", id)
+                .getResultList();
+
+        return new CustomerDetailView(customer, customer.getAccounts(), recipients);
+    }
 }
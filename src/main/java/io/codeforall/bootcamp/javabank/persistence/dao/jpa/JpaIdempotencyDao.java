@@ -0,0 +1,87 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.jpa;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.IdempotencyDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.IdempotencyRecord;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A JPA {@link IdempotencyDao} implementation, records are immutable so it does not
+ * offer the updates and deletes of the other DAOs, expired records are deleted in bulk
+ */
+@Repository
+@Profile("!memory")
+public class JpaIdempotencyDao implements IdempotencyDao {
+
+    // seeks on the unique key index
+    private static final String BY_KEY = "SELECT r FROM IdempotencyRecord r WHERE r.key = :key";
+
+    // ranges over the expiration time index
+    private static final String DELETE_EXPIRED = "DELETE FROM IdempotencyRecord r WHERE r.expirationTime <= :now";
+
+    @PersistenceContext
+    protected EntityManager em;
+
+    /**
+     * Sets the entity manager
+     *
+     * @param em the entity manager to set
+     */
+    public void setEm(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * @see IdempotencyDao#findByKey(String)
+     */
+    @Override
+    public IdempotencyRecord findByKey(String key) {
+
+        List<IdempotencyRecord> records = em.createQuery(BY_KEY, IdempotencyRecord.class)
+                .setParameter("key", key)
+                .getResultList();
+
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * @see IdempotencyDao#insert(IdempotencyRecord)
+     */
+    @Override
+    public void insert(IdempotencyRecord record) {
+
+        em.persist(record);
+
+        // the unique key index makes a concurrent insert of the same key wait for
+        // this transaction and fail once it commits, retrying then finds the record
+        try {
+            em.flush();
+
+        } catch (PersistenceException ex) {
+
+            if (ex.getCause() instanceof ConstraintViolationException) {
+                throw new ConcurrencyFailureException("idempotency key in use", ex);
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * @see IdempotencyDao#deleteExpired(Date)
+     */
+    @Override
+    public int deleteExpired(Date now) {
+        return em.createQuery(DELETE_EXPIRED)
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+}
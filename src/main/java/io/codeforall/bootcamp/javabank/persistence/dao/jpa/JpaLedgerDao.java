@@ -0,0 +1,63 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.jpa;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.LedgerDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * A JPA {@link LedgerDao} implementation, entries are immutable so it does not
+ * offer the updates and deletes of the other DAOs
+ */
+@Repository
+@Profile("!memory")
+public class JpaLedgerDao implements LedgerDao {
+
+    // both variants seek on the account id index, newest first
+    private static final String LATEST = "SELECT e FROM LedgerEntry e " +
+            "WHERE e.accountId = :accountId ORDER BY e.id DESC";
+
+    private static final String BEFORE = "SELECT e FROM LedgerEntry e " +
+            "WHERE e.accountId = :accountId AND e.id < :beforeId ORDER BY e.id DESC";
+
+    @PersistenceContext
+    protected EntityManager em;
+
+    /**
+     * Sets the entity manager
+     *
+     * @param em the entity manager to set
+     */
+    public void setEm(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * @see LedgerDao#append(LedgerEntry)
+     */
+    @Override
+    public void append(LedgerEntry entry) {
+        em.persist(entry);
+    }
+
+    /**
+     * @see LedgerDao#findHistory(Integer, Integer, int)
+     */
+    @Override
+    public List<LedgerEntry> findHistory(Integer accountId, Integer beforeId, int limit) {
+
+        TypedQuery<LedgerEntry> query = em.createQuery(beforeId == null ? LATEST : BEFORE, LedgerEntry.class)
+                .setParameter("accountId", accountId);
+
+        if (beforeId != null) {
+            query.setParameter("beforeId", beforeId);
+        }
+
+        return query.setMaxResults(limit).getResultList();
+    }
+}
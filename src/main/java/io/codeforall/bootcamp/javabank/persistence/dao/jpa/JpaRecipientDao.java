@@ -2,12 +2,14 @@ package io.codeforall.bootcamp.javabank.persistence.dao.jpa;
 
 import io.codeforall.bootcamp.javabank.persistence.dao.RecipientDao;
 import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 /**
  * A JPA {@link RecipientDao} implementation
  */
 @Repository
+@Profile("!memory")
 public class JpaRecipientDao extends GenericJpaDao<Recipient> implements RecipientDao {
 
     /**
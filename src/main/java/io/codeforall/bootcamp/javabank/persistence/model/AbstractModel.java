@@ -1,6 +1,8 @@
 package io.codeforall.bootcamp.javabank.persistence.model;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
@@ -12,8 +14,23 @@ import java.util.Date;
 @MappedSuperclass
 public abstract class AbstractModel implements Model {
 
+    public static final String ID_GENERATOR = "model_id";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // identity columns force hibernate to insert each row as soon as it is persisted,
+    // a pooled table generator hands out blocks of ids so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ID_GENERATOR)
+    @GenericGenerator(
+            name = ID_GENERATOR,
+            strategy = "enhanced-table",
+            parameters = {
+                    @Parameter(name = "table_name", value = "id_generator"),
+                    @Parameter(name = "prefer_entity_table_as_segment_value", value = "true"),
+                    @Parameter(name = "increment_size", value = "" + ID_ALLOCATION_SIZE),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            }
+    )
     private Integer id;
 
     @Version
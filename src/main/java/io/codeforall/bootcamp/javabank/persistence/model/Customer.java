@@ -1,6 +1,8 @@
 package io.codeforall.bootcamp.javabank.persistence.model;
 
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -12,7 +14,17 @@ import java.util.List;
  */
 @Entity
 @Table(name = "customer")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
+@NamedEntityGraph(name = Customer.ACCOUNTS_GRAPH, attributeNodes = @NamedAttributeNode("accounts"))
 public class Customer extends AbstractModel {
+
+    public static final String ACCOUNTS_GRAPH = "Customer.accounts";
+
+    public static final String CACHE_REGION = "customer";
+    public static final String ACCOUNTS_CACHE_REGION = "customer.accounts";
+    public static final String RECIPIENTS_CACHE_REGION = "customer.recipients";
+
     @NotNull(message = "first name is mandatory")
     @NotBlank(message = "first name is mandatory")
     @Size(min=3, max=64)
@@ -41,9 +53,14 @@ public class Customer extends AbstractModel {
             // the many-to-one relationship instead of a join table
             mappedBy = "customer",
 
-            // fetch accounts from database together with user
-            fetch = FetchType.EAGER
+            // only fetch accounts when needed, views that need them
+            // load the customer with the accounts entity graph
+            fetch = FetchType.LAZY
     )
+    // keep accounts in creation order, whatever index is used to fetch them
+    @OrderBy("id")
+    // only the account ids are cached, the accounts themselves are in their own region
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.ACCOUNTS_CACHE_REGION)
     private List<Account> accounts = new ArrayList<>();
 
     @OneToMany(
@@ -57,6 +74,7 @@ public class Customer extends AbstractModel {
             // the many-to-one relationship instead of a join table
             mappedBy = "customer"
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.RECIPIENTS_CACHE_REGION)
     private List<Recipient> recipients = new ArrayList<>();
 
     /**
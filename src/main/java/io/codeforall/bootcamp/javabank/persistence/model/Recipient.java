@@ -1,6 +1,11 @@
 package io.codeforall.bootcamp.javabank.persistence.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
@@ -9,15 +14,19 @@ import javax.persistence.Table;
  */
 @Entity
 @Table(name = "recipient")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Recipient.CACHE_REGION)
 public class Recipient extends AbstractModel {
 
+    public static final String CACHE_REGION = "recipient";
+
     private String name;
     private String email;
     private String phone;
     private Integer accountNumber;
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Customer customer;
 
     /**
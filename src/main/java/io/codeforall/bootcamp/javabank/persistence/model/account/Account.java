@@ -2,6 +2,8 @@ package io.codeforall.bootcamp.javabank.persistence.model.account;
 
 import io.codeforall.bootcamp.javabank.persistence.model.AbstractModel;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
@@ -9,22 +11,48 @@ import javax.persistence.*;
  * A generic account model entity to be used as a base for concrete types of accounts
  */
 @Entity
+@Table(name = "account",
+        // covers the balance aggregates by customer without reading the account rows
+        indexes = @Index(name = "account_customer_balance_idx", columnList = "customer_id, balance"))
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "account_type")
+@Cacheable
+// the balance updates of AccountDao bypass the entities, they evict the rows they change
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Account.CACHE_REGION)
 public abstract class Account extends AbstractModel {
 
-    private double balance = 0;
+    public static final String CACHE_REGION = "account";
 
-    @ManyToOne
+    // balance in cents, see Money
+    @Column(name = "balance", nullable = false)
+    private long balance = Money.ZERO;
+
+    // credits to hot accounts are kept in their balance slots, only read for the accounts shown
+    @Transient
+    private long slotBalance = Money.ZERO;
+
+    // balance operations never need the customer
+    @ManyToOne(fetch = FetchType.LAZY)
     private Customer customer;
 
     /**
-     * Gets the account balance
+     * Gets the account balance, including the balance of its slots when they were read
+     *
+     * @return the account balance, in cents
+     * @see AccountSlot
+     */
+    public long getBalance() {
+        return balance + slotBalance;
+    }
+
+    /**
+     * Sets the balance of the account slots, read apart from the account
      *
-     * @return the account balance
+     * @param slotBalance the slot balance to set, in cents
+     * @see AccountSlot
      */
-    public double getBalance() {
-        return balance;
+    public void setSlotBalance(long slotBalance) {
+        this.slotBalance = slotBalance;
     }
 
     /**
@@ -55,44 +83,46 @@ public abstract class Account extends AbstractModel {
     /**
      * Credits account if possible
      *
-     * @param amount the amount to credit
-     * @see Account#credit(double)
+     * @param amount the amount to credit, in cents
+     * @see Account#canCredit(long)
      */
-    public void credit(double amount) {
+    public void credit(long amount) {
         if (canCredit(amount)) {
-            balance += amount;
+            balance = Money.add(balance, amount);
         }
     }
 
     /**
      * Debits the account if possible
      *
-     * @param amount the amount to debit
-     * @see Account#canDebit(double)
+     * @param amount the amount to debit, in cents
+     * @see Account#canDebit(long)
      */
-    public void debit(double amount) {
+    public void debit(long amount) {
         if (canDebit(amount)) {
-            balance -= amount;
+            balance = Money.subtract(balance, amount);
         }
     }
 
     /**
      * Checks if a specific amount can be credited on the account
      *
-     * @param amount the amount to check
+     * @param amount the amount to check, in cents
      * @return {@code true} if the account can be credited
      */
-    public boolean canCredit(double amount) {
+    public boolean canCredit(long amount) {
         return amount > 0;
     }
 
     /**
      * Checks if a specific amount can be debited from the account
      *
-     * @param amount the amount to check
+     * @param amount the amount to check, in cents
      * @return {@code true} if the account can be debited
      */
-    public boolean canDebit(double amount) {
+    public boolean canDebit(long amount) {
+
+        // slot balances can not be debited, they are consolidated into the account first
         return amount > 0 && amount <= balance;
     }
 
@@ -111,7 +141,7 @@ public abstract class Account extends AbstractModel {
     @Override
     public String toString() {
         return "Account{" +
-                "balance=" + balance +
+                "balance=" + Money.format(getBalance()) +
                 ", customerId=" + (customer != null ? customer.getId() : null) +
                 "} " + super.toString();
     }
@@ -0,0 +1,86 @@
+package io.codeforall.bootcamp.javabank.persistence.model.account;
+
+import io.codeforall.bootcamp.javabank.persistence.model.AbstractModel;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+
+/**
+ * A balance slot model entity, part of the balance of a hot {@link Account}, credits to hot
+ * accounts are spread over a number of slots so they do not all update the same account row
+ * <p>
+ * Slots are only ever credited, the account balance is the sum of its own and its slot balances
+ */
+@Entity
+@Table(name = "account_slot",
+        uniqueConstraints = @UniqueConstraint(name = "account_slot_idx", columnNames = {"account_id", "slot"}))
+public class AccountSlot extends AbstractModel {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Account account;
+
+    @Column(name = "slot", nullable = false)
+    private int slot;
+
+    // balance in cents, see Money
+    @Column(name = "balance", nullable = false)
+    private long balance = Money.ZERO;
+
+    /**
+     * Gets the account the slot is part of
+     *
+     * @return the account
+     */
+    public Account getAccount() {
+        return account;
+    }
+
+    /**
+     * Sets the account the slot is part of
+     *
+     * @param account the account to set
+     */
+    public void setAccount(Account account) {
+        this.account = account;
+    }
+
+    /**
+     * Gets the slot number
+     *
+     * @return the slot number
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Sets the slot number
+     *
+     * @param slot the slot number to set
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Gets the slot balance
+     *
+     * @return the slot balance, in cents
+     */
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "AccountSlot{" +
+                "slot=" + slot +
+                ", balance=" + Money.format(balance) +
+                "} " + super.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package io.codeforall.bootcamp.javabank.persistence.model.account;
+
+import io.codeforall.bootcamp.javabank.persistence.model.AbstractModel;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * An immutable idempotency record model entity, remembers the key of an applied money movement,
+ * so that the retries of the same request are recognized and not applied again
+ * <p>
+ * The fingerprint describes the movement, telling a retry from a different request reusing the key,
+ * records are kept at least until their expiration time, retries arriving once they are deleted are applied again
+ */
+@Entity
+@Immutable
+@Table(name = "idempotency_record",
+        uniqueConstraints = @UniqueConstraint(name = "idempotency_record_key_idx", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idempotency_record_expiration_idx", columnList = "expirationTime"))
+public class IdempotencyRecord extends AbstractModel {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    @Column(name = "idempotency_key", nullable = false, updatable = false, length = MAX_KEY_LENGTH)
+    private String key;
+
+    @Column(name = "fingerprint", nullable = false, updatable = false)
+    private String fingerprint;
+
+    @Column(name = "expirationTime", nullable = false, updatable = false)
+    private Date expirationTime;
+
+    /**
+     * Initializes an empty idempotency record, for JPA only
+     */
+    protected IdempotencyRecord() {
+    }
+
+    /**
+     * Initializes a new idempotency record
+     *
+     * @param key            the idempotency key
+     * @param fingerprint    the fingerprint of the money movement
+     * @param expirationTime the time the record may be deleted after
+     */
+    public IdempotencyRecord(String key, String fingerprint, Date expirationTime) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Gets the idempotency key
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the fingerprint of the money movement
+     *
+     * @return the fingerprint
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Gets the time the record may be deleted after
+     *
+     * @return the expiration time
+     */
+    public Date getExpirationTime() {
+        return expirationTime;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "key='" + key + '\'' +
+                ", fingerprint='" + fingerprint + '\'' +
+                ", expirationTime=" + expirationTime +
+                "} " + super.toString();
+    }
+}
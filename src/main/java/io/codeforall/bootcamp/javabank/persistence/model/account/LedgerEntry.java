@@ -0,0 +1,143 @@
+package io.codeforall.bootcamp.javabank.persistence.model.account;
+
+import io.codeforall.bootcamp.javabank.persistence.model.AbstractModel;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+/**
+ * An immutable ledger entry model entity, records a single movement of money on an account,
+ * transfers are recorded by two entries, one on each account
+ * <p>
+ * Entries only hold the account ids, so they are written without loading the accounts
+ * and are kept after the accounts are deleted
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entry",
+        // the history of an account is read newest first, seeking by id
+        indexes = @Index(name = "ledger_entry_account_idx", columnList = "account_id, id"))
+public class LedgerEntry extends AbstractModel {
+
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private Integer accountId;
+
+    @Column(name = "counterpart_id", updatable = false)
+    private Integer counterpartId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, updatable = false)
+    private LedgerEntryType type;
+
+    // signed amount in cents, see Money, negative when money leaves the account
+    @Column(name = "amount", nullable = false, updatable = false)
+    private long amount;
+
+    /**
+     * Initializes an empty ledger entry, for JPA only
+     */
+    protected LedgerEntry() {
+    }
+
+    private LedgerEntry(Integer accountId, LedgerEntryType type, long amount, Integer counterpartId) {
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.counterpartId = counterpartId;
+    }
+
+    /**
+     * Creates the entry of a deposit
+     *
+     * @param accountId the account id
+     * @param amount    the deposited amount, in cents
+     * @return the ledger entry
+     */
+    public static LedgerEntry deposit(Integer accountId, long amount) {
+        return new LedgerEntry(accountId, LedgerEntryType.DEPOSIT, amount, null);
+    }
+
+    /**
+     * Creates the entry of a withdrawal
+     *
+     * @param accountId the account id
+     * @param amount    the withdrawn amount, in cents
+     * @return the ledger entry
+     */
+    public static LedgerEntry withdrawal(Integer accountId, long amount) {
+        return new LedgerEntry(accountId, LedgerEntryType.WITHDRAWAL, -amount, null);
+    }
+
+    /**
+     * Creates the entry of a transfer on the source account
+     *
+     * @param srcId  the source account id
+     * @param dstId  the destination account id
+     * @param amount the transferred amount, in cents
+     * @return the ledger entry
+     */
+    public static LedgerEntry transferOut(Integer srcId, Integer dstId, long amount) {
+        return new LedgerEntry(srcId, LedgerEntryType.TRANSFER_OUT, -amount, dstId);
+    }
+
+    /**
+     * Creates the entry of a transfer on the destination account
+     *
+     * @param dstId  the destination account id
+     * @param srcId  the source account id
+     * @param amount the transferred amount, in cents
+     * @return the ledger entry
+     */
+    public static LedgerEntry transferIn(Integer dstId, Integer srcId, long amount) {
+        return new LedgerEntry(dstId, LedgerEntryType.TRANSFER_IN, amount, srcId);
+    }
+
+    /**
+     * Gets the id of the account the entry belongs to
+     *
+     * @return the account id
+     */
+    public Integer getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Gets the id of the other account of a transfer
+     *
+     * @return the counterpart account id, {@code null} if the entry is not a transfer
+     */
+    public Integer getCounterpartId() {
+        return counterpartId;
+    }
+
+    /**
+     * Gets the entry type
+     *
+     * @return the entry type
+     */
+    public LedgerEntryType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the entry amount
+     *
+     * @return the amount in cents, negative when money left the account
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "LedgerEntry{" +
+                "accountId=" + accountId +
+                ", counterpartId=" + counterpartId +
+                ", type=" + type +
+                ", amount=" + Money.format(amount) +
+                "} " + super.toString();
+    }
+}
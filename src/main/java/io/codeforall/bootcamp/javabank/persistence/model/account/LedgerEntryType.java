@@ -0,0 +1,27 @@
+package io.codeforall.bootcamp.javabank.persistence.model.account;
+
+/**
+ * The possible {@link LedgerEntry} types
+ */
+public enum LedgerEntryType {
+
+    /**
+     * Money deposited on the account
+     */
+    DEPOSIT,
+
+    /**
+     * Money withdrawn from the account
+     */
+    WITHDRAWAL,
+
+    /**
+     * Money transferred from the account to the counterpart account
+     */
+    TRANSFER_OUT,
+
+    /**
+     * Money transferred to the account from the counterpart account
+     */
+    TRANSFER_IN
+}
@@ -0,0 +1,84 @@
+package io.codeforall.bootcamp.javabank.persistence.model.account;
+
+import java.math.BigDecimal;
+
+/**
+ * Money amounts are represented as a {@code long} number of cents, which is exact and
+ * needs no allocation, this class provides the checked arithmetic and conversions for them
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long CENTS_PER_UNIT = 100;
+    public static final long ZERO = 0;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a whole number of currency units to cents
+     *
+     * @param units the number of units
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount overflows
+     */
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, CENTS_PER_UNIT);
+    }
+
+    /**
+     * Adds two amounts
+     *
+     * @param amount the amount in cents
+     * @param other  the amount in cents to add
+     * @return the sum in cents
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static long add(long amount, long other) {
+        return Math.addExact(amount, other);
+    }
+
+    /**
+     * Subtracts an amount from another
+     *
+     * @param amount the amount in cents
+     * @param other  the amount in cents to subtract
+     * @return the difference in cents
+     * @throws ArithmeticException if the difference overflows
+     */
+    public static long subtract(long amount, long other) {
+        return Math.subtractExact(amount, other);
+    }
+
+    /**
+     * Parses a decimal amount, such as {@code 10.5}, into cents
+     *
+     * @param amount the decimal amount
+     * @return the amount in cents
+     * @throws ArithmeticException   if the amount has more than two decimal places or overflows
+     * @throws NumberFormatException if the amount is not a valid number
+     */
+    public static long parse(String amount) {
+        return new BigDecimal(amount.trim()).movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts an amount in cents to a decimal amount
+     *
+     * @param amount the amount in cents
+     * @return the decimal amount
+     */
+    public static BigDecimal toDecimal(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+
+    /**
+     * Formats an amount in cents as a decimal amount, such as {@code 10.50}
+     *
+     * @param amount the amount in cents
+     * @return the formatted amount
+     */
+    public static String format(long amount) {
+        return toDecimal(amount).toPlainString();
+    }
+}
@@ -11,7 +11,8 @@ import javax.persistence.Entity;
 @Entity
 public class SavingsAccount extends Account {
 
-    public static final double MIN_BALANCE = 100;
+    // in cents, see Money
+    public static final long MIN_BALANCE = 100 * Money.CENTS_PER_UNIT;
 
     /**
      * @see Account#getAccountType()
@@ -22,10 +23,10 @@ public class SavingsAccount extends Account {
     }
 
     /**
-     * @see Account#canDebit(double)
+     * @see Account#canDebit(long)
      */
     @Override
-    public boolean canDebit(double amount) {
+    public boolean canDebit(long amount) {
         return super.canDebit(amount) && (getBalance() - amount) >= MIN_BALANCE;
     }
 
@@ -0,0 +1,120 @@
+package io.codeforall.bootcamp.javabank.persistence.model.view;
+
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A read only view of a {@link Customer} with its accounts and recipients, fully loaded
+ * so it can be rendered without touching any lazy association of the customer
+ */
+public class CustomerDetailView {
+
+    private final Integer id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phone;
+    private final List<Account> accounts;
+    private final List<Recipient> recipients;
+
+    /**
+     * Initializes a new customer detail view
+     *
+     * @param customer   the customer
+     * @param accounts   the customer accounts
+     * @param recipients the customer recipients
+     */
+    public CustomerDetailView(Customer customer, List<Account> accounts, List<Recipient> recipients) {
+        this.id = customer.getId();
+        this.firstName = customer.getFirstName();
+        this.lastName = customer.getLastName();
+        this.email = customer.getEmail();
+        this.phone = customer.getPhone();
+        this.accounts = Collections.unmodifiableList(new ArrayList<>(accounts));
+        this.recipients = Collections.unmodifiableList(new ArrayList<>(recipients));
+    }
+
+    /**
+     * Gets the customer id
+     *
+     * @return the customer id
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Gets the first name of the customer
+     *
+     * @return the customer first name
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Gets the last name of the customer
+     *
+     * @return the customer last name
+     */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Gets the email of the customer
+     *
+     * @return the customer email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the phone of the customer
+     *
+     * @return the customer phone
+     */
+    public String getPhone() {
+        return phone;
+    }
+
+    /**
+     * Gets the customer accounts
+     *
+     * @return the unmodifiable list of accounts, ordered by id
+     */
+    public List<Account> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Gets the customer recipients
+     *
+     * @return the unmodifiable list of recipients, ordered by id
+     */
+    public List<Recipient> getRecipients() {
+        return recipients;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "CustomerDetailView{" +
+                "id=" + id +
+                ", firstName='" + firstName + '\'' +
+                ", lastName='" + lastName + '\'' +
+                ", email='" + email + '\'' +
+                ", phone='" + phone + '\'' +
+                ", accounts=" + accounts.size() +
+                ", recipients=" + recipients.size() +
+                '}';
+    }
+}
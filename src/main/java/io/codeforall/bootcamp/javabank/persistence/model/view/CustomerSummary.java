@@ -0,0 +1,92 @@
+package io.codeforall.bootcamp.javabank.persistence.model.view;
+
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+
+/**
+ * A read only projection of the {@link Customer} columns needed to list customers,
+ * not managed by the persistence context and without any of the customer associations
+ */
+public class CustomerSummary {
+
+    private final Integer id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phone;
+
+    /**
+     * Initializes a new customer summary, used as a JPQL constructor expression
+     *
+     * @param id        the customer id
+     * @param firstName the customer first name
+     * @param lastName  the customer last name
+     * @param email     the customer email
+     * @param phone     the customer phone
+     */
+    public CustomerSummary(Integer id, String firstName, String lastName, String email, String phone) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+    }
+
+    /**
+     * Gets the customer id
+     *
+     * @return the customer id
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Gets the first name of the customer
+     *
+     * @return the customer first name
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Gets the last name of the customer
+     *
+     * @return the customer last name
+     */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Gets the email of the customer
+     *
+     * @return the customer email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the phone of the customer
+     *
+     * @return the customer phone
+     */
+    public String getPhone() {
+        return phone;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "CustomerSummary{" +
+                "id=" + id +
+                ", firstName='" + firstName + '\'' +
+                ", lastName='" + lastName + '\'' +
+                ", email='" + email + '\'' +
+                ", phone='" + phone + '\'' +
+                '}';
+    }
+}
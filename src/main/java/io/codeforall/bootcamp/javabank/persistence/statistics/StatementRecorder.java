@@ -0,0 +1,77 @@
+package io.codeforall.bootcamp.javabank.persistence.statistics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A hibernate {@link StatementInspector} recording the statements prepared by the current thread,
+ * while a recording is started on it, leaving the statements unchanged
+ * <p>
+ * Recordings can be nested, each statement is recorded by all the recordings of the thread
+ */
+public class StatementRecorder implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    // hibernate creates the inspector itself, so the recordings can not belong to an instance
+    private static final ThreadLocal<Deque<StatementStatistics>> RECORDINGS = new ThreadLocal<>();
+
+    /**
+     * Starts a recording on the current thread
+     *
+     * @return the statistics the statements are recorded to
+     */
+    public static StatementStatistics start() {
+
+        Deque<StatementStatistics> recordings = RECORDINGS.get();
+
+        if (recordings == null) {
+            recordings = new ArrayDeque<>();
+            RECORDINGS.set(recordings);
+        }
+
+        StatementStatistics statistics = new StatementStatistics();
+        recordings.push(statistics);
+        return statistics;
+    }
+
+    /**
+     * Stops the latest recording started on the current thread
+     *
+     * @return the statistics of the recording, {@code null} if none was started
+     */
+    public static StatementStatistics stop() {
+
+        Deque<StatementStatistics> recordings = RECORDINGS.get();
+
+        if (recordings == null) {
+            return null;
+        }
+
+        StatementStatistics statistics = recordings.pop();
+
+        // pooled threads must not keep the recordings of past requests
+        if (recordings.isEmpty()) {
+            RECORDINGS.remove();
+        }
+
+        return statistics;
+    }
+
+    /**
+     * @see StatementInspector#inspect(String)
+     */
+    @Override
+    public String inspect(String sql) {
+
+        Deque<StatementStatistics> recordings = RECORDINGS.get();
+
+        if (recordings != null) {
+            recordings.forEach(statistics -> statistics.record(sql));
+        }
+
+        return sql;
+    }
+}
@@ -0,0 +1,66 @@
+package io.codeforall.bootcamp.javabank.persistence.statistics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The sql statements prepared while being recorded by the {@link StatementRecorder}, confined
+ * to the thread that recorded them
+ * <p>
+ * Statements are kept as prepared, with their parameters as placeholders, so the same select
+ * issued for each of a number of ids, as in an N+1 pattern, is counted as a single repeated statement
+ */
+public class StatementStatistics {
+
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+    private int statementCount;
+
+    /**
+     * Records a prepared statement
+     *
+     * @param sql the statement sql
+     */
+    public void record(String sql) {
+        statementCount++;
+        statementCounts.merge(sql, 1, Integer::sum);
+    }
+
+    /**
+     * Gets the number of statements prepared
+     *
+     * @return the number of statements
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Gets the number of times each statement was prepared
+     *
+     * @return the number of times, by statement sql, in the order they were first prepared
+     */
+    public Map<String, Integer> getStatementCounts() {
+        return Collections.unmodifiableMap(statementCounts);
+    }
+
+    /**
+     * Gets the select statements prepared a number of times or more
+     *
+     * @param threshold the number of times
+     * @return the number of times, by statement sql, of the selects prepared at least the given number of times
+     */
+    public Map<String, Integer> getRepeatedSelects(int threshold) {
+
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+
+        statementCounts.forEach((sql, count) -> {
+            if (count >= threshold && sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                repeated.put(sql, count);
+            }
+        });
+
+        return repeated;
+    }
+}
@@ -1,6 +1,9 @@
 package io.codeforall.bootcamp.javabank.services;
 
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+
+import java.util.List;
 
 /**
  * Common interface for account services, provides methods to manage accounts and perform account transactions
@@ -19,24 +22,88 @@ public interface AccountService {
      * Perform an {@link Account} deposit
      *
      * @param id     the id of the account
-     * @param amount the amount to deposit
+     * @param amount the amount to deposit, in cents
+     */
+    void deposit(Integer id, long amount);
+
+    /**
+     * Perform an {@link Account} deposit once, the retries of a request with the same key are not applied again
+     *
+     * @param id             the id of the account
+     * @param amount         the amount to deposit, in cents
+     * @param idempotencyKey the key of the request, {@code null} to always apply the deposit
      */
-    void deposit(Integer id, double amount);
+    void deposit(Integer id, long amount, String idempotencyKey);
+
+    /**
+     * Perform several {@link Account} deposits at once, each one recorded on its own
+     *
+     * @param id      the id of the account
+     * @param amounts the amounts to deposit, in cents
+     */
+    void depositAll(Integer id, List<Long> amounts);
 
     /**
      * Perform an {@link Account} withdrawal
      *
      * @param id     the id of the account
-     * @param amount the amount to withdraw
+     * @param amount the amount to withdraw, in cents
      */
-    void withdraw(Integer id, double amount);
+    void withdraw(Integer id, long amount);
+
+    /**
+     * Perform an {@link Account} withdrawal once, the retries of a request with the same key are not applied again
+     *
+     * @param id             the id of the account
+     * @param amount         the amount to withdraw, in cents
+     * @param idempotencyKey the key of the request, {@code null} to always apply the withdrawal
+     */
+    void withdraw(Integer id, long amount, String idempotencyKey);
 
     /**
      * Performs a transfer between two {@link Account} if possible
      *
      * @param srcId  the source account id
      * @param dstId  the destination account id
-     * @param amount the amount to transfer
+     * @param amount the amount to transfer, in cents
+     */
+    void transfer(Integer srcId, Integer dstId, long amount);
+
+    /**
+     * Performs a transfer between two {@link Account} once if possible,
+     * the retries of a request with the same key are not applied again
+     *
+     * @param srcId          the source account id
+     * @param dstId          the destination account id
+     * @param amount         the amount to transfer, in cents
+     * @param idempotencyKey the key of the request, {@code null} to always apply the transfer
+     */
+    void transfer(Integer srcId, Integer dstId, long amount, String idempotencyKey);
+
+    /**
+     * Performs a batch of transfers, in order, each chunk of transfers in a single transaction,
+     * a transfer that is not possible is rejected without affecting the others
+     *
+     * @param requests the transfer requests
+     * @return the result of each transfer request, in the same order
+     */
+    List<TransferResult> transferBatch(List<TransferRequest> requests);
+
+    /**
+     * Makes an {@link Account} hot, spreading its credits over a number of balance slots
+     * so that concurrent credits to the account do not wait for each other
+     *
+     * @param id the account id
+     */
+    void makeHot(Integer id);
+
+    /**
+     * Gets a page of the history of an {@link Account}, newest movements first
+     *
+     * @param id       the account id
+     * @param beforeId the id of the last entry of the previous page, {@code null} for the latest page
+     * @param limit    the maximum number of entries
+     * @return the ledger entries
      */
-    void transfer(Integer srcId, Integer dstId, double amount);
+    List<LedgerEntry> getHistory(Integer id, Integer beforeId, int limit);
 }
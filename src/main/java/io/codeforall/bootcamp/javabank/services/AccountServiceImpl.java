@@ -2,19 +2,59 @@ package io.codeforall.bootcamp.javabank.services;
 
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
 import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.IdempotencyDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.LedgerDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.IdempotencyRecord;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An {@link AccountService} implementation
  */
 @Service
+@Profile("!memory")
 public class AccountServiceImpl implements AccountService {
 
+    public static final int DEFAULT_HOT_SLOTS = 16;
+    public static final int DEFAULT_TRANSFER_CHUNK_SIZE = 500;
+    public static final long DEFAULT_IDEMPOTENCY_RETENTION = 604800000;
+
     private AccountDao accountDao;
+    private LedgerDao ledgerDao;
+    private IdempotencyDao idempotencyDao;
+    private IdempotencyCache idempotencyCache = new IdempotencyCache();
+    private BalanceCache balanceCache = new BalanceCache();
+    private ConcurrencyMode concurrencyMode = ConcurrencyMode.OPTIMISTIC;
+    private int hotSlots = DEFAULT_HOT_SLOTS;
+    private int transferChunkSize = DEFAULT_TRANSFER_CHUNK_SIZE;
+    private long idempotencyRetention = DEFAULT_IDEMPOTENCY_RETENTION;
+    private TransactionTemplate transactionTemplate;
+
+    // read once, accounts made hot by other instances are only seen once read again, until then
+    // their credits go to their row and their slots are only consolidated by the batch transfers
+    private final Set<Integer> hotAccountIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean hotAccountsLoaded;
 
     /**
      * Sets the account data access object
@@ -26,54 +66,257 @@ public class AccountServiceImpl implements AccountService {
         this.accountDao = accountDao;
     }
 
+    /**
+     * Sets the ledger data access object
+     *
+     * @param ledgerDao the ledger DAO to set
+     */
+    @Autowired
+    public void setLedgerDao(LedgerDao ledgerDao) {
+        this.ledgerDao = ledgerDao;
+    }
+
+    /**
+     * Sets the idempotency data access object
+     *
+     * @param idempotencyDao the idempotency DAO to set
+     */
+    @Autowired
+    public void setIdempotencyDao(IdempotencyDao idempotencyDao) {
+        this.idempotencyDao = idempotencyDao;
+    }
+
+    /**
+     * Sets the in memory index of the latest idempotency keys
+     *
+     * @param idempotencyCache the idempotency cache to set
+     */
+    @Autowired
+    public void setIdempotencyCache(IdempotencyCache idempotencyCache) {
+        this.idempotencyCache = idempotencyCache;
+    }
+
+    /**
+     * Sets the customer balance cache
+     *
+     * @param balanceCache the balance cache to set
+     */
+    @Autowired
+    public void setBalanceCache(BalanceCache balanceCache) {
+        this.balanceCache = balanceCache;
+    }
+
+    /**
+     * Sets the transaction manager used to apply each chunk of a transfer batch in its own transaction
+     *
+     * @param transactionManager the transaction manager to set
+     */
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Sets the way concurrent money movements are applied
+     *
+     * @param concurrencyMode the concurrency mode to set
+     */
+    @Value("${account.concurrency.mode:OPTIMISTIC}")
+    public void setConcurrencyMode(ConcurrencyMode concurrencyMode) {
+        this.concurrencyMode = concurrencyMode;
+    }
+
+    /**
+     * Sets the number of balance slots given to hot accounts
+     *
+     * @param hotSlots the number of slots to set
+     */
+    @Value("${account.hot.slots:" + DEFAULT_HOT_SLOTS + "}")
+    public void setHotSlots(int hotSlots) {
+
+        if (hotSlots <= 0) {
+            throw new IllegalArgumentException("hot slots must be positive");
+        }
+
+        this.hotSlots = hotSlots;
+    }
+
+    /**
+     * Sets the number of transfers of a batch applied in a single transaction
+     *
+     * @param transferChunkSize the transfer chunk size to set
+     */
+    @Value("${account.transfer.chunk.size:" + DEFAULT_TRANSFER_CHUNK_SIZE + "}")
+    public void setTransferChunkSize(int transferChunkSize) {
+
+        if (transferChunkSize <= 0) {
+            throw new IllegalArgumentException("transfer chunk size must be positive");
+        }
+
+        this.transferChunkSize = transferChunkSize;
+    }
+
+    /**
+     * Sets the time the idempotency keys are kept for, their retries are recognized at least as long
+     *
+     * @param idempotencyRetention the idempotency retention to set, in milliseconds
+     */
+    @Value("${account.idempotency.retention:" + DEFAULT_IDEMPOTENCY_RETENTION + "}")
+    public void setIdempotencyRetention(long idempotencyRetention) {
+
+        if (idempotencyRetention <= 0) {
+            throw new IllegalArgumentException("idempotency retention must be positive");
+        }
+
+        this.idempotencyRetention = idempotencyRetention;
+    }
+
+    /**
+     * Reads the hot accounts ahead of the first money movement, which would read them otherwise,
+     * reading them again picks up the accounts made hot by other instances
+     */
+    public synchronized void loadHotAccounts() {
+        hotAccountIds.addAll(accountDao.findHotIds());
+        hotAccountsLoaded = true;
+    }
+
     /**
      * @see AccountService#get(Integer)
      */
     @Override
     public Account get(Integer id) {
-        return accountDao.findById(id);
+
+        Account account = accountDao.findById(id);
+
+        // only the accounts read to be shown pay for their slots, money movements never need them
+        if (account != null) {
+            account.setSlotBalance(accountDao.sumSlotsByAccounts(Collections.singleton(id))
+                    .getOrDefault(id, Money.ZERO));
+        }
+
+        return account;
+    }
+
+    /**
+     * @see AccountService#deposit(Integer, long)
+     */
+    @Transactional
+    @Override
+    public void deposit(Integer id, long amount) {
+        depositAll(id, Collections.singletonList(amount));
+    }
+
+    /**
+     * @see AccountService#deposit(Integer, long, String)
+     */
+    @Transactional
+    @Override
+    public void deposit(Integer id, long amount, String idempotencyKey) {
+
+        if (claim(idempotencyKey, "deposit:" + id + ":" + amount)) {
+            deposit(id, amount);
+        }
     }
 
     /**
-     * @see AccountService#deposit(Integer, double)
+     * The account is credited once with the sum of the amounts
+     *
+     * @see AccountService#depositAll(Integer, List)
      */
     @Transactional
     @Override
-    public void deposit(Integer id, double amount) {
+    public void depositAll(Integer id, List<Long> amounts) {
+
+        long amount = amounts.stream().filter(value -> value > 0).reduce(Money.ZERO, Money::add);
+
+        if (concurrencyMode == ConcurrencyMode.ATOMIC || isHot(id)) {
+
+            if (!credit(id, amount)) {
+                findAccount(id);
+                return;
+            }
+
+            recordDeposits(id, amounts);
+            return;
+        }
+
+        Optional<Account> accountOptional = Optional.ofNullable(loadAccount(id));
 
-        Optional<Account> accountOptional = Optional.ofNullable(accountDao.findById(id));
+        accountOptional.orElseThrow(() -> new IllegalArgumentException("invalid account id"));
 
-        accountOptional.orElseThrow(() -> new IllegalArgumentException("invalid account id"))
-                .credit(amount);
+        if (accountOptional.get().canCredit(amount)) {
+            accountOptional.get().credit(amount);
+            recordDeposits(id, amounts);
+        }
 
         accountDao.saveOrUpdate(accountOptional.get());
     }
 
     /**
-     * @see AccountService#withdraw(Integer, double)
+     * @see AccountService#withdraw(Integer, long)
      */
     @Transactional
     @Override
-    public void withdraw(Integer id, double amount) {
+    public void withdraw(Integer id, long amount) {
+
+        if (concurrencyMode == ConcurrencyMode.ATOMIC || isHot(id)) {
+
+            if (withdrawGuarded(id, amount)) {
+                record(LedgerEntry.withdrawal(id, amount));
+                return;
+            }
+
+            if (!findAccount(id).canWithdraw()) {
+                throw new IllegalArgumentException("invalid account type");
+            }
+
+            return;
+        }
 
-        Account account = Optional.ofNullable(accountDao.findById(id))
+        Account account = Optional.ofNullable(loadAccount(id))
                 .orElseThrow(() -> new IllegalArgumentException("invalid account id"));
 
         if (!account.canWithdraw()) {
             throw new IllegalArgumentException("invalid account type");
         }
 
-        account.debit(amount);
+        if (account.canDebit(amount)) {
+            account.debit(amount);
+            record(LedgerEntry.withdrawal(id, amount));
+        }
 
         accountDao.saveOrUpdate(account);
     }
 
     /**
-     * @see AccountService#transfer(Integer, Integer, double)
+     * @see AccountService#withdraw(Integer, long, String)
+     */
+    @Transactional
+    @Override
+    public void withdraw(Integer id, long amount, String idempotencyKey) {
+
+        if (claim(idempotencyKey, "withdraw:" + id + ":" + amount)) {
+            withdraw(id, amount);
+        }
+    }
+
+    /**
+     * @see AccountService#transfer(Integer, Integer, long)
      */
     @Transactional
     @Override
-    public void transfer(Integer srcId, Integer dstId, double amount) {
+    public void transfer(Integer srcId, Integer dstId, long amount) {
+
+        // hot accounts are never loaded to be changed, their balance is not only in their row
+        if (concurrencyMode == ConcurrencyMode.ATOMIC || isHot(srcId) || isHot(dstId)) {
+            transferAtomic(srcId, dstId, amount);
+            return;
+        }
+
+        if (concurrencyMode == ConcurrencyMode.PESSIMISTIC) {
+            transferPessimistic(srcId, dstId, amount);
+            return;
+        }
 
         Optional<Account> srcAccount = Optional.ofNullable(accountDao.findById(srcId));
         Optional<Account> dstAccount = Optional.ofNullable(accountDao.findById(dstId));
@@ -85,9 +328,343 @@ public class AccountServiceImpl implements AccountService {
         if (srcAccount.get().canDebit(amount) && dstAccount.get().canCredit(amount)) {
             srcAccount.get().debit(amount);
             dstAccount.get().credit(amount);
+            recordTransfer(srcId, dstId, amount);
         }
 
         accountDao.saveOrUpdate(srcAccount.get());
         accountDao.saveOrUpdate(dstAccount.get());
     }
+
+    /**
+     * @see AccountService#transfer(Integer, Integer, long, String)
+     */
+    @Transactional
+    @Override
+    public void transfer(Integer srcId, Integer dstId, long amount, String idempotencyKey) {
+
+        if (claim(idempotencyKey, "transfer:" + srcId + ":" + dstId + ":" + amount)) {
+            transfer(srcId, dstId, amount);
+        }
+    }
+
+    // both rows are locked up front, as the guarded updates would lock them in argument order
+    private void transferAtomic(Integer srcId, Integer dstId, long amount) {
+
+        if (srcId != null && dstId != null) {
+            accountDao.lockAll(Arrays.asList(srcId, dstId));
+        }
+
+        if (debitThenCredit(srcId, dstId, amount)) {
+            recordTransfer(srcId, dstId, amount);
+        }
+    }
+
+    private boolean debitThenCredit(Integer srcId, Integer dstId, long amount) {
+
+        // the debit is guarded by the source account rules,
+        // accounts are only looked up to tell why a transfer was not possible
+        if (!debit(srcId, amount)) {
+            findAccount(srcId);
+            findAccount(dstId);
+            return false;
+        }
+
+        // throwing rolls back the debit
+        if (!credit(dstId, amount)) {
+            throw new IllegalArgumentException("invalid account id");
+        }
+
+        return true;
+    }
+
+    /**
+     * Applies each chunk in its own transaction, so it is not transactional itself
+     *
+     * @see AccountService#transferBatch(List)
+     */
+    @Override
+    public List<TransferResult> transferBatch(List<TransferRequest> requests) {
+
+        List<TransferResult> results = new ArrayList<>(requests.size());
+
+        for (int from = 0; from < requests.size(); from += transferChunkSize) {
+            List<TransferRequest> chunk = requests.subList(from, Math.min(requests.size(), from + transferChunkSize));
+            results.addAll(transferChunk(chunk));
+        }
+
+        return results;
+    }
+
+    /**
+     * @see AccountService#makeHot(Integer)
+     */
+    @Transactional
+    @Override
+    public void makeHot(Integer id) {
+
+        if (!accountDao.createSlots(id, hotSlots)) {
+            throw new IllegalArgumentException("invalid account id");
+        }
+
+        makeHotOnCommit(id);
+    }
+
+    /**
+     * @see AccountService#getHistory(Integer, Integer, int)
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<LedgerEntry> getHistory(Integer id, Integer beforeId, int limit) {
+        return ledgerDao.findHistory(id, beforeId, limit);
+    }
+
+    private void transferPessimistic(Integer srcId, Integer dstId, long amount) {
+
+        if (srcId == null || dstId == null) {
+            throw new IllegalArgumentException("invalid account id");
+        }
+
+        // lowest id first, the order of AccountDao#lockAll
+        boolean srcFirst = srcId <= dstId;
+        Account firstAccount = findAccountForUpdate(srcFirst ? srcId : dstId);
+        Account secondAccount = findAccountForUpdate(srcFirst ? dstId : srcId);
+
+        Account srcAccount = srcFirst ? firstAccount : secondAccount;
+        Account dstAccount = srcFirst ? secondAccount : firstAccount;
+
+        // locked accounts are managed, the changes are flushed on commit
+        if (srcAccount.canDebit(amount) && dstAccount.canCredit(amount)) {
+            srcAccount.debit(amount);
+            dstAccount.credit(amount);
+            recordTransfer(srcId, dstId, amount);
+        }
+    }
+
+    // a conflicting chunk is rolled back as a whole, so none of its transfers were applied
+    private List<TransferResult> transferChunk(List<TransferRequest> chunk) {
+
+        try {
+            return transactionTemplate.execute(status -> applyChunk(chunk));
+
+        } catch (RuntimeException ex) {
+
+            if (!RetryOnConflictInterceptor.isConflict(ex)) {
+                throw ex;
+            }
+
+            List<TransferResult> results = new ArrayList<>(chunk.size());
+
+            for (TransferRequest request : chunk) {
+                results.add(new TransferResult(request, TransferStatus.CONFLICT));
+            }
+
+            return results;
+        }
+    }
+
+    private List<TransferResult> applyChunk(List<TransferRequest> chunk) {
+
+        Set<Integer> ids = new TreeSet<>();
+        Set<Integer> srcIds = new TreeSet<>();
+
+        for (TransferRequest request : chunk) {
+
+            if (request.getSrcId() != null && request.getDstId() != null) {
+                ids.add(request.getSrcId());
+                ids.add(request.getDstId());
+                srcIds.add(request.getSrcId());
+            }
+        }
+
+        // locked before anything else, in ascending id order, so chunks can not deadlock
+        if (concurrencyMode != ConcurrencyMode.OPTIMISTIC) {
+            accountDao.lockAll(ids);
+        }
+
+        // only the account row balance can be debited, so it has to hold the whole balance, the sources
+        // with slots are found with a single query, as some may have been made hot by another instance,
+        // credits to hot accounts are simply added to their row once per chunk
+        Set<Integer> hotSrcIds = new TreeSet<>(accountDao.sumSlotsByAccounts(srcIds).keySet());
+
+        for (Integer id : hotSrcIds) {
+            accountDao.consolidateSlots(id);
+        }
+
+        Map<Integer, Account> accounts = new HashMap<>();
+
+        for (Account account : accountDao.findByIds(ids)) {
+            accounts.put(account.getId(), account);
+        }
+
+        // all the accounts of the chunk are changed in memory, each one is updated once on commit
+        List<TransferResult> results = new ArrayList<>(chunk.size());
+
+        for (TransferRequest request : chunk) {
+
+            Account srcAccount = accounts.get(request.getSrcId());
+            Account dstAccount = accounts.get(request.getDstId());
+            TransferStatus status = TransferStatus.check(srcAccount, dstAccount, request.getAmount());
+
+            if (status == TransferStatus.APPLIED) {
+                srcAccount.debit(request.getAmount());
+                dstAccount.credit(request.getAmount());
+                recordTransfer(request.getSrcId(), request.getDstId(), request.getAmount());
+            }
+
+            results.add(new TransferResult(request, status));
+        }
+
+        return results;
+    }
+
+    // known keys are answered from memory first, then from the table, without touching the accounts,
+    // a new key is inserted before the movement so that it is rolled back together with it
+    private boolean claim(String idempotencyKey, String fingerprint) {
+
+        if (idempotencyKey == null) {
+            return true;
+        }
+
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > IdempotencyRecord.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("invalid idempotency key");
+        }
+
+        String knownFingerprint = idempotencyCache.get(idempotencyKey);
+
+        if (knownFingerprint == null) {
+
+            IdempotencyRecord record = idempotencyDao.findByKey(idempotencyKey);
+
+            if (record != null) {
+                knownFingerprint = record.getFingerprint();
+                idempotencyCache.put(idempotencyKey, knownFingerprint);
+            }
+        }
+
+        if (knownFingerprint != null) {
+
+            if (!knownFingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("idempotency key reused");
+            }
+
+            return false;
+        }
+
+        idempotencyDao.insert(new IdempotencyRecord(idempotencyKey, fingerprint,
+                new Date(System.currentTimeMillis() + idempotencyRetention)));
+        rememberOnCommit(idempotencyKey, fingerprint);
+        return true;
+    }
+
+    // keys of rolled back movements are not remembered, so their retries are applied
+    private void rememberOnCommit(String idempotencyKey, String fingerprint) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            idempotencyCache.put(idempotencyKey, fingerprint);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                idempotencyCache.put(idempotencyKey, fingerprint);
+            }
+        });
+    }
+
+    // the account has no slots if the transaction rolls back
+    private void makeHotOnCommit(Integer id) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hotAccountIds.add(id);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                hotAccountIds.add(id);
+            }
+        });
+    }
+
+    // every balance change is recorded in the ledger, and written through to the customer balances
+    private void record(LedgerEntry entry) {
+        ledgerDao.append(entry);
+        balanceCache.record(entry.getAccountId(), entry.getAmount());
+    }
+
+    // amounts that can not be credited are not part of the deposit
+    private void recordDeposits(Integer id, List<Long> amounts) {
+
+        for (long amount : amounts) {
+            if (amount > 0) {
+                record(LedgerEntry.deposit(id, amount));
+            }
+        }
+    }
+
+    // double entry, the money leaving one account is the money reaching the other
+    private void recordTransfer(Integer srcId, Integer dstId, long amount) {
+        record(LedgerEntry.transferOut(srcId, dstId, amount));
+        record(LedgerEntry.transferIn(dstId, srcId, amount));
+    }
+
+    // single accounts are locked as well in the pessimistic mode, so
+    // they wait for the transfers holding them instead of failing on commit
+    private Account loadAccount(Integer id) {
+        return concurrencyMode == ConcurrencyMode.PESSIMISTIC ? accountDao.findByIdForUpdate(id) : accountDao.findById(id);
+    }
+
+    // credits of hot accounts go to one of their slots, picked by thread so that
+    // concurrent credits rarely share one, falling back to the account row
+    private boolean credit(Integer id, long amount) {
+        return isHot(id) && accountDao.creditSlot(id, slotFor(Thread.currentThread()), amount) ||
+                accountDao.credit(id, amount);
+    }
+
+    // slots are only consolidated when the row balance of a hot account is not enough,
+    // the debits of the other accounts fail without locking any slot
+    private boolean debit(Integer id, long amount) {
+        return accountDao.debit(id, amount) ||
+                amount > 0 && isHot(id) && accountDao.consolidateSlots(id) > 0 && accountDao.debit(id, amount);
+    }
+
+    private boolean withdrawGuarded(Integer id, long amount) {
+        return accountDao.withdraw(id, amount) ||
+                amount > 0 && isHot(id) && accountDao.consolidateSlots(id) > 0 && accountDao.withdraw(id, amount);
+    }
+
+    private int slotFor(Thread thread) {
+        return (int) (thread.getId() % hotSlots);
+    }
+
+    private boolean isHot(Integer id) {
+
+        if (!hotAccountsLoaded) {
+            loadOnce();
+        }
+
+        return id != null && hotAccountIds.contains(id);
+    }
+
+    // the ids made hot meanwhile are added to the set, never replaced
+    private synchronized void loadOnce() {
+
+        if (!hotAccountsLoaded) {
+            loadHotAccounts();
+        }
+    }
+
+    private Account findAccountForUpdate(Integer id) {
+        return Optional.ofNullable(accountDao.findByIdForUpdate(id))
+                .orElseThrow(() -> new IllegalArgumentException("invalid account id"));
+    }
+
+    private Account findAccount(Integer id) {
+        return Optional.ofNullable(accountDao.findById(id))
+                .orElseThrow(() -> new IllegalArgumentException("invalid account id"));
+    }
 }
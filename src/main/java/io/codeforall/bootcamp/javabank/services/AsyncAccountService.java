@@ -0,0 +1,481 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies {@link AccountService} money movements on a fixed number of worker threads, each one
+ * with its own bounded queue, so request threads do not wait for the database
+ * <p>
+ * Accounts are partitioned over the workers by id, each account is only ever changed by the
+ * worker of its partition, so concurrent movements on the same account do not conflict, and
+ * deposits and withdrawals are applied in the order they were submitted
+ * <p>
+ * A transfer between the accounts of two partitions runs on the worker of the lower partition,
+ * while the worker of the higher one is held idle, the hold is queued on the higher partition as
+ * the transfer is submitted, so the movements submitted after it on either account wait for it,
+ * and transfers are queued on every partition in the same order so they can not deadlock
+ */
+public class AsyncAccountService {
+
+    public static final int DEFAULT_PARTITIONS = 8;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT = 10000;
+
+    private AccountService accountService;
+    private int partitions = DEFAULT_PARTITIONS;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.REJECT;
+    private long shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+
+    private ThreadPoolExecutor[] workers;
+    private final Object submissionLock = new Object();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalWaitTime = new LongAdder();
+    private final LongAccumulator maxWaitTime = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Sets the account service
+     *
+     * @param accountService the account service to set
+     */
+    @Autowired
+    public void setAccountService(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    /**
+     * Sets the number of worker threads, each one applying the movements of its share of the accounts
+     *
+     * @param partitions the number of partitions to set
+     */
+    public void setPartitions(int partitions) {
+
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be positive");
+        }
+
+        this.partitions = partitions;
+    }
+
+    /**
+     * Sets the number of movements each worker thread can have waiting
+     *
+     * @param queueCapacity the queue capacity to set
+     */
+    public void setQueueCapacity(int queueCapacity) {
+
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queue capacity must be positive");
+        }
+
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Sets what happens to the movements submitted to a full queue
+     *
+     * @param backpressurePolicy the backpressure policy to set
+     */
+    public void setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+    }
+
+    /**
+     * Sets the time the waiting movements have to be applied once shut down
+     *
+     * @param shutdownTimeout the shutdown timeout to set, in milliseconds
+     */
+    public void setShutdownTimeout(long shutdownTimeout) {
+
+        if (shutdownTimeout < 0) {
+            throw new IllegalArgumentException("shutdown timeout must not be negative");
+        }
+
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Gets the number of movements submitted, including the rejected ones
+     *
+     * @return the number of submissions
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * Gets the number of movements rejected because their queue was full
+     *
+     * @return the number of rejections
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the number of movements applied or failed
+     *
+     * @return the number of completions
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Gets the number of movements waiting in the queues
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+
+        int depth = 0;
+
+        for (ThreadPoolExecutor worker : workers) {
+            depth += worker.getQueue().size();
+        }
+
+        return depth;
+    }
+
+    /**
+     * Gets the time the completed movements waited in their queues, all together
+     *
+     * @return the total wait time, in nanoseconds
+     */
+    public long getTotalWaitTime() {
+        return totalWaitTime.sum();
+    }
+
+    /**
+     * Gets the longest time a movement waited in its queue
+     *
+     * @return the maximum wait time, in nanoseconds
+     */
+    public long getMaxWaitTime() {
+        return maxWaitTime.get();
+    }
+
+    /**
+     * Starts the worker threads
+     */
+    public void start() {
+
+        workers = new ThreadPoolExecutor[partitions];
+
+        for (int i = 0; i < partitions; i++) {
+
+            String name = "account-worker-" + (i + 1);
+
+            workers[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            // blocking submissions go straight to the queue, they need the thread already running
+            workers[i].prestartAllCoreThreads();
+        }
+    }
+
+    /**
+     * Applies the waiting movements and stops the worker threads, the movements still waiting
+     * after the shutdown timeout are failed
+     *
+     * @throws InterruptedException if interrupted while waiting for the movements to be applied
+     */
+    public void shutdown() throws InterruptedException {
+
+        // transfers are queued on both their partitions or on none, so no hold is left without its movement
+        synchronized (submissionLock) {
+            for (ThreadPoolExecutor worker : workers) {
+                worker.shutdown();
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout);
+        boolean terminated = true;
+
+        for (ThreadPoolExecutor worker : workers) {
+            terminated &= worker.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        if (terminated) {
+            return;
+        }
+
+        // all queues are drained first, a released hold must not let its worker take the next movement
+        List<Runnable> tasks = new ArrayList<>();
+
+        for (ThreadPoolExecutor worker : workers) {
+            tasks.addAll(worker.shutdownNow());
+        }
+
+        // cancelled movements release their holds and cancelled holds fail their movements,
+        // so the movements and holds already running do not wait for them forever
+        for (Runnable task : tasks) {
+            ((Task) task).cancel();
+        }
+    }
+
+    /**
+     * Submits an {@link AccountService} deposit
+     *
+     * @param id             the id of the account
+     * @param amount         the amount to deposit, in cents
+     * @param idempotencyKey the key of the request, {@code null} to always apply the deposit
+     * @return the future completed once the deposit is applied, or failed with the reason it was not
+     * @see AccountService#deposit(Integer, long, String)
+     */
+    public CompletableFuture<Void> deposit(Integer id, long amount, String idempotencyKey) {
+        return submit(() -> accountService.deposit(id, amount, idempotencyKey), id);
+    }
+
+    /**
+     * Submits an {@link AccountService} withdrawal
+     *
+     * @param id             the id of the account
+     * @param amount         the amount to withdraw, in cents
+     * @param idempotencyKey the key of the request, {@code null} to always apply the withdrawal
+     * @return the future completed once the withdrawal is applied, or failed with the reason it was not
+     * @see AccountService#withdraw(Integer, long, String)
+     */
+    public CompletableFuture<Void> withdraw(Integer id, long amount, String idempotencyKey) {
+        return submit(() -> accountService.withdraw(id, amount, idempotencyKey), id);
+    }
+
+    /**
+     * Submits an {@link AccountService} transfer
+     *
+     * @param srcId          the source account id
+     * @param dstId          the destination account id
+     * @param amount         the amount to transfer, in cents
+     * @param idempotencyKey the key of the request, {@code null} to always apply the transfer
+     * @return the future completed once the transfer is applied, or failed with the reason it was not
+     * @see AccountService#transfer(Integer, Integer, long, String)
+     */
+    public CompletableFuture<Void> transfer(Integer srcId, Integer dstId, long amount, String idempotencyKey) {
+        return submit(() -> accountService.transfer(srcId, dstId, amount, idempotencyKey), srcId, dstId);
+    }
+
+    private CompletableFuture<Void> submit(Runnable movement, Integer... ids) {
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        for (Integer id : ids) {
+            if (id == null) {
+                future.completeExceptionally(new IllegalArgumentException("invalid account id"));
+                return future;
+            }
+        }
+
+        submitted.increment();
+
+        int first = partition(ids[0]);
+        int second = first;
+
+        for (Integer id : ids) {
+            first = Math.min(first, partition(id));
+            second = Math.max(second, partition(id));
+        }
+
+        Hold hold = first == second ? null : new Hold();
+        long submitTime = System.nanoTime();
+
+        Runnable action = () -> {
+
+            long waitTime = System.nanoTime() - submitTime;
+            totalWaitTime.add(waitTime);
+            maxWaitTime.accumulate(waitTime);
+
+            try {
+                if (hold == null) {
+                    movement.run();
+                } else {
+                    hold.apply(movement);
+                }
+
+            } catch (RuntimeException ex) {
+                completed.increment();
+                future.completeExceptionally(ex);
+                return;
+            }
+
+            // counted before the callers are told, so they see it counted
+            completed.increment();
+            future.complete(null);
+        };
+
+        Task task = new Task(action, () -> {
+
+            if (hold != null) {
+                hold.release();
+            }
+
+            completed.increment();
+            future.completeExceptionally(new RejectedExecutionException("account service shut down"));
+        });
+
+        try {
+            if (hold == null) {
+                enqueue(workers[first], task);
+            } else {
+                enqueue(workers[first], task, workers[second], hold);
+            }
+
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            future.completeExceptionally(ex);
+        }
+
+        return future;
+    }
+
+    // the hold is queued on the higher partition along with the movement on the lower one, both under the
+    // submission lock, so every partition sees the transfers in the same order, holds wait for room in the
+    // queue as any other movement, the lock is only ever waited for by submitting threads
+    private void enqueue(ThreadPoolExecutor worker, Task task, ThreadPoolExecutor heldWorker, Hold hold) {
+
+        synchronized (submissionLock) {
+
+            enqueue(heldWorker, new Task(hold::hold, hold::cancel));
+
+            try {
+                enqueue(worker, task);
+
+            } catch (RejectedExecutionException ex) {
+                // released, the hold already queued lets the worker go as soon as it runs
+                hold.release();
+                throw ex;
+            }
+        }
+    }
+
+    private void enqueue(ThreadPoolExecutor worker, Runnable task) {
+
+        if (backpressurePolicy == BackpressurePolicy.REJECT || worker.isShutdown()) {
+            worker.execute(task);
+            return;
+        }
+
+        // the single worker thread is started up front, so it takes the movements from the queue in order
+        try {
+            worker.getQueue().put(task);
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for the queue", ex);
+        }
+
+        // shut down while waiting for room, the worker may be gone without taking it
+        if (worker.isShutdown() && worker.getQueue().remove(task)) {
+            throw new RejectedExecutionException("account service shut down");
+        }
+    }
+
+    /**
+     * Gets the partition of an account, its movements are only applied by the worker of the partition
+     *
+     * @param id the account id
+     * @return the partition, spreading consecutive ids over the partitions
+     */
+    int partition(int id) {
+        int hash = id * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+
+        boolean interrupted = false;
+
+        while (true) {
+            try {
+                latch.await();
+                break;
+
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // a queued movement or hold, told when it will never run
+    private static final class Task implements Runnable {
+
+        private final Runnable action;
+        private final Runnable cancellation;
+
+        private Task(Runnable action, Runnable cancellation) {
+            this.action = action;
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        public void run() {
+            action.run();
+        }
+
+        private void cancel() {
+            cancellation.run();
+        }
+    }
+
+    // keeps the worker of the higher partition of a transfer idle while the worker of the lower one applies it
+    private static final class Hold {
+
+        private final CountDownLatch held = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean cancelled;
+
+        // run by the worker of the higher partition
+        private void hold() {
+            held.countDown();
+            awaitUninterruptibly(released);
+        }
+
+        // run by the worker of the lower partition
+        private void apply(Runnable movement) {
+
+            try {
+                awaitUninterruptibly(held);
+
+                if (cancelled) {
+                    throw new RejectedExecutionException("account service shut down");
+                }
+
+                movement.run();
+
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            released.countDown();
+        }
+
+        private void cancel() {
+            cancelled = true;
+            held.countDown();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.codeforall.bootcamp.javabank.services;
+
+/**
+ * The possible ways for an {@link AsyncAccountService} to handle submissions to a full queue
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * The submission fails right away, its future is completed with a
+     * {@link java.util.concurrent.RejectedExecutionException}
+     */
+    REJECT,
+
+    /**
+     * The submitting thread waits for room in the queue
+     */
+    BLOCK
+}
@@ -0,0 +1,393 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in memory index of customer balances, read without locking and kept up to date by the
+ * money movements, which write their changes through once their transaction commits
+ * <p>
+ * Changes made around the {@link AccountService}, or lost to an unknown transaction outcome,
+ * are repaired by a periodic reconciliation against the database
+ */
+public class BalanceCache {
+
+    public static final int DEFAULT_MAX_CUSTOMERS = 100000;
+    public static final long DEFAULT_RECONCILE_INTERVAL = 60000;
+
+    // account ids are spread over stripes, a balance loaded while one of the stripes
+    // of its accounts was being changed may already be stale, so it is not cached
+    private static final int STRIPES = 64;
+
+    private AccountDao accountDao;
+    private int maxCustomers = DEFAULT_MAX_CUSTOMERS;
+    private long reconcileInterval = DEFAULT_RECONCILE_INTERVAL;
+
+    private final ConcurrentHashMap<Integer, Long> balances = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Integer> owners = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private final Map<Integer, Set<Integer>> accounts = new HashMap<>();
+    private final long[] changes = new long[STRIPES];
+    private final int[] pending = new int[STRIPES];
+
+    private final PeriodicTask reconciler = new PeriodicTask("balance-cache-reconciler", this::reconcile);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder repairs = new LongAdder();
+
+    /**
+     * Sets the account DAO
+     *
+     * @param accountDao the account DAO to set
+     */
+    @Autowired
+    public void setAccountDao(AccountDao accountDao) {
+        this.accountDao = accountDao;
+    }
+
+    /**
+     * Sets the maximum number of customer balances kept, the balances of other customers are not cached
+     *
+     * @param maxCustomers the maximum number of customers to set
+     */
+    public void setMaxCustomers(int maxCustomers) {
+
+        if (maxCustomers <= 0) {
+            throw new IllegalArgumentException("max customers must be positive");
+        }
+
+        this.maxCustomers = maxCustomers;
+    }
+
+    /**
+     * Sets the time between reconciliations, none are made if not positive
+     *
+     * @param reconcileInterval the reconcile interval to set, in milliseconds
+     */
+    public void setReconcileInterval(long reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * Gets the number of balances answered from memory
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of balances read from the database
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of cached balances found wrong and corrected by the reconciliations
+     *
+     * @return the number of repairs
+     */
+    public long getRepairs() {
+        return repairs.sum();
+    }
+
+    /**
+     * Gets the number of scheduled reconciliations failed, their drift is repaired by the next ones
+     *
+     * @return the number of failed reconciliations
+     */
+    public long getFailures() {
+        return reconciler.getFailures();
+    }
+
+    /**
+     * Gets the number of customer balances kept
+     *
+     * @return the number of customers
+     */
+    public int size() {
+        return balances.size();
+    }
+
+    /**
+     * Starts reconciling the cached balances against the database
+     */
+    public void start() {
+        reconciler.start(reconcileInterval);
+    }
+
+    /**
+     * Stops reconciling the cached balances
+     */
+    public void shutdown() {
+        reconciler.shutdown();
+    }
+
+    /**
+     * Gets the balance of a customer, from memory if known, from the database otherwise
+     *
+     * @param customerId the customer id
+     * @return the customer balance in cents, {@code null} if the customer does not exist
+     * @see AccountDao#findBalancesByCustomer(Integer)
+     */
+    public Long getBalance(Integer customerId) {
+
+        Long balance = balances.get(customerId);
+
+        if (balance != null) {
+            hits.increment();
+            return balance;
+        }
+
+        misses.increment();
+
+        long[] stamps = stamps();
+        Map<Integer, Long> accountBalances = accountDao.findBalancesByCustomer(customerId);
+
+        if (accountBalances == null) {
+            return null;
+        }
+
+        balance = sum(accountBalances);
+
+        synchronized (this) {
+            if (balances.size() < maxCustomers && isUnchanged(accountBalances.keySet(), stamps)) {
+                store(customerId, accountBalances.keySet(), balance);
+            }
+        }
+
+        return balance;
+    }
+
+    /**
+     * Records a change to the balance of an account, applied to the cached balance of its
+     * customer once the current transaction commits, or right away outside of a transaction
+     *
+     * @param accountId the account id
+     * @param amount    the amount, in cents, negative when money leaves the account
+     */
+    public void record(Integer accountId, long amount) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Integer, Long> amounts = new HashMap<>();
+            amounts.put(accountId, amount);
+            begin(amounts.keySet());
+            end(amounts);
+            return;
+        }
+
+        // the changes of a transaction are gathered and written through together
+        @SuppressWarnings("unchecked")
+        Map<Integer, Long> amounts = (Map<Integer, Long>) TransactionSynchronizationManager.getResource(this);
+
+        if (amounts == null) {
+            amounts = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, amounts);
+            TransactionSynchronizationManager.registerSynchronization(new WriteThrough(amounts));
+        }
+
+        amounts.merge(accountId, amount, Money::add);
+    }
+
+    /**
+     * Forgets the balance of a customer
+     *
+     * @param customerId the customer id
+     */
+    public synchronized void evict(Integer customerId) {
+        remove(customerId);
+    }
+
+    /**
+     * Compares each cached balance with the database, correcting the wrong ones and
+     * forgetting the balances of deleted customers
+     *
+     * @return the number of balances corrected
+     */
+    public int reconcile() {
+
+        int repaired = 0;
+
+        for (Integer customerId : balances.keySet()) {
+
+            long[] stamps = stamps();
+            Map<Integer, Long> accountBalances = accountDao.findBalancesByCustomer(customerId);
+
+            if (accountBalances == null) {
+                evict(customerId);
+                continue;
+            }
+
+            long balance = sum(accountBalances);
+
+            // changed while being compared, left for the next reconciliation
+            synchronized (this) {
+
+                if (!balances.containsKey(customerId) || !isUnchanged(accountBalances.keySet(), stamps)) {
+                    continue;
+                }
+
+                Long previous = store(customerId, accountBalances.keySet(), balance);
+
+                if (previous != null && previous != balance) {
+                    repaired++;
+                }
+            }
+        }
+
+        repairs.add(repaired);
+        return repaired;
+    }
+
+    // from before the commit until the changes are written through, loads of the changing
+    // accounts can not tell if they have read the changes or not
+    private synchronized void begin(Collection<Integer> accountIds) {
+
+        for (Integer accountId : accountIds) {
+            int stripe = stripe(accountId);
+            pending[stripe]++;
+            changes[stripe]++;
+        }
+    }
+
+    private synchronized void end(Map<Integer, Long> amounts) {
+
+        for (Map.Entry<Integer, Long> amount : amounts.entrySet()) {
+
+            Integer customerId = owners.get(amount.getKey());
+
+            if (customerId != null) {
+                balances.computeIfPresent(customerId, (id, balance) -> Money.add(balance, amount.getValue()));
+            }
+
+            int stripe = stripe(amount.getKey());
+            pending[stripe]--;
+            changes[stripe]++;
+        }
+    }
+
+    private synchronized void abort(Collection<Integer> accountIds, boolean evict) {
+
+        for (Integer accountId : accountIds) {
+
+            Integer customerId = owners.get(accountId);
+
+            if (evict && customerId != null) {
+                remove(customerId);
+            }
+
+            int stripe = stripe(accountId);
+            pending[stripe]--;
+            changes[stripe]++;
+        }
+    }
+
+    private synchronized long[] stamps() {
+        return changes.clone();
+    }
+
+    // guarded by this
+    private boolean isUnchanged(Collection<Integer> accountIds, long[] stamps) {
+
+        for (Integer accountId : accountIds) {
+
+            int stripe = stripe(accountId);
+
+            if (pending[stripe] > 0 || changes[stripe] != stamps[stripe]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // guarded by this
+    private Long store(Integer customerId, Collection<Integer> accountIds, long balance) {
+
+        Set<Integer> ids = new HashSet<>(accountIds);
+        Set<Integer> previousIds = accounts.put(customerId, ids);
+
+        // accounts no longer owned by the customer, deleted since the balance was stored
+        if (previousIds != null) {
+            previousIds.removeAll(ids);
+            previousIds.forEach(accountId -> owners.remove(accountId, customerId));
+        }
+
+        for (Integer accountId : ids) {
+            owners.put(accountId, customerId);
+        }
+
+        return balances.put(customerId, balance);
+    }
+
+    // guarded by this
+    private void remove(Integer customerId) {
+
+        balances.remove(customerId);
+        Set<Integer> accountIds = accounts.remove(customerId);
+
+        if (accountIds != null) {
+            accountIds.forEach(accountId -> owners.remove(accountId, customerId));
+        }
+    }
+
+    private int stripe(Integer accountId) {
+        return Math.floorMod(accountId, STRIPES);
+    }
+
+    private long sum(Map<Integer, Long> accountBalances) {
+        return accountBalances.values().stream().reduce(Money.ZERO, Money::add);
+    }
+
+    private final class WriteThrough extends TransactionSynchronizationAdapter {
+
+        private final Map<Integer, Long> amounts;
+        private boolean begun;
+
+        private WriteThrough(Map<Integer, Long> amounts) {
+            this.amounts = amounts;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            begin(amounts.keySet());
+            begun = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+
+            TransactionSynchronizationManager.unbindResourceIfPossible(BalanceCache.this);
+
+            if (!begun) {
+                return;
+            }
+
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                end(amounts);
+                return;
+            }
+
+            // a failed commit may still have been applied
+            abort(amounts.keySet(), status == TransactionSynchronization.STATUS_UNKNOWN);
+        }
+    }
+}
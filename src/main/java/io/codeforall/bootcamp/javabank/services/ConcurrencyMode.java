@@ -0,0 +1,25 @@
+package io.codeforall.bootcamp.javabank.services;
+
+/**
+ * The possible ways for an {@link AccountService} to apply concurrent money movements
+ */
+public enum ConcurrencyMode {
+
+    /**
+     * Accounts are loaded, checked and merged back, concurrent changes
+     * to the same account are detected by the model version
+     */
+    OPTIMISTIC,
+
+    /**
+     * Balances are changed by guarded updates that only succeed if the account rules
+     * still hold, without loading the accounts or failing on concurrent changes
+     */
+    ATOMIC,
+
+    /**
+     * Accounts are loaded with their rows locked until the end of the transaction, in ascending
+     * id order, so concurrent changes to the same account wait for each other instead of failing
+     */
+    PESSIMISTIC
+}
@@ -2,8 +2,13 @@ package io.codeforall.bootcamp.javabank.services;
 
 import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Common interface for customer services, provides methods to manage customers
@@ -11,20 +16,50 @@ import java.util.List;
 public interface CustomerService {
 
     /**
-     * Gets the customer with the given id
+     * Gets the customer with the given id, together with its accounts
      *
      * @param id the customer id
      * @return the customer
      */
     Customer get(Integer id);
 
+    /**
+     * Gets the customer with the given id, together with its accounts and recipients
+     *
+     * @param id the customer id
+     * @return the customer detail view
+     */
+    CustomerDetailView getDetail(Integer id);
+
     /**
      * Gets the balance of the customer
      *
      * @param id the customer id
-     * @return the balance of the customer with the given id
+     * @return the balance of the customer with the given id, in cents
+     */
+    long getBalance(Integer id);
+
+    /**
+     * Gets the balances of the customers
+     *
+     * @param ids the customer ids
+     * @return the balance in cents of each existing customer, by customer id
+     */
+    Map<Integer, Long> getBalances(Collection<Integer> ids);
+
+    /**
+     * Gets the bank balance, the sum of the balances of all customers
+     *
+     * @return the bank balance, in cents
      */
-    double getBalance(Integer id);
+    long getBankBalance();
+
+    /**
+     * Gets the bank balance of each account type
+     *
+     * @return the balance in cents of each account type, by account type
+     */
+    Map<AccountType, Long> getBankBalanceByType();
 
     /**
      * Deletes a customer
@@ -40,6 +75,24 @@ public interface CustomerService {
      */
     List<Customer> list();
 
+    /**
+     * Gets a page of the customers, ordered by id
+     *
+     * @param afterId the id of the last customer of the previous page, {@code null} for the first page
+     * @param limit   the maximum number of customers in the page
+     * @return the customers page
+     */
+    List<Customer> listPage(Integer afterId, int limit);
+
+    /**
+     * Gets a page of read only customer summaries, ordered by id
+     *
+     * @param afterId the id of the last customer of the previous page, {@code null} for the first page
+     * @param limit   the maximum number of customers in the page
+     * @return the customer summaries page
+     */
+    List<CustomerSummary> listSummaries(Integer afterId, int limit);
+
     /**
      * Gets the list of customer recipients
      *
@@ -3,27 +3,38 @@ package io.codeforall.bootcamp.javabank.services;
 import io.codeforall.bootcamp.javabank.errors.ErrorMessage;
 import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
 import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
 import io.codeforall.bootcamp.javabank.persistence.dao.CustomerDao;
 import io.codeforall.bootcamp.javabank.persistence.dao.RecipientDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.SortOrder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * An {@link CustomerService} implementation
  */
 @Service
+@Profile("!memory")
 public class CustomerServiceImpl implements CustomerService {
 
     private CustomerDao customerDao;
     private RecipientDao recipientDao;
     private AccountDao accountDao;
+    private BalanceCache balanceCache;
 
     /**
      * Sets the customer data access object
@@ -55,25 +66,77 @@ public class CustomerServiceImpl implements CustomerService {
         this.accountDao = accountDao;
     }
 
+    /**
+     * Sets the customer balance cache
+     *
+     * @param balanceCache the balance cache to set
+     */
+    @Autowired
+    public void setBalanceCache(BalanceCache balanceCache) {
+        this.balanceCache = balanceCache;
+    }
+
     /**
      * @see CustomerService#get(Integer)
      */
     public Customer get(Integer id) {
-        return customerDao.findById(id);
+        return customerDao.findByIdWithAccounts(id);
     }
 
     /**
-     * @see CustomerService#getBalance(Integer)
+     * @see CustomerService#getDetail(Integer)
      */
+    @Transactional(readOnly = true)
     @Override
-    public double getBalance(Integer id) {
+    public CustomerDetailView getDetail(Integer id) {
 
-        Customer customer = Optional.ofNullable(customerDao.findById(id))
+        CustomerDetailView detail = Optional.ofNullable(customerDao.findDetail(id))
+                .orElseThrow(() -> new IllegalArgumentException(ErrorMessage.CUSTOMER_NOT_FOUND));
+
+        // the slots of the accounts shown are read with a single query, only hot accounts have any
+        if (!detail.getAccounts().isEmpty()) {
+
+            Map<Integer, Long> slotBalances = accountDao.sumSlotsByAccounts(
+                    detail.getAccounts().stream().map(Account::getId).collect(Collectors.toList()));
+
+            detail.getAccounts().forEach(account ->
+                    account.setSlotBalance(slotBalances.getOrDefault(account.getId(), Money.ZERO)));
+        }
+
+        return detail;
+    }
+
+    /**
+     * @see CustomerService#getBalance(Integer)
+     */
+    @Override
+    public long getBalance(Integer id) {
+        return Optional.ofNullable(balanceCache.getBalance(id))
                 .orElseThrow(() -> new IllegalArgumentException("Customer does not exist"));
+    }
 
-        return customer.getAccounts().stream()
-                .mapToDouble(Account::getBalance)
-                .sum();
+    /**
+     * @see CustomerService#getBalances(Collection)
+     */
+    @Override
+    public Map<Integer, Long> getBalances(Collection<Integer> ids) {
+        return accountDao.sumBalanceByCustomers(ids);
+    }
+
+    /**
+     * @see CustomerService#getBankBalance()
+     */
+    @Override
+    public long getBankBalance() {
+        return accountDao.sumBalanceTotal();
+    }
+
+    /**
+     * @see CustomerService#getBankBalanceByType()
+     */
+    @Override
+    public Map<AccountType, Long> getBankBalanceByType() {
+        return accountDao.sumBalanceByType();
     }
 
     /**
@@ -83,6 +146,7 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     public void delete(Integer id) {
         customerDao.delete(id);
+        balanceCache.evict(id);
     }
 
     /**
@@ -93,6 +157,22 @@ public class CustomerServiceImpl implements CustomerService {
         return customerDao.findAll();
     }
 
+    /**
+     * @see CustomerService#listPage(Integer, int)
+     */
+    @Override
+    public List<Customer> listPage(Integer afterId, int limit) {
+        return customerDao.findPage(afterId, limit, SortOrder.ASCENDING);
+    }
+
+    /**
+     * @see CustomerService#listSummaries(Integer, int)
+     */
+    @Override
+    public List<CustomerSummary> listSummaries(Integer afterId, int limit) {
+        return customerDao.findSummaryPage(afterId, limit, SortOrder.ASCENDING);
+    }
+
     /**
      * @see CustomerService#listRecipients(Integer)
      */
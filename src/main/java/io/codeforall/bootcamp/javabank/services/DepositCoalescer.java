@@ -0,0 +1,316 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Groups the deposits to the same account arriving close together, each group is applied
+ * with a single {@link AccountService#depositAll(Integer, List)}, in a single transaction, once
+ * the oldest deposit of the group has waited for the maximum latency or the group is full
+ * <p>
+ * Each caller gets its own future, completed when its group is applied, and each deposit
+ * keeps its own ledger entry
+ * <p>
+ * It is opt-in, not declared by the application context, callers depositing at a rate that makes
+ * the account row contended declare it with {@link #start()} and {@link #shutdown()} as its
+ * init and destroy methods
+ */
+public class DepositCoalescer {
+
+    public static final long DEFAULT_MAX_LATENCY = 2;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final int DEFAULT_FLUSH_THREADS = 4;
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT = 10000;
+
+    private AccountService accountService;
+    private long maxLatency = DEFAULT_MAX_LATENCY;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private int flushThreads = DEFAULT_FLUSH_THREADS;
+    private long shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+
+    private final ConcurrentHashMap<Integer, Batch> batches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean stopped;
+
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    /**
+     * Sets the account service
+     *
+     * @param accountService the account service to set
+     */
+    @Autowired
+    public void setAccountService(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    /**
+     * Sets the maximum time a deposit waits for others to the same account
+     *
+     * @param maxLatency the maximum latency to set, in milliseconds
+     */
+    public void setMaxLatency(long maxLatency) {
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Sets the number of deposits that makes a group full, applying it right away
+     *
+     * @param maxBatchSize the maximum batch size to set
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("max batch size must be positive");
+        }
+
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Sets the number of threads applying groups of deposits, each one in its own transaction
+     *
+     * @param flushThreads the number of flush threads to set
+     */
+    public void setFlushThreads(int flushThreads) {
+
+        if (flushThreads <= 0) {
+            throw new IllegalArgumentException("flush threads must be positive");
+        }
+
+        this.flushThreads = flushThreads;
+    }
+
+    /**
+     * Sets the time shutdown waits for the waiting deposits to be applied, before failing them
+     *
+     * @param shutdownTimeout the shutdown timeout to set, in milliseconds
+     */
+    public void setShutdownTimeout(long shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Gets the number of deposits received
+     *
+     * @return the number of deposits
+     */
+    public long getDeposits() {
+        return deposits.sum();
+    }
+
+    /**
+     * Gets the number of groups of deposits applied, each one a single transaction
+     *
+     * @return the number of flushes
+     */
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    /**
+     * Starts the threads applying the deposits
+     */
+    public void start() {
+
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "deposit-coalescer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // the timers of full batches are cancelled, shutdown should not wait for them
+        executor.setRemoveOnCancelPolicy(true);
+        scheduler = executor;
+    }
+
+    /**
+     * Applies the waiting deposits and stops the threads applying them, new deposits are
+     * rejected, and the deposits not applied in time fail instead of being lost silently
+     *
+     * @throws InterruptedException if interrupted while waiting for the deposits to be applied
+     */
+    public void shutdown() throws InterruptedException {
+
+        stopped = true;
+
+        if (scheduler == null) {
+            return;
+        }
+
+        // delayed flushes still run after shutdown, so no waiting deposit is lost
+        scheduler.shutdown();
+
+        if (!scheduler.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+            scheduler.shutdownNow();
+        }
+
+        for (Batch batch : batches.values()) {
+            reject(batch);
+        }
+    }
+
+    /**
+     * Deposits on an account, together with the other deposits to the same account
+     *
+     * @param id     the id of the account
+     * @param amount the amount to deposit, in cents
+     * @return the future completed once the deposit is applied, or failed with the reason the
+     * group of deposits could not be applied
+     * @see AccountService#deposit(Integer, long)
+     */
+    public CompletableFuture<Void> deposit(Integer id, long amount) {
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        if (id == null) {
+            future.completeExceptionally(new IllegalArgumentException("invalid account id"));
+            return future;
+        }
+
+        // can not be credited, and would take away from the other deposits of the group
+        if (amount <= 0) {
+            future.complete(null);
+            return future;
+        }
+
+        if (stopped) {
+            future.completeExceptionally(new RejectedExecutionException("deposit coalescer shut down"));
+            return future;
+        }
+
+        deposits.increment();
+
+        while (true) {
+
+            Batch batch;
+
+            // the timer of a new batch can not be set once shut down, the deposit is not accepted
+            try {
+                batch = batches.computeIfAbsent(id, this::createBatch);
+
+            } catch (RejectedExecutionException ex) {
+                future.completeExceptionally(ex);
+                return future;
+            }
+
+            boolean full;
+
+            synchronized (batch) {
+
+                // flushed since it was looked up, the deposit goes to the next batch
+                if (batch.closed) {
+                    continue;
+                }
+
+                batch.amounts.add(amount);
+                batch.futures.add(future);
+                full = batch.futures.size() >= maxBatchSize;
+            }
+
+            // once shut down the deposit is already accepted, its batch is applied by its timer
+            if (full) {
+                try {
+                    scheduler.execute(() -> flush(batch));
+
+                } catch (RejectedExecutionException ex) {
+                    // left to the timer
+                }
+            }
+
+            return future;
+        }
+    }
+
+    private Batch createBatch(Integer id) {
+
+        Batch batch = new Batch(id);
+        batch.timer = scheduler.schedule(() -> flush(batch), maxLatency, TimeUnit.MILLISECONDS);
+        return batch;
+    }
+
+    private void flush(Batch batch) {
+
+        // deposits arriving from now on start a new batch
+        batches.remove(batch.accountId, batch);
+
+        List<Long> amounts;
+        List<CompletableFuture<Void>> futures;
+
+        synchronized (batch) {
+
+            // full batches are also flushed by their timer
+            if (batch.closed) {
+                return;
+            }
+
+            batch.closed = true;
+            amounts = batch.amounts;
+            futures = batch.futures;
+        }
+
+        // null if the batch is flushed before its timer is even set, which then does nothing
+        ScheduledFuture<?> timer = batch.timer;
+
+        if (timer != null) {
+            timer.cancel(false);
+        }
+
+        flushes.increment();
+
+        try {
+            accountService.depositAll(batch.accountId, amounts);
+
+        } catch (RuntimeException ex) {
+            futures.forEach(future -> future.completeExceptionally(ex));
+            return;
+        }
+
+        futures.forEach(future -> future.complete(null));
+    }
+
+    // the batches left once the threads are stopped were never applied
+    private void reject(Batch batch) {
+
+        batches.remove(batch.accountId, batch);
+
+        synchronized (batch) {
+
+            if (batch.closed) {
+                return;
+            }
+
+            batch.closed = true;
+        }
+
+        RejectedExecutionException ex = new RejectedExecutionException("deposit coalescer shut down");
+        batch.futures.forEach(future -> future.completeExceptionally(ex));
+    }
+
+    private static final class Batch {
+
+        private final Integer accountId;
+        private final List<Long> amounts = new ArrayList<>();
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private boolean closed;
+        private volatile ScheduledFuture<?> timer;
+
+        private Batch(Integer accountId) {
+            this.accountId = accountId;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded in memory index of the idempotency keys of the latest money movements, answering
+ * the retries of recent requests without reaching the database
+ * <p>
+ * Keys are kept in insertion order and all expire after the same time, so the oldest key is
+ * always the first to expire and to be evicted once the index is full, both in constant time
+ */
+public class IdempotencyCache {
+
+    public static final int DEFAULT_MAX_KEYS = 100000;
+    public static final long DEFAULT_TIME_TO_LIVE = 24 * 60 * 60 * 1000;
+
+    private int maxKeys = DEFAULT_MAX_KEYS;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>() {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxKeys;
+        }
+    };
+
+    /**
+     * Initializes a new idempotency cache
+     */
+    public IdempotencyCache() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Initializes a new idempotency cache
+     *
+     * @param clock the current time, in milliseconds
+     */
+    public IdempotencyCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the maximum number of keys kept, the oldest keys are evicted first
+     *
+     * @param maxKeys the maximum number of keys to set
+     */
+    public void setMaxKeys(int maxKeys) {
+
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("max keys must be positive");
+        }
+
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Sets the time a key is kept for
+     *
+     * @param timeToLive the time to live to set, in milliseconds
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Gets the fingerprint of the money movement of a key
+     *
+     * @param key the idempotency key
+     * @return the fingerprint, {@code null} if the key is unknown or expired
+     */
+    public synchronized String get(String key) {
+
+        expire();
+
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.fingerprint;
+    }
+
+    /**
+     * Remembers the fingerprint of the money movement of a key
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint
+     */
+    public synchronized void put(String key, String fingerprint) {
+
+        expire();
+
+        // re-inserted, so it moves to the end of the expiry order
+        entries.remove(key);
+        entries.put(key, new Entry(fingerprint, clock.getAsLong() + timeToLive));
+    }
+
+    /**
+     * Remembers the fingerprint of the money movement of a key, unless the key is known
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint
+     * @return the fingerprint already remembered, {@code null} if there was none
+     */
+    public synchronized String putIfAbsent(String key, String fingerprint) {
+
+        String known = get(key);
+
+        if (known == null) {
+            put(key, fingerprint);
+        }
+
+        return known;
+    }
+
+    /**
+     * Forgets a key
+     *
+     * @param key the idempotency key
+     */
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Gets the number of keys kept
+     *
+     * @return the number of keys
+     */
+    public synchronized int size() {
+        expire();
+        return entries.size();
+    }
+
+    private void expire() {
+
+        long now = clock.getAsLong();
+        Iterator<Entry> iterator = entries.values().iterator();
+
+        while (iterator.hasNext() && iterator.next().expiresAt <= now) {
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final long expiresAt;
+
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
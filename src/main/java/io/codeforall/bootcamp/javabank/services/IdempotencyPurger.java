@@ -0,0 +1,102 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.IdempotencyDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically deletes the expired {@link IdempotencyRecord}, so that the table only
+ * holds the keys of the money movements that may still be retried
+ */
+public class IdempotencyPurger {
+
+    public static final long DEFAULT_PURGE_INTERVAL = 3600000;
+
+    private IdempotencyDao idempotencyDao;
+    private TransactionTemplate transactionTemplate;
+    private long purgeInterval = DEFAULT_PURGE_INTERVAL;
+
+    private final PeriodicTask purger = new PeriodicTask("idempotency-purger", this::purge);
+
+    private final LongAdder purged = new LongAdder();
+
+    /**
+     * Sets the idempotency data access object
+     *
+     * @param idempotencyDao the idempotency DAO to set
+     */
+    @Autowired
+    public void setIdempotencyDao(IdempotencyDao idempotencyDao) {
+        this.idempotencyDao = idempotencyDao;
+    }
+
+    /**
+     * Sets the transaction manager used to delete the expired records
+     *
+     * @param transactionManager the transaction manager to set
+     */
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Sets the time between purges, none are made if not positive
+     *
+     * @param purgeInterval the purge interval to set, in milliseconds
+     */
+    public void setPurgeInterval(long purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+
+    /**
+     * Gets the number of expired records deleted
+     *
+     * @return the number of records purged
+     */
+    public long getPurged() {
+        return purged.sum();
+    }
+
+    /**
+     * Gets the number of scheduled purges failed, their records are deleted by the next ones
+     *
+     * @return the number of failed purges
+     */
+    public long getFailures() {
+        return purger.getFailures();
+    }
+
+    /**
+     * Starts purging the expired records
+     */
+    public void start() {
+        purger.start(purgeInterval);
+    }
+
+    /**
+     * Stops purging the expired records
+     */
+    public void shutdown() {
+        purger.shutdown();
+    }
+
+    /**
+     * Deletes the records expired by now, in a single transaction
+     *
+     * @return the number of records deleted
+     */
+    public int purge() {
+
+        Date now = new Date();
+        int deleted = transactionTemplate.execute(status -> idempotencyDao.deleteExpired(now));
+
+        purged.add(deleted);
+        return deleted;
+    }
+}
@@ -0,0 +1,87 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a task on its own daemon thread, with a fixed delay between runs
+ * <p>
+ * A failed run is logged and counted, and does not cancel the following runs
+ */
+final class PeriodicTask {
+
+    private static final Logger LOGGER = Logger.getLogger(PeriodicTask.class.getName());
+
+    private final String name;
+    private final Runnable task;
+
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Creates a periodic task, not started yet
+     *
+     * @param name the name of the thread running the task
+     * @param task the task to run
+     */
+    PeriodicTask(String name, Runnable task) {
+        this.name = name;
+        this.task = task;
+    }
+
+    /**
+     * Gets the number of runs failed
+     *
+     * @return the number of failures
+     */
+    long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Starts running the task, the first run after a full interval
+     *
+     * @param interval the time between runs, in milliseconds, the task is never run if not positive
+     */
+    synchronized void start(long interval) {
+
+        if (interval <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops running the task
+     */
+    synchronized void shutdown() {
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // a failure would cancel the following runs, which are left to make up for it
+    private void run() {
+
+        try {
+            task.run();
+
+        } catch (RuntimeException ex) {
+            failures.increment();
+            LOGGER.log(Level.WARNING, name + " run failed", ex);
+        }
+    }
+}
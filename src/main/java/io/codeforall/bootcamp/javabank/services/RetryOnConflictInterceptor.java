@@ -0,0 +1,177 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.LockTimeoutException;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MethodInterceptor} that re-executes service methods failed by concurrent changes to
+ * the same data, waiting a random, exponentially growing, bounded time between attempts
+ * <p>
+ * Must be applied outside of the transaction, so that each attempt runs in a new transaction
+ */
+public class RetryOnConflictInterceptor implements MethodInterceptor {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final long DEFAULT_INITIAL_BACKOFF = 5;
+    public static final long DEFAULT_MAX_BACKOFF = 200;
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+    private long maxBackoff = DEFAULT_MAX_BACKOFF;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder giveUps = new LongAdder();
+
+    /**
+     * Sets the maximum number of attempts of each invocation, including the first one
+     *
+     * @param maxAttempts the maximum number of attempts to set
+     */
+    public void setMaxAttempts(int maxAttempts) {
+
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("max attempts must be positive");
+        }
+
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Sets the maximum wait before the first retry, doubled on each following retry
+     *
+     * @param initialBackoff the initial backoff to set, in milliseconds
+     */
+    public void setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Sets the maximum wait before any retry
+     *
+     * @param maxBackoff the maximum backoff to set, in milliseconds
+     */
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Gets the number of attempts made, including the first attempt of each invocation
+     *
+     * @return the number of attempts
+     */
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    /**
+     * Gets the number of attempts made after a conflict
+     *
+     * @return the number of retries
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Gets the number of invocations that still failed with a conflict after the last attempt
+     *
+     * @return the number of give ups
+     */
+    public long getGiveUps() {
+        return giveUps.sum();
+    }
+
+    /**
+     * @see MethodInterceptor#invoke(MethodInvocation)
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        // retrying is pointless inside an existing transaction, which is already doomed,
+        // the conflict is left to whoever started that transaction
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            attempts.increment();
+            return invocation.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+
+            attempts.increment();
+
+            try {
+                return invocation.proceed();
+
+            } catch (RuntimeException ex) {
+
+                if (!isConflict(ex)) {
+                    throw ex;
+                }
+
+                if (attempt == maxAttempts) {
+                    giveUps.increment();
+                    throw ex;
+                }
+
+                if (!backoff(attempt)) {
+                    throw ex;
+                }
+
+                retries.increment();
+            }
+        }
+    }
+
+    // full jitter spreads the retries of the conflicting callers, so they do not collide again
+    private boolean backoff(int attempt) {
+
+        long ceiling = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 30));
+
+        if (ceiling <= 0) {
+            return true;
+        }
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Checks if a failure was caused by concurrent changes to the same data
+     *
+     * @param ex the failure
+     * @return {@code true} if the failure, or any of its causes, is a version or lock conflict
+     */
+    public static boolean isConflict(Throwable ex) {
+
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+
+            if (cause instanceof ConcurrencyFailureException ||
+                    cause instanceof OptimisticLockException ||
+                    cause instanceof PessimisticLockException ||
+                    cause instanceof LockTimeoutException ||
+                    cause instanceof StaleStateException ||
+                    cause instanceof LockAcquisitionException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
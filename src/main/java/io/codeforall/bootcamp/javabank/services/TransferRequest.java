@@ -0,0 +1,65 @@
+package io.codeforall.bootcamp.javabank.services;
+
+/**
+ * A request to transfer money between two accounts, part of a batch of transfers
+ *
+ * @see AccountService#transferBatch(java.util.List)
+ */
+public class TransferRequest {
+
+    private final Integer srcId;
+    private final Integer dstId;
+    private final long amount;
+
+    /**
+     * Initializes a new transfer request
+     *
+     * @param srcId  the source account id
+     * @param dstId  the destination account id
+     * @param amount the amount to transfer, in cents
+     */
+    public TransferRequest(Integer srcId, Integer dstId, long amount) {
+        this.srcId = srcId;
+        this.dstId = dstId;
+        this.amount = amount;
+    }
+
+    /**
+     * Gets the source account id
+     *
+     * @return the source account id
+     */
+    public Integer getSrcId() {
+        return srcId;
+    }
+
+    /**
+     * Gets the destination account id
+     *
+     * @return the destination account id
+     */
+    public Integer getDstId() {
+        return dstId;
+    }
+
+    /**
+     * Gets the amount to transfer
+     *
+     * @return the amount, in cents
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "TransferRequest{" +
+                "srcId=" + srcId +
+                ", dstId=" + dstId +
+                ", amount=" + amount +
+                '}';
+    }
+}
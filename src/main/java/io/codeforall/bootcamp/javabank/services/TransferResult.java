@@ -0,0 +1,59 @@
+package io.codeforall.bootcamp.javabank.services;
+
+/**
+ * The outcome of a {@link TransferRequest}
+ */
+public class TransferResult {
+
+    private final TransferRequest request;
+    private final TransferStatus status;
+
+    /**
+     * Initializes a new transfer result
+     *
+     * @param request the transfer request
+     * @param status  the transfer status
+     */
+    public TransferResult(TransferRequest request, TransferStatus status) {
+        this.request = request;
+        this.status = status;
+    }
+
+    /**
+     * Gets the transfer request
+     *
+     * @return the transfer request
+     */
+    public TransferRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Gets the transfer status
+     *
+     * @return the transfer status
+     */
+    public TransferStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the transfer was applied
+     *
+     * @return {@code true} if the transfer was applied
+     */
+    public boolean isApplied() {
+        return status == TransferStatus.APPLIED;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "TransferResult{" +
+                "request=" + request +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+
+/**
+ * The possible outcomes of a {@link TransferRequest}
+ */
+public enum TransferStatus {
+
+    /**
+     * The transfer was applied
+     */
+    APPLIED,
+
+    /**
+     * One of the accounts does not exist
+     */
+    INVALID_ACCOUNT,
+
+    /**
+     * The amount can not be transferred, such as a non positive amount
+     */
+    INVALID_AMOUNT,
+
+    /**
+     * The source account balance is lower than the amount
+     */
+    INSUFFICIENT_FUNDS,
+
+    /**
+     * The source account balance would go below the minimum balance of a savings account
+     *
+     * @see io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount#MIN_BALANCE
+     */
+    MINIMUM_BALANCE,
+
+    /**
+     * The transfer was not applied because of concurrent changes to the accounts of its chunk,
+     * it can be submitted again
+     */
+    CONFLICT;
+
+    /**
+     * Checks if a transfer can be performed
+     *
+     * @param srcAccount the source account, {@code null} if it does not exist
+     * @param dstAccount the destination account, {@code null} if it does not exist
+     * @param amount     the amount to transfer, in cents
+     * @return {@link #APPLIED} if the transfer can be performed, the reason it can not otherwise
+     */
+    public static TransferStatus check(Account srcAccount, Account dstAccount, long amount) {
+
+        if (srcAccount == null || dstAccount == null) {
+            return INVALID_ACCOUNT;
+        }
+
+        if (!dstAccount.canCredit(amount)) {
+            return INVALID_AMOUNT;
+        }
+
+        if (srcAccount.canDebit(amount)) {
+            return APPLIED;
+        }
+
+        return amount <= srcAccount.getBalance() ? MINIMUM_BALANCE : INSUFFICIENT_FUNDS;
+    }
+}
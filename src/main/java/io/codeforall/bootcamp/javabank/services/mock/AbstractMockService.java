@@ -2,17 +2,18 @@ package io.codeforall.bootcamp.javabank.services.mock;
 
 import io.codeforall.bootcamp.javabank.persistence.model.AbstractModel;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A generic mock service to be used as a base for concrete mock service implementations
+ * A generic in memory service to be used as a base for concrete mock service implementations,
+ * safe to be used concurrently
  * @param <T> the model type
  */
 public abstract class AbstractMockService<T extends AbstractModel> {
 
-    protected Map<Integer, T> modelMap = new HashMap<>();
+    protected final IntKeyedMap<T> modelMap = new IntKeyedMap<>();
+
+    private final AtomicInteger lastId = new AtomicInteger();
 
     /**
      * Gets the next model id
@@ -20,6 +21,35 @@ public abstract class AbstractMockService<T extends AbstractModel> {
      * @return the model id
      */
     protected Integer getNextId() {
-        return modelMap.isEmpty() ? 1 : Collections.max(modelMap.keySet()) + 1;
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * Adds a model, giving it the next id if it has none
+     *
+     * @param model the model to add
+     * @return the added model
+     */
+    public T add(T model) {
+
+        if (model.getId() == null) {
+            model.setId(getNextId());
+        } else {
+            // keep generated ids clear of the ones given by the caller
+            lastId.accumulateAndGet(model.getId(), Math::max);
+        }
+
+        modelMap.put(model.getId(), model);
+        return model;
+    }
+
+    /**
+     * Removes a model
+     *
+     * @param id the model id
+     * @return the removed model, {@code null} if there was none
+     */
+    public T remove(Integer id) {
+        return id == null ? null : modelMap.remove(id);
     }
 }
@@ -0,0 +1,258 @@
+package io.codeforall.bootcamp.javabank.services.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A concurrent map keyed by positive primitive ints, meant for the dense ids handed out by
+ * the in memory services, values are stored in fixed size chunks indexed by the key so
+ * lookups and updates neither box the key nor allocate entries
+ *
+ * @param <T> the value type
+ */
+public final class IntKeyedMap<T> {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CHUNKS = 16;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    // chunks are only created or moved to a bigger directory while holding the map lock,
+    // values are written straight into the chunks, which are shared by all directories
+    private volatile AtomicReferenceArray<AtomicReferenceArray<T>> chunks =
+            new AtomicReferenceArray<>(INITIAL_CHUNKS);
+
+    /**
+     * Gets the value of a key
+     *
+     * @param key the key
+     * @return the value, {@code null} if there is none
+     */
+    public T get(int key) {
+
+        if (key < 0) {
+            return null;
+        }
+
+        AtomicReferenceArray<AtomicReferenceArray<T>> directory = chunks;
+        int chunkIndex = key >>> CHUNK_BITS;
+
+        if (chunkIndex >= directory.length()) {
+            return null;
+        }
+
+        AtomicReferenceArray<T> chunk = directory.get(chunkIndex);
+        return chunk == null ? null : chunk.get(key & CHUNK_MASK);
+    }
+
+    /**
+     * Checks if there is a value for the key
+     *
+     * @param key the key
+     * @return {@code true} if there is a value for the key
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Sets the value of a key
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value, {@code null} if there was none
+     */
+    public T put(int key, T value) {
+
+        if (value == null) {
+            throw new IllegalArgumentException("value can not be null");
+        }
+
+        T previous = chunkFor(key).getAndSet(key & CHUNK_MASK, value);
+
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Sets the value of a key, only if there is none
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the current value, {@code null} if the value was set
+     */
+    public T putIfAbsent(int key, T value) {
+
+        if (value == null) {
+            throw new IllegalArgumentException("value can not be null");
+        }
+
+        AtomicReferenceArray<T> chunk = chunkFor(key);
+        int index = key & CHUNK_MASK;
+
+        if (chunk.compareAndSet(index, null, value)) {
+            size.incrementAndGet();
+            return null;
+        }
+
+        return chunk.get(index);
+    }
+
+    /**
+     * Removes the value of a key
+     *
+     * @param key the key
+     * @return the removed value, {@code null} if there was none
+     */
+    public T remove(int key) {
+
+        if (key < 0) {
+            return null;
+        }
+
+        AtomicReferenceArray<AtomicReferenceArray<T>> directory = chunks;
+        int chunkIndex = key >>> CHUNK_BITS;
+
+        if (chunkIndex >= directory.length() || directory.get(chunkIndex) == null) {
+            return null;
+        }
+
+        T previous = directory.get(chunkIndex).getAndSet(key & CHUNK_MASK, null);
+
+        if (previous != null) {
+            size.decrementAndGet();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Gets the number of values
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Checks if there are no values
+     *
+     * @return {@code true} if there are no values
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets the values, ordered by key, values changed while iterating may or may not be included
+     *
+     * @return the values
+     */
+    public List<T> values() {
+        return valuesAfter(-1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the values with keys greater than the given key, ordered by key,
+     * starting right after the key instead of scanning all the previous values
+     *
+     * @param afterKey the key to start after
+     * @param limit    the maximum number of values
+     * @return the values
+     */
+    public List<T> valuesAfter(int afterKey, int limit) {
+
+        List<T> values = new ArrayList<>(Math.min(limit, size()));
+        AtomicReferenceArray<AtomicReferenceArray<T>> directory = chunks;
+        int first = afterKey < 0 ? 0 : afterKey + 1;
+
+        for (int chunkIndex = first >>> CHUNK_BITS; chunkIndex < directory.length(); chunkIndex++) {
+
+            AtomicReferenceArray<T> chunk = directory.get(chunkIndex);
+
+            if (chunk == null) {
+                continue;
+            }
+
+            int start = chunkIndex == first >>> CHUNK_BITS ? first & CHUNK_MASK : 0;
+
+            for (int index = start; index < CHUNK_SIZE; index++) {
+
+                T value = chunk.get(index);
+
+                if (value == null) {
+                    continue;
+                }
+
+                if (values.size() == limit) {
+                    return values;
+                }
+
+                values.add(value);
+            }
+        }
+
+        return values;
+    }
+
+    private AtomicReferenceArray<T> chunkFor(int key) {
+
+        if (key < 0) {
+            throw new IllegalArgumentException("key can not be negative");
+        }
+
+        int chunkIndex = key >>> CHUNK_BITS;
+        AtomicReferenceArray<AtomicReferenceArray<T>> directory = chunks;
+
+        if (chunkIndex < directory.length()) {
+
+            AtomicReferenceArray<T> chunk = directory.get(chunkIndex);
+
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+
+        return createChunk(chunkIndex);
+    }
+
+    private synchronized AtomicReferenceArray<T> createChunk(int chunkIndex) {
+
+        AtomicReferenceArray<AtomicReferenceArray<T>> directory = chunks;
+
+        if (chunkIndex >= directory.length()) {
+
+            int length = directory.length();
+
+            while (length <= chunkIndex) {
+                length <<= 1;
+            }
+
+            AtomicReferenceArray<AtomicReferenceArray<T>> grown = new AtomicReferenceArray<>(length);
+
+            for (int i = 0; i < directory.length(); i++) {
+                grown.set(i, directory.get(i));
+            }
+
+            directory = grown;
+            chunks = grown;
+        }
+
+        AtomicReferenceArray<T> chunk = directory.get(chunkIndex);
+
+        if (chunk == null) {
+            chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+            directory.set(chunkIndex, chunk);
+        }
+
+        return chunk;
+    }
+}
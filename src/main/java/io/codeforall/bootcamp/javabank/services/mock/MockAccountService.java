@@ -1,54 +1,338 @@
 package io.codeforall.bootcamp.javabank.services.mock;
 
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.IdempotencyRecord;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
 import io.codeforall.bootcamp.javabank.services.AccountService;
+import io.codeforall.bootcamp.javabank.services.IdempotencyCache;
+import io.codeforall.bootcamp.javabank.services.TransferRequest;
+import io.codeforall.bootcamp.javabank.services.TransferResult;
+import io.codeforall.bootcamp.javabank.services.TransferStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A mock {@link AccountService} implementation
+ * A mock {@link AccountService} implementation, keeps the accounts in memory
+ * and guards each account with one of a fixed number of striped locks
  */
+@Service
+@Profile("memory")
 public class MockAccountService extends AbstractMockService<Account> implements AccountService {
 
+    // power of two, so a stripe is picked by masking the mixed account id
+    private static final int LOCK_STRIPES = 64;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    // each account history is ordered by id, ids are handed out while holding the history
+    private final IntKeyedMap<List<LedgerEntry>> ledger = new IntKeyedMap<>();
+    private final AtomicInteger lastEntryId = new AtomicInteger();
+
+    // there is no table behind it, keys evicted or expired from memory are forgotten
+    private IdempotencyCache idempotencyCache = new IdempotencyCache();
+
+    /**
+     * Initializes a new mock account service
+     */
+    public MockAccountService() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Sets the index of the idempotency keys
+     *
+     * @param idempotencyCache the idempotency cache to set
+     */
+    @Autowired
+    public void setIdempotencyCache(IdempotencyCache idempotencyCache) {
+        this.idempotencyCache = idempotencyCache;
+    }
+
     /**
      * @see AccountService#get(Integer)
      */
     @Override
     public Account get(Integer id) {
-        return modelMap.get(id);
+        return id == null ? null : modelMap.get(id);
+    }
+
+    /**
+     * @see AccountService#deposit(Integer, long)
+     */
+    @Override
+    public void deposit(Integer id, long amount) {
+        depositAll(id, Collections.singletonList(amount));
+    }
+
+    /**
+     * @see AccountService#deposit(Integer, long, String)
+     */
+    @Override
+    public void deposit(Integer id, long amount, String idempotencyKey) {
+        once(idempotencyKey, "deposit:" + id + ":" + amount, () -> deposit(id, amount));
     }
 
     /**
-     * @see AccountService#deposit(Integer, double)
+     * @see AccountService#depositAll(Integer, List)
      */
-    public void deposit(Integer id, double amount) {
-        modelMap.get(id).credit(amount);
+    @Override
+    public void depositAll(Integer id, List<Long> amounts) {
+
+        Account account = findAccount(id);
+        long amount = amounts.stream().filter(value -> value > 0).reduce(Money.ZERO, Money::add);
+
+        synchronized (lockFor(id)) {
+            if (account.canCredit(amount)) {
+                account.credit(amount);
+                amounts.stream()
+                        .filter(value -> value > 0)
+                        .forEach(value -> record(LedgerEntry.deposit(id, value)));
+            }
+        }
     }
 
     /**
-     * @see AccountService#withdraw(Integer, double)
+     * @see AccountService#withdraw(Integer, long)
      */
-    public void withdraw(Integer id, double amount) {
+    @Override
+    public void withdraw(Integer id, long amount) {
 
-        Account account = modelMap.get(id);
+        Account account = findAccount(id);
 
         if (!account.canWithdraw()) {
-            return;
+            throw new IllegalArgumentException("invalid account type");
         }
 
-        modelMap.get(id).debit(amount);
+        synchronized (lockFor(id)) {
+            if (account.canDebit(amount)) {
+                account.debit(amount);
+                record(LedgerEntry.withdrawal(id, amount));
+            }
+        }
     }
 
     /**
-     * @see AccountService#transfer(Integer, Integer, double)
+     * @see AccountService#withdraw(Integer, long, String)
      */
-    public void transfer(Integer srcId, Integer dstId, double amount) {
+    @Override
+    public void withdraw(Integer id, long amount, String idempotencyKey) {
+        once(idempotencyKey, "withdraw:" + id + ":" + amount, () -> withdraw(id, amount));
+    }
+
+    /**
+     * @see AccountService#transfer(Integer, Integer, long)
+     */
+    @Override
+    public void transfer(Integer srcId, Integer dstId, long amount) {
+        applyTransfer(findAccount(srcId), findAccount(dstId), amount);
+    }
+
+    /**
+     * @see AccountService#transfer(Integer, Integer, long, String)
+     */
+    @Override
+    public void transfer(Integer srcId, Integer dstId, long amount, String idempotencyKey) {
+        once(idempotencyKey, "transfer:" + srcId + ":" + dstId + ":" + amount, () -> transfer(srcId, dstId, amount));
+    }
+
+    /**
+     * Transfers are applied one by one, there is no transaction to share in memory
+     *
+     * @see AccountService#transferBatch(List)
+     */
+    @Override
+    public List<TransferResult> transferBatch(List<TransferRequest> requests) {
+
+        List<TransferResult> results = new ArrayList<>(requests.size());
+
+        for (TransferRequest request : requests) {
+
+            Account srcAccount = get(request.getSrcId());
+            Account dstAccount = get(request.getDstId());
+
+            TransferStatus status = srcAccount == null || dstAccount == null ? TransferStatus.INVALID_ACCOUNT :
+                    applyTransfer(srcAccount, dstAccount, request.getAmount());
+
+            results.add(new TransferResult(request, status));
+        }
+
+        return results;
+    }
+
+    /**
+     * @see AccountService#getHistory(Integer, Integer, int)
+     */
+    @Override
+    public List<LedgerEntry> getHistory(Integer id, Integer beforeId, int limit) {
+
+        List<LedgerEntry> entries = id == null ? null : ledger.get(id);
+        List<LedgerEntry> page = new ArrayList<>();
+
+        if (entries == null) {
+            return page;
+        }
+
+        synchronized (entries) {
 
-        Account srcAccount = modelMap.get(srcId);
-        Account dstAccount = modelMap.get(dstId);
+            int index = beforeId == null ? entries.size() - 1 : indexBefore(entries, beforeId);
 
-        // make sure transaction can be performed
-        if (srcAccount.canDebit(amount) && dstAccount.canCredit(amount)) {
-            srcAccount.debit(amount);
-            dstAccount.credit(amount);
+            for (; index >= 0 && page.size() < limit; index--) {
+                page.add(entries.get(index));
+            }
         }
+
+        return page;
+    }
+
+    /**
+     * Accounts in memory are only held by their striped lock for the time of a balance change,
+     * so hot accounts need no balance slots, the account is only checked to exist
+     *
+     * @see AccountService#makeHot(Integer)
+     */
+    @Override
+    public void makeHot(Integer id) {
+        findAccount(id);
+    }
+
+    /**
+     * Gets the account balance, consistent with the concurrent balance changes
+     *
+     * @param account the account
+     * @return the account balance, in cents
+     */
+    long getBalance(Account account) {
+        synchronized (lockFor(account.getId())) {
+            return account.getBalance();
+        }
+    }
+
+    // the key is claimed before the movement, so a concurrent retry is not applied as well,
+    // and forgotten if the movement fails, so a later retry is
+    private void once(String idempotencyKey, String fingerprint, Runnable movement) {
+
+        if (idempotencyKey == null) {
+            movement.run();
+            return;
+        }
+
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > IdempotencyRecord.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("invalid idempotency key");
+        }
+
+        String knownFingerprint = idempotencyCache.putIfAbsent(idempotencyKey, fingerprint);
+
+        if (knownFingerprint != null) {
+
+            if (!knownFingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("idempotency key reused");
+            }
+
+            return;
+        }
+
+        try {
+            movement.run();
+
+        } catch (RuntimeException ex) {
+            idempotencyCache.remove(idempotencyKey);
+            throw ex;
+        }
+    }
+
+    private TransferStatus applyTransfer(Account srcAccount, Account dstAccount, long amount) {
+
+        Integer srcId = srcAccount.getId();
+        Integer dstId = dstAccount.getId();
+
+        Object srcLock = lockFor(srcId);
+        Object dstLock = lockFor(dstId);
+
+        // lowest stripe first, whatever the direction of the transfer
+        Object firstLock = stripe(srcId) <= stripe(dstId) ? srcLock : dstLock;
+        Object secondLock = firstLock == srcLock ? dstLock : srcLock;
+
+        synchronized (firstLock) {
+            synchronized (secondLock) {
+
+                // make sure transaction can be performed
+                TransferStatus status = TransferStatus.check(srcAccount, dstAccount, amount);
+
+                if (status == TransferStatus.APPLIED) {
+                    srcAccount.debit(amount);
+                    dstAccount.credit(amount);
+                    record(LedgerEntry.transferOut(srcId, dstId, amount));
+                    record(LedgerEntry.transferIn(dstId, srcId, amount));
+                }
+
+                return status;
+            }
+        }
+    }
+
+    private void record(LedgerEntry entry) {
+
+        List<LedgerEntry> entries = ledger.get(entry.getAccountId());
+
+        if (entries == null) {
+            List<LedgerEntry> created = new ArrayList<>();
+            entries = ledger.putIfAbsent(entry.getAccountId(), created);
+            entries = entries == null ? created : entries;
+        }
+
+        synchronized (entries) {
+            entry.setId(lastEntryId.incrementAndGet());
+            entries.add(entry);
+        }
+    }
+
+    // binary search for the last entry with an id lower than the given one
+    private int indexBefore(List<LedgerEntry> entries, int beforeId) {
+
+        int low = 0;
+        int high = entries.size() - 1;
+
+        while (low <= high) {
+
+            int middle = (low + high) >>> 1;
+
+            if (entries.get(middle).getId() < beforeId) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return high;
+    }
+
+    private Account findAccount(Integer id) {
+
+        Account account = id == null ? null : modelMap.get(id);
+
+        if (account == null) {
+            throw new IllegalArgumentException("invalid account id");
+        }
+
+        return account;
+    }
+
+    private Object lockFor(int id) {
+        return locks[stripe(id)];
+    }
+
+    // spreads consecutive ids over the stripes
+    private int stripe(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
     }
 }
@@ -1,37 +1,144 @@
 package io.codeforall.bootcamp.javabank.services.mock;
 
+import io.codeforall.bootcamp.javabank.errors.ErrorMessage;
 import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
 import io.codeforall.bootcamp.javabank.services.CustomerService;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
- * A mock {@link CustomerService} implementation
+ * A mock {@link CustomerService} implementation, keeps the customers in memory
+ * and shares their accounts with the {@link MockAccountService}
  */
+@Service
+@Profile("memory")
 public class MockCustomerService extends AbstractMockService<Customer> implements CustomerService {
 
+    private MockAccountService accountService;
+
+    /**
+     * Sets the account service holding the customer accounts
+     *
+     * @param accountService the account service to set
+     */
+    @Autowired
+    public void setAccountService(MockAccountService accountService) {
+        this.accountService = accountService;
+    }
+
     /**
      * @see CustomerService#get(Integer)
      */
     @Override
     public Customer get(Integer id) {
-        return modelMap.get(id);
+        return id == null ? null : modelMap.get(id);
+    }
+
+    /**
+     * Adds a customer, together with the accounts not yet held by the account service
+     *
+     * @param customer the customer to add
+     * @return the added customer
+     */
+    @Override
+    public Customer add(Customer customer) {
+
+        synchronized (customer) {
+            for (Account account : customer.getAccounts()) {
+                if (account.getId() == null || accountService.get(account.getId()) != account) {
+                    accountService.add(account);
+                }
+            }
+        }
+
+        return super.add(customer);
+    }
+
+    /**
+     * @see CustomerService#getDetail(Integer)
+     */
+    @Override
+    public CustomerDetailView getDetail(Integer id) {
+
+        Customer customer = findCustomer(id);
+
+        synchronized (customer) {
+            return new CustomerDetailView(customer, customer.getAccounts(), customer.getRecipients());
+        }
     }
 
     /**
      * @see CustomerService#getBalance(Integer)
      */
     @Override
-    public double getBalance(Integer customerId) {
+    public long getBalance(Integer customerId) {
+        return getAccounts(findCustomer(customerId)).stream()
+                .mapToLong(accountService::getBalance)
+                .reduce(Money.ZERO, Money::add);
+    }
+
+    /**
+     * @see CustomerService#getBalances(Collection)
+     */
+    @Override
+    public Map<Integer, Long> getBalances(Collection<Integer> ids) {
+
+        Map<Integer, Long> balances = new HashMap<>();
+
+        for (Integer id : ids) {
+            if (id != null && modelMap.containsKey(id)) {
+                balances.put(id, getBalance(id));
+            }
+        }
+
+        return balances;
+    }
+
+    /**
+     * @see CustomerService#getBankBalance()
+     */
+    @Override
+    public long getBankBalance() {
+        return modelMap.values().stream()
+                .flatMap(customer -> getAccounts(customer).stream())
+                .mapToLong(accountService::getBalance)
+                .reduce(Money.ZERO, Money::add);
+    }
+
+    /**
+     * @see CustomerService#getBankBalanceByType()
+     */
+    @Override
+    public Map<AccountType, Long> getBankBalanceByType() {
+
+        Map<AccountType, Long> balances = new EnumMap<>(AccountType.class);
+
+        for (AccountType type : AccountType.values()) {
+            balances.put(type, Money.ZERO);
+        }
 
-        List<Account> accounts = modelMap.get(customerId).getAccounts();
+        for (Customer customer : modelMap.values()) {
+            for (Account account : getAccounts(customer)) {
+                balances.merge(account.getAccountType(), accountService.getBalance(account), Money::add);
+            }
+        }
 
-        return accounts.stream()
-                .mapToDouble(Account::getBalance)
-                .sum();
+        return balances;
     }
 
     /**
@@ -39,7 +146,26 @@ public class MockCustomerService extends AbstractMockService<Customer> implement
      */
     @Override
     public List<Customer> list() {
-        return new ArrayList<>(modelMap.values());
+        return modelMap.values();
+    }
+
+    /**
+     * @see CustomerService#listPage(Integer, int)
+     */
+    @Override
+    public List<Customer> listPage(Integer afterId, int limit) {
+        return modelMap.valuesAfter(afterId == null ? -1 : afterId, limit);
+    }
+
+    /**
+     * @see CustomerService#listSummaries(Integer, int)
+     */
+    @Override
+    public List<CustomerSummary> listSummaries(Integer afterId, int limit) {
+        return listPage(afterId, limit).stream()
+                .map(customer -> new CustomerSummary(customer.getId(), customer.getFirstName(),
+                        customer.getLastName(), customer.getEmail(), customer.getPhone()))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -47,7 +173,12 @@ public class MockCustomerService extends AbstractMockService<Customer> implement
      */
     @Override
     public void delete(Integer id) {
-        modelMap.remove(id);
+
+        Customer customer = modelMap.remove(id);
+
+        if (customer != null) {
+            getAccounts(customer).forEach(account -> accountService.remove(account.getId()));
+        }
     }
 
     /**
@@ -55,7 +186,12 @@ public class MockCustomerService extends AbstractMockService<Customer> implement
      */
     @Override
     public List<Recipient> listRecipients(Integer id) {
-        return modelMap.get(id).getRecipients();
+
+        Customer customer = findCustomer(id);
+
+        synchronized (customer) {
+            return new ArrayList<>(customer.getRecipients());
+        }
     }
 
     /**
@@ -64,22 +200,49 @@ public class MockCustomerService extends AbstractMockService<Customer> implement
     @Override
     public void removeRecipient(Integer id, Integer recipientId) {
 
-        Customer customer = modelMap.get(id);
-        Recipient recipient = null;
+        Customer customer = findCustomer(id);
+
+        synchronized (customer) {
 
-        for (Recipient rcpt : customer.getRecipients()) {
-            if (rcpt.getId().equals(recipientId)) {
-                recipient = rcpt;
+            Recipient recipient = null;
+
+            for (Recipient rcpt : customer.getRecipients()) {
+                if (rcpt.getId().equals(recipientId)) {
+                    recipient = rcpt;
+                }
+            }
+
+            if (recipient == null) {
+                throw new IllegalArgumentException(ErrorMessage.CUSTOMER_RECIPIENT_NOT_FOUND);
             }
-        }
 
-        if (recipient != null) {
             customer.removeRecipient(recipient);
         }
     }
 
+    /**
+     * @see CustomerService#update(Customer)
+     */
     @Override
     public void update(Customer customer) {
+        add(customer);
+    }
+
+    private Customer findCustomer(Integer id) {
 
+        Customer customer = get(id);
+
+        if (customer == null) {
+            throw new IllegalArgumentException(ErrorMessage.CUSTOMER_NOT_FOUND);
+        }
+
+        return customer;
+    }
+
+    // a snapshot, accounts of a customer are only changed while holding its lock
+    private List<Account> getAccounts(Customer customer) {
+        synchronized (customer) {
+            return new ArrayList<>(customer.getAccounts());
+        }
     }
 }
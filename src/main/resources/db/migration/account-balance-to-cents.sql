@@ -0,0 +1,12 @@
+-- Migrates account balances stored as floating point currency units
+-- to the exact number of cents expected by Account#balance, see Money
+--
+-- Run once against existing MySQL databases before deploying, rounding
+-- happens once here instead of on every balance operation
+
+ALTER TABLE account ADD COLUMN balance_cents BIGINT;
+
+UPDATE account SET balance_cents = ROUND(balance * 100);
+
+ALTER TABLE account DROP COLUMN balance;
+ALTER TABLE account CHANGE COLUMN balance_cents balance BIGINT NOT NULL;
@@ -0,0 +1,6 @@
+-- Adds the covering index used by the customer and bank balance aggregates,
+-- see AccountDao#sumBalanceByCustomer and Account
+--
+-- Run once against existing MySQL databases before deploying
+
+CREATE INDEX account_customer_balance_idx ON account (customer_id, balance);
@@ -0,0 +1,16 @@
+-- Adds the balance slots of hot accounts, see AccountSlot and AccountService#makeHot
+--
+-- Run once against existing MySQL databases before deploying
+
+CREATE TABLE account_slot (
+  id INTEGER NOT NULL,
+  creationTime DATETIME,
+  updateTime DATETIME,
+  version INTEGER,
+  slot INTEGER NOT NULL,
+  balance BIGINT NOT NULL,
+  account_id INTEGER NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT account_slot_idx UNIQUE (account_id, slot),
+  CONSTRAINT account_slot_account_fk FOREIGN KEY (account_id) REFERENCES account (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
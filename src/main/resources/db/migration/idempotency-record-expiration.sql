@@ -0,0 +1,12 @@
+-- Adds the expiration time of the idempotency keys, see IdempotencyRecord and IdempotencyPurger,
+-- the keys already stored expire after the default retention of a week
+--
+-- Run once against existing MySQL databases before deploying
+
+ALTER TABLE idempotency_record ADD COLUMN expirationTime DATETIME;
+
+UPDATE idempotency_record SET expirationTime = DATE_ADD(COALESCE(creationTime, NOW()), INTERVAL 7 DAY);
+
+ALTER TABLE idempotency_record MODIFY expirationTime DATETIME NOT NULL;
+
+CREATE INDEX idempotency_record_expiration_idx ON idempotency_record (expirationTime);
@@ -0,0 +1,14 @@
+-- Adds the idempotency keys of the money movements, see IdempotencyRecord and AccountService#deposit
+--
+-- Run once against existing MySQL databases before deploying
+
+CREATE TABLE idempotency_record (
+  id INTEGER NOT NULL,
+  creationTime DATETIME,
+  updateTime DATETIME,
+  version INTEGER,
+  idempotency_key VARCHAR(64) NOT NULL,
+  fingerprint VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT idempotency_record_key_idx UNIQUE (idempotency_key)
+) ENGINE = InnoDB;
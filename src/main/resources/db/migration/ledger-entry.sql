@@ -0,0 +1,17 @@
+-- Adds the append only account ledger, see LedgerEntry and AccountService#getHistory
+--
+-- Run once against existing MySQL databases before deploying
+
+CREATE TABLE ledger_entry (
+  id INTEGER NOT NULL,
+  creationTime DATETIME,
+  updateTime DATETIME,
+  version INTEGER,
+  account_id INTEGER NOT NULL,
+  counterpart_id INTEGER,
+  entry_type VARCHAR(255) NOT NULL,
+  amount BIGINT NOT NULL,
+  PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX ledger_entry_account_idx ON ledger_entry (account_id, id);
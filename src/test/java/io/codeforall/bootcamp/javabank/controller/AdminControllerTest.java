@@ -0,0 +1,84 @@
+package io.codeforall.bootcamp.javabank.controller;
+
+import io.codeforall.bootcamp.javabank.metrics.MethodMetrics;
+import io.codeforall.bootcamp.javabank.metrics.MetricsInterceptor;
+import io.codeforall.bootcamp.javabank.metrics.StatementStatisticsInterceptor;
+import io.codeforall.bootcamp.javabank.persistence.dao.cache.CachingDaoInterceptor;
+import io.codeforall.bootcamp.javabank.services.BalanceCache;
+import io.codeforall.bootcamp.javabank.services.IdempotencyPurger;
+import io.codeforall.bootcamp.javabank.services.RetryOnConflictInterceptor;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class AdminControllerTest {
+
+    private MetricsInterceptor metricsInterceptor;
+    private AdminController adminController;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+
+        metricsInterceptor = mock(MetricsInterceptor.class);
+
+        adminController = new AdminController();
+        adminController.setMetricsInterceptor(metricsInterceptor);
+        adminController.setCachingDaoInterceptor(new CachingDaoInterceptor());
+        adminController.setRetryOnConflictInterceptor(new RetryOnConflictInterceptor());
+        adminController.setStatementStatisticsInterceptor(new StatementStatisticsInterceptor());
+
+        mockMvc = MockMvcBuilders.standaloneSetup(adminController).build();
+    }
+
+    @Test
+    public void testShowMetrics() throws Exception {
+
+        // setup
+        MethodMetrics metrics = new MethodMetrics();
+        metrics.start();
+        metrics.end(TimeUnit.MICROSECONDS.toNanos(250), false);
+        metrics.start();
+        metrics.end(TimeUnit.MICROSECONDS.toNanos(750), true);
+        when(metricsInterceptor.getMetrics()).thenReturn(Collections.singletonMap("JpaAccountDao.findById", metrics));
+
+        // exercise and verify
+        mockMvc.perform(get("/admin/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(containsString(
+                        "\"JpaAccountDao.findById\":{\"calls\":2,\"errors\":1,\"inFlight\":0,\"latency\":{\"mean\":500.0,")))
+                .andExpect(content().string(containsString("\"daoCache\":{\"hits\":0,")))
+                .andExpect(content().string(containsString("\"retries\":{\"attempts\":0,")))
+                .andExpect(content().string(containsString("\"statements\":{\"requests\":0,")));
+    }
+
+    @Test
+    public void testShowTaskFailures() throws Exception {
+
+        // setup
+        BalanceCache balanceCache = mock(BalanceCache.class);
+        IdempotencyPurger idempotencyPurger = mock(IdempotencyPurger.class);
+        when(balanceCache.getFailures()).thenReturn(2L);
+        when(idempotencyPurger.getFailures()).thenReturn(3L);
+        when(metricsInterceptor.getMetrics()).thenReturn(Collections.emptyMap());
+        adminController.setBalanceCache(balanceCache);
+        adminController.setIdempotencyPurger(idempotencyPurger);
+
+        // exercise and verify
+        mockMvc.perform(get("/admin/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"size\":0,\"failures\":2}")))
+                .andExpect(content().string(containsString("\"idempotencyPurger\":{\"purged\":0,\"failures\":3}")));
+    }
+}
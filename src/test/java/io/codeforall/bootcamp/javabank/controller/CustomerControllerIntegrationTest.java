@@ -0,0 +1,78 @@
+package io.codeforall.bootcamp.javabank.controller;
+
+import io.codeforall.bootcamp.javabank.metrics.StatementStatisticsInterceptor;
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaAccountDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaCustomerDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaRecipientDao;
+import io.codeforall.bootcamp.javabank.persistence.jpa.JpaIntegrationTestHelper;
+import io.codeforall.bootcamp.javabank.services.BalanceCache;
+import io.codeforall.bootcamp.javabank.services.CustomerServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static io.codeforall.bootcamp.javabank.persistence.statistics.StatementAssert.assertMaxStatements;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class CustomerControllerIntegrationTest extends JpaIntegrationTestHelper {
+
+    private StatementStatisticsInterceptor statementStatisticsInterceptor;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+
+        JpaCustomerDao customerDao = new JpaCustomerDao();
+        customerDao.setEm(em);
+        JpaRecipientDao recipientDao = new JpaRecipientDao();
+        recipientDao.setEm(em);
+        JpaAccountDao accountDao = new JpaAccountDao();
+        accountDao.setEm(em);
+
+        BalanceCache balanceCache = new BalanceCache();
+        balanceCache.setAccountDao(accountDao);
+
+        CustomerServiceImpl customerService = new CustomerServiceImpl();
+        customerService.setCustomerDao(customerDao);
+        customerService.setRecipientDao(recipientDao);
+        customerService.setAccountDao(accountDao);
+        customerService.setBalanceCache(balanceCache);
+
+        CustomerController customerController = new CustomerController();
+        customerController.setCustomerService(customerService);
+
+        statementStatisticsInterceptor = new StatementStatisticsInterceptor();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(customerController)
+                .addInterceptors(statementStatisticsInterceptor)
+                .build();
+    }
+
+    @Test
+    public void testListCustomersStatements() throws Exception {
+
+        // exercise and verify
+        assertMaxStatements(1, () -> mockMvc.perform(get("/customer/list"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("customers", hasSize(4))));
+
+        assertEquals(1, statementStatisticsInterceptor.getRequests());
+        assertEquals(0, statementStatisticsInterceptor.getFlaggedRequests());
+    }
+
+    @Test
+    public void testShowCustomerStatements() throws Exception {
+
+        // exercise and verify
+        assertMaxStatements(3, () -> mockMvc.perform(get("/customer/1"))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeExists("customer")));
+
+        assertEquals(3, statementStatisticsInterceptor.getStatements());
+        assertEquals(0, statementStatisticsInterceptor.getFlaggedRequests());
+    }
+}
@@ -1,6 +1,8 @@
 package io.codeforall.bootcamp.javabank.controller;
 
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
 import io.codeforall.bootcamp.javabank.services.CustomerService;
 import org.junit.Before;
 import org.junit.Test;
@@ -15,6 +17,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,16 +42,17 @@ public class CustomerControllerTest {
     @Test
     public void testListCustomers() throws Exception {
 
-        List<Customer> customers = new ArrayList<>();
-        customers.add(new Customer());
-        customers.add(new Customer());
+        List<CustomerSummary> customers = new ArrayList<>();
+        customers.add(new CustomerSummary(1, "Rui", "Ferrao", "mail@gmail.com", "777888"));
+        customers.add(new CustomerSummary(2, "Sergio", "Gouveia", "mail@gmail.com", "777888"));
 
-        when(customerService.list()).thenReturn(customers);
+        when(customerService.listSummaries(null, CustomerController.PAGE_SIZE + 1)).thenReturn(customers);
 
         mockMvc.perform(get("/customer/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("customer/list"))
-                .andExpect(model().attribute("customers", hasSize(2)));
+                .andExpect(model().attribute("customers", hasSize(2)))
+                .andExpect(model().attribute("next", nullValue()));
 
         mockMvc.perform(get("/customer/"))
                 .andExpect(status().isOk())
@@ -60,7 +64,28 @@ public class CustomerControllerTest {
                 .andExpect(view().name("customer/list"))
                 .andExpect(model().attribute("customers", hasSize(2)));
 
-        verify(customerService, times(3)).list();
+        verify(customerService, times(3)).listSummaries(null, CustomerController.PAGE_SIZE + 1);
+    }
+
+    @Test
+    public void testListCustomersNextPage() throws Exception {
+
+        int after = 100;
+        List<CustomerSummary> customers = new ArrayList<>();
+        for (int i = 1; i <= CustomerController.PAGE_SIZE + 1; i++) {
+            customers.add(new CustomerSummary(after + i, "Rui", "Ferrao", "mail@gmail.com", "777888"));
+        }
+
+        when(customerService.listSummaries(after, CustomerController.PAGE_SIZE + 1)).thenReturn(customers);
+
+        mockMvc.perform(get("/customer/list").param("after", String.valueOf(after)))
+                .andExpect(status().isOk())
+                .andExpect(view().name("customer/list"))
+                .andExpect(model().attribute("customers", hasSize(CustomerController.PAGE_SIZE)))
+                .andExpect(model().attribute("after", equalTo(after)))
+                .andExpect(model().attribute("next", equalTo(after + CustomerController.PAGE_SIZE)));
+
+        verify(customerService, times(1)).listSummaries(after, CustomerController.PAGE_SIZE + 1);
     }
 
     @Test
@@ -73,15 +98,17 @@ public class CustomerControllerTest {
         customer.setLastName("Ferrao");
         customer.setEmail("mail@gmail.com");
         customer.setPhone("99999914143");
+        CustomerDetailView detail = new CustomerDetailView(customer, new ArrayList<>(), new ArrayList<>());
 
-        when(customerService.get(fakeId)).thenReturn(customer);
+        when(customerService.getDetail(fakeId)).thenReturn(detail);
 
         mockMvc.perform(get("/customer/" + fakeId))
                 .andExpect(status().isOk())
                 .andExpect(view().name("customer/show"))
-                .andExpect(model().attribute("customer", equalTo(customer)));
+                .andExpect(model().attribute("customer", equalTo(detail)));
 
-        verify(customerService, times(1)).get(fakeId);
+        verify(customerService, times(1)).getDetail(fakeId);
+        verify(customerService, never()).listRecipients(anyInt());
 
     }
 
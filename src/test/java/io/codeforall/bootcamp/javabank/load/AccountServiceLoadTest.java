@@ -0,0 +1,155 @@
+package io.codeforall.bootcamp.javabank.load;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.CustomerDao;
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.services.AccountService;
+import io.codeforall.bootcamp.javabank.services.ConcurrencyMode;
+import io.codeforall.bootcamp.javabank.services.CustomerService;
+import io.codeforall.bootcamp.javabank.services.RetryOnConflictInterceptor;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link TransferLoadHarness} against the test profile, the default load is small
+ * enough for the build, bigger loads are run with system properties such as
+ * {@code mvn test -Dtest=AccountServiceLoadTest -Dload.threads=200 -Dload.operations=100000}
+ */
+public class AccountServiceLoadTest {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 8);
+    private static final int OPERATIONS = Integer.getInteger("load.operations", 400);
+    private static final int ACCOUNTS = Integer.getInteger("load.accounts", 20);
+    private static final double SKEW = Double.parseDouble(System.getProperty("load.skew", "1.1"));
+    private static final int MAX_AMOUNT = 100;
+
+    private GenericXmlApplicationContext ctx;
+
+    @After
+    public void tearDown() {
+        if (ctx != null) {
+            ctx.close();
+        }
+    }
+
+    @Test
+    public void testOptimisticLoad() throws InterruptedException {
+
+        // exercise
+        LoadReport report = runLoad(ConcurrencyMode.OPTIMISTIC, false);
+
+        // verify
+        assertEquals("Unexpected errors: " + report, 0, report.getErrors());
+        assertTrue("Money should be conserved: " + report, report.isMoneyConserved());
+    }
+
+    @Test
+    public void testAtomicLoad() throws InterruptedException {
+
+        // exercise
+        LoadReport report = runLoad(ConcurrencyMode.ATOMIC, false);
+
+        // verify
+        // transfers lock both rows before updating them, so opposite transfers do not time out as conflicts
+        assertEquals("Unexpected errors: " + report, 0, report.getErrors());
+        assertTrue("Money should be conserved: " + report, report.isMoneyConserved());
+    }
+
+    @Test
+    public void testPessimisticLoad() throws InterruptedException {
+
+        // exercise
+        LoadReport report = runLoad(ConcurrencyMode.PESSIMISTIC, false);
+
+        // verify
+        assertEquals("Unexpected errors: " + report, 0, report.getErrors());
+        assertTrue("Money should be conserved: " + report, report.isMoneyConserved());
+    }
+
+    @Test
+    public void testHotAccountsLoad() throws InterruptedException {
+
+        // exercise
+        LoadReport report = runLoad(ConcurrencyMode.OPTIMISTIC, true);
+
+        // verify
+        assertEquals("Unexpected errors: " + report, 0, report.getErrors());
+        assertTrue("Money should be conserved: " + report, report.isMoneyConserved());
+    }
+
+    private LoadReport runLoad(ConcurrencyMode concurrencyMode, boolean hotAccounts) throws InterruptedException {
+
+        ctx = new GenericXmlApplicationContext();
+        ctx.getEnvironment().setActiveProfiles("test");
+        ctx.getEnvironment().getPropertySources().addFirst(new MapPropertySource("load",
+                Collections.singletonMap("account.concurrency.mode", concurrencyMode.name())));
+        ctx.load("file:src/main/webapp/WEB-INF/spring/spring-config.xml");
+        ctx.refresh();
+
+        int[] accountIds = seedAccounts(ctx.getBean(CustomerDao.class), ctx.getBean(AccountDao.class),
+                ctx.getBean(PlatformTransactionManager.class), (long) OPERATIONS * MAX_AMOUNT);
+
+        TransferLoadHarness harness = new TransferLoadHarness();
+        harness.setThreads(THREADS);
+        harness.setOperations(OPERATIONS);
+        harness.setSkew(SKEW);
+        harness.setMaxAmount(MAX_AMOUNT);
+
+        CustomerService customerService = ctx.getBean(CustomerService.class);
+        AccountService accountService = ctx.getBean(AccountService.class);
+
+        if (hotAccounts) {
+            for (int accountId : accountIds) {
+                accountService.makeHot(accountId);
+            }
+        }
+
+        LoadReport report = harness.run(accountService, accountIds, customerService::getBankBalance);
+
+        RetryOnConflictInterceptor retryInterceptor = ctx.getBean(RetryOnConflictInterceptor.class);
+
+        // only the conflicts still failing after all the retries should reach the caller
+        assertEquals("Conflicts should have been retried: " + report, retryInterceptor.getGiveUps(), report.getConflicts());
+
+        return report;
+    }
+
+    private int[] seedAccounts(CustomerDao customerDao, AccountDao accountDao,
+                               PlatformTransactionManager transactionManager, long balance) {
+
+        // the bank balance only counts accounts owned by a customer
+        Customer customer = new Customer();
+        customer.setFirstName("Load");
+        customer.setLastName("Test");
+
+        List<Account> saved = new TransactionTemplate(transactionManager).execute(status -> {
+
+            Customer owner = customerDao.saveOrUpdate(customer);
+            List<Account> accounts = new ArrayList<>(ACCOUNTS);
+
+            for (int i = 0; i < ACCOUNTS; i++) {
+                Account account = new CheckingAccount();
+                account.credit(balance);
+                account.setCustomer(owner);
+                accounts.add(account);
+            }
+
+            return accountDao.saveAll(accounts);
+        });
+
+        return saved.stream().mapToInt(Account::getId).toArray();
+    }
+}
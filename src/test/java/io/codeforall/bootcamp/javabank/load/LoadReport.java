@@ -0,0 +1,158 @@
+package io.codeforall.bootcamp.javabank.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The results of a {@link TransferLoadHarness} run
+ */
+public class LoadReport {
+
+    private final int operations;
+    private final long elapsedNanos;
+    private final long[] latencies;
+    private final int conflicts;
+    private final int rejected;
+    private final int errors;
+    private final long initialBalance;
+    private final long expectedBalance;
+    private final long finalBalance;
+
+    /**
+     * Initializes a new load report
+     *
+     * @param elapsedNanos    the duration of the run, in nanoseconds
+     * @param latencies       the latency of each operation, in nanoseconds
+     * @param conflicts       the number of operations failed by concurrent changes
+     * @param rejected        the number of operations rejected by the account rules
+     * @param errors          the number of operations failed for any other reason
+     * @param initialBalance  the bank balance before the run, in cents
+     * @param expectedBalance the bank balance expected after the run, in cents
+     * @param finalBalance    the bank balance after the run, in cents
+     */
+    public LoadReport(long elapsedNanos, long[] latencies, int conflicts, int rejected, int errors,
+                      long initialBalance, long expectedBalance, long finalBalance) {
+        this.operations = latencies.length;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies.clone();
+        this.conflicts = conflicts;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.initialBalance = initialBalance;
+        this.expectedBalance = expectedBalance;
+        this.finalBalance = finalBalance;
+
+        Arrays.sort(this.latencies);
+    }
+
+    /**
+     * Gets the number of operations run
+     *
+     * @return the number of operations
+     */
+    public int getOperations() {
+        return operations;
+    }
+
+    /**
+     * Gets the number of operations completed per second
+     *
+     * @return the throughput
+     */
+    public double getThroughput() {
+        return operations / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Gets a latency percentile
+     *
+     * @param percentile the percentile, from {@code 0} to {@code 1}
+     * @return the latency, in nanoseconds
+     */
+    public long getLatency(double percentile) {
+
+        if (latencies.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+    }
+
+    /**
+     * Gets the number of operations failed by concurrent changes to the same accounts
+     *
+     * @return the number of conflicts
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Gets the number of operations rejected by the account rules
+     *
+     * @return the number of rejected operations
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of operations failed for unexpected reasons
+     *
+     * @return the number of errors
+     */
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets the bank balance before the run
+     *
+     * @return the initial balance, in cents
+     */
+    public long getInitialBalance() {
+        return initialBalance;
+    }
+
+    /**
+     * Gets the bank balance expected after the run, from the operations that succeeded
+     *
+     * @return the expected balance, in cents
+     */
+    public long getExpectedBalance() {
+        return expectedBalance;
+    }
+
+    /**
+     * Gets the bank balance after the run
+     *
+     * @return the final balance, in cents
+     */
+    public long getFinalBalance() {
+        return finalBalance;
+    }
+
+    /**
+     * Checks if no money was created or lost by the run
+     *
+     * @return {@code true} if the final balance is the expected one
+     */
+    public boolean isMoneyConserved() {
+        return expectedBalance == finalBalance;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format("operations=%d, throughput=%.1f ops/s, p50=%dus, p99=%dus, p999=%dus, " +
+                        "conflicts=%d, rejected=%d, errors=%d, conserved=%b",
+                operations, getThroughput(),
+                TimeUnit.NANOSECONDS.toMicros(getLatency(0.5)),
+                TimeUnit.NANOSECONDS.toMicros(getLatency(0.99)),
+                TimeUnit.NANOSECONDS.toMicros(getLatency(0.999)),
+                conflicts, rejected, errors, isMoneyConserved());
+    }
+}
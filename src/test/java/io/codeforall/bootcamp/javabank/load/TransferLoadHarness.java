@@ -0,0 +1,184 @@
+package io.codeforall.bootcamp.javabank.load;
+
+import io.codeforall.bootcamp.javabank.services.AccountService;
+import io.codeforall.bootcamp.javabank.services.RetryOnConflictInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Drives a mix of deposits, withdrawals and transfers from many threads against an
+ * {@link AccountService}, picking accounts with a zipfian distribution so that a few
+ * hot accounts get most of the operations
+ * <p>
+ * Accounts should be seeded with enough money that no debit is refused for lack of funds,
+ * at least the number of operations times the maximum amount, every operation that
+ * completes then moved exactly its amount and the bank balance can be verified
+ */
+public class TransferLoadHarness {
+
+    private int threads = 16;
+    private int operations = 2000;
+    private double skew = 1.1;
+    private int depositWeight = 1;
+    private int withdrawWeight = 1;
+    private int transferWeight = 8;
+    private int maxAmount = 100;
+
+    /**
+     * Sets the number of threads running operations
+     *
+     * @param threads the number of threads to set
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the total number of operations to run
+     *
+     * @param operations the number of operations to set
+     */
+    public void setOperations(int operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Sets the skew of the account selection
+     *
+     * @param skew the zipfian skew to set, {@code 0} for uniform selection
+     * @see ZipfGenerator
+     */
+    public void setSkew(double skew) {
+        this.skew = skew;
+    }
+
+    /**
+     * Sets the relative weights of each type of operation in the mix
+     *
+     * @param depositWeight  the weight of deposits
+     * @param withdrawWeight the weight of withdrawals
+     * @param transferWeight the weight of transfers
+     */
+    public void setMix(int depositWeight, int withdrawWeight, int transferWeight) {
+        this.depositWeight = depositWeight;
+        this.withdrawWeight = withdrawWeight;
+        this.transferWeight = transferWeight;
+    }
+
+    /**
+     * Sets the maximum amount of each operation
+     *
+     * @param maxAmount the maximum amount to set, in cents
+     */
+    public void setMaxAmount(int maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Runs the load
+     *
+     * @param accountService the account service to load
+     * @param accountIds     the ids of the accounts to operate on
+     * @param bankBalance    supplies the current bank balance
+     * @return the load report
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public LoadReport run(AccountService accountService, int[] accountIds, LongSupplier bankBalance)
+            throws InterruptedException {
+
+        ZipfGenerator zipf = new ZipfGenerator(accountIds.length, skew);
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        LongAdder moneyIn = new LongAdder();
+        LongAdder moneyOut = new LongAdder();
+        int totalWeight = depositWeight + withdrawWeight + transferWeight;
+
+        long initialBalance = bankBalance.getAsLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> workers = new ArrayList<>(threads);
+
+        for (int t = 0; t < threads; t++) {
+
+            int workerOperations = operations / threads + (t < operations % threads ? 1 : 0);
+
+            workers.add(executor.submit(() -> {
+
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] latencies = new long[workerOperations];
+                start.await();
+
+                for (int i = 0; i < workerOperations; i++) {
+
+                    int pick = random.nextInt(totalWeight);
+                    int srcId = accountIds[zipf.next(random)];
+                    int dstId = accountIds[zipf.next(random)];
+                    long amount = 1 + random.nextInt(maxAmount);
+                    long begin = System.nanoTime();
+
+                    try {
+
+                        if (pick < depositWeight) {
+                            accountService.deposit(srcId, amount);
+                            moneyIn.add(amount);
+                        } else if (pick < depositWeight + withdrawWeight) {
+                            accountService.withdraw(srcId, amount);
+                            moneyOut.add(amount);
+                        } else {
+                            accountService.transfer(srcId, dstId, amount);
+                        }
+
+                    } catch (IllegalArgumentException ex) {
+                        rejected.incrementAndGet();
+
+                    } catch (RuntimeException ex) {
+                        (RetryOnConflictInterceptor.isConflict(ex) ? conflicts : errors).incrementAndGet();
+                    }
+
+                    latencies[i] = System.nanoTime() - begin;
+                }
+
+                return latencies;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+
+        List<long[]> results = new ArrayList<>(threads);
+
+        try {
+            for (Future<long[]> worker : workers) {
+                results.add(worker.get());
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("load worker failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = System.nanoTime() - begin;
+
+        long[] latencies = new long[operations];
+        int position = 0;
+
+        for (long[] result : results) {
+            System.arraycopy(result, 0, latencies, position, result.length);
+            position += result.length;
+        }
+
+        return new LoadReport(elapsed, latencies, conflicts.get(), rejected.get(), errors.get(),
+                initialBalance, initialBalance + moneyIn.sum() - moneyOut.sum(), bankBalance.getAsLong());
+    }
+}
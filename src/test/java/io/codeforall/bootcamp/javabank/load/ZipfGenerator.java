@@ -0,0 +1,52 @@
+package io.codeforall.bootcamp.javabank.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks indexes from {@code 0} to {@code n - 1} following a zipfian distribution, so
+ * that a few indexes are picked most of the time, the same way a few accounts are hot
+ */
+public class ZipfGenerator {
+
+    private final double[] cumulative;
+
+    /**
+     * Initializes a new zipfian generator
+     *
+     * @param n    the number of indexes
+     * @param skew the skew of the distribution, {@code 0} picks all indexes uniformly
+     */
+    public ZipfGenerator(int n, double skew) {
+
+        if (n <= 0 || skew < 0) {
+            throw new IllegalArgumentException("invalid zipf parameters");
+        }
+
+        cumulative = new double[n];
+        double sum = 0;
+
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * Picks the next index
+     *
+     * @param random the source of randomness
+     * @return the index
+     */
+    public int next(Random random) {
+
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+
+        // not found returns the insertion point, the first cumulative probability above the draw
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,78 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void setup() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void testEmpty() {
+
+        // verify
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testExactValues() {
+
+        // exercise
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        // verify
+        assertEquals(100, histogram.getCount());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0.001);
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPrecision() {
+
+        // exercise
+        for (long value = 1000; value <= 1000000000; value *= 3) {
+
+            histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(value * 2);
+
+            // verify
+            long recorded = histogram.getValueAtPercentile(50);
+            assertTrue("Value " + value + " recorded as " + recorded, recorded >= value && recorded <= value * 1.02);
+        }
+    }
+
+    @Test
+    public void testOutOfRange() {
+
+        // exercise
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+
+        // verify
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        histogram.getValueAtPercentile(101);
+    }
+}
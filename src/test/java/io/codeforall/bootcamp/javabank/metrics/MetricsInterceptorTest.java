@@ -0,0 +1,88 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import io.codeforall.bootcamp.javabank.services.AccountService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MetricsInterceptorTest {
+
+    private AccountService accountService;
+    private MetricsInterceptor metricsInterceptor;
+    private AccountService proxy;
+
+    @Before
+    public void setup() {
+
+        accountService = mock(AccountService.class);
+        metricsInterceptor = new MetricsInterceptor();
+
+        ProxyFactory proxyFactory = new ProxyFactory(accountService);
+        proxyFactory.addAdvice(metricsInterceptor);
+        proxy = (AccountService) proxyFactory.getProxy();
+    }
+
+    @Test
+    public void testCalls() {
+
+        // exercise
+        proxy.deposit(1, 100);
+        proxy.deposit(1, 100, "key");
+        proxy.deposit(1, 100, "key");
+        proxy.get(1);
+
+        // verify
+        Map<String, MethodMetrics> metrics = metricsInterceptor.getMetrics();
+        String prefix = accountService.getClass().getSimpleName();
+        assertEquals(3, metrics.size());
+        assertEquals(1, metrics.get(prefix + ".deposit(Integer,long)").getCalls());
+        assertEquals(2, metrics.get(prefix + ".deposit(Integer,long,String)").getCalls());
+        assertEquals(1, metrics.get(prefix + ".get").getCalls());
+        assertEquals(2, metrics.get(prefix + ".deposit(Integer,long,String)").getLatencies().getCount());
+    }
+
+    @Test
+    public void testErrors() {
+
+        // setup
+        doThrow(new IllegalArgumentException("invalid account id")).when(accountService).withdraw(1, 100);
+
+        // exercise
+        try {
+            proxy.withdraw(1, 100);
+            fail("Withdraw should fail");
+
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+
+        // verify
+        MethodMetrics metrics = metricsInterceptor.getMetrics().values().iterator().next();
+        assertEquals(1, metrics.getCalls());
+        assertEquals(1, metrics.getErrors());
+        assertEquals(0, metrics.getInFlight());
+    }
+
+    @Test
+    public void testInFlight() {
+
+        // setup
+        doAnswer(invocation -> {
+            assertEquals(1, metricsInterceptor.getMetrics().values().iterator().next().getInFlight());
+            return null;
+        }).when(accountService).makeHot(1);
+
+        // exercise
+        proxy.makeHot(1);
+
+        // verify
+        MethodMetrics metrics = metricsInterceptor.getMetrics().values().iterator().next();
+        assertEquals(0, metrics.getInFlight());
+        assertEquals(0, metrics.getErrors());
+    }
+}
@@ -0,0 +1,78 @@
+package io.codeforall.bootcamp.javabank.metrics;
+
+import io.codeforall.bootcamp.javabank.persistence.statistics.StatementRecorder;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StatementStatisticsInterceptorTest {
+
+    private static final String SELECT = "select a.id from Account a where a.customer_id=?";
+
+    private StatementStatisticsInterceptor statementStatisticsInterceptor;
+    private StatementRecorder statementRecorder;
+
+    @Before
+    public void setup() {
+
+        statementStatisticsInterceptor = new StatementStatisticsInterceptor();
+        statementStatisticsInterceptor.setRepeatedSelectThreshold(3);
+        statementStatisticsInterceptor.setMaxReports(1);
+        statementRecorder = new StatementRecorder();
+    }
+
+    @Test
+    public void testRequest() {
+
+        // exercise
+        handle("/customer/1", 2);
+
+        // verify
+        assertEquals(1, statementStatisticsInterceptor.getRequests());
+        assertEquals(2, statementStatisticsInterceptor.getStatements());
+        assertEquals(0, statementStatisticsInterceptor.getFlaggedRequests());
+        assertTrue(statementStatisticsInterceptor.getReports().isEmpty());
+        assertNull("Recording should be stopped", StatementRecorder.stop());
+    }
+
+    @Test
+    public void testRepeatedSelects() {
+
+        // exercise
+        handle("/customer/1", 3);
+        handle("/customer/list", 4);
+
+        // verify
+        List<StatementReport> reports = statementStatisticsInterceptor.getReports();
+        assertEquals(2, statementStatisticsInterceptor.getFlaggedRequests());
+        assertEquals("Only the latest reports should be kept", 1, reports.size());
+        assertEquals("GET /customer/list", reports.get(0).getRequest());
+        assertEquals(4, reports.get(0).getStatements());
+        assertEquals(Collections.singletonMap(SELECT, 4), reports.get(0).getRepeatedSelects());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRepeatedSelectThreshold() {
+        statementStatisticsInterceptor.setRepeatedSelectThreshold(1);
+    }
+
+    private void handle(String uri, int selects) {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        statementStatisticsInterceptor.preHandle(request, response, null);
+
+        for (int i = 0; i < selects; i++) {
+            statementRecorder.inspect(SELECT);
+        }
+
+        statementStatisticsInterceptor.afterCompletion(request, response, null, null);
+    }
+}
@@ -0,0 +1,298 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.cache;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.CustomerDao;
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CachingDaoInterceptorTest {
+
+    private AtomicLong now;
+    private AccountDao accountDao;
+    private AccountDao cachingAccountDao;
+    private CachingDaoInterceptor cachingDaoInterceptor;
+
+    @Before
+    public void setup() {
+
+        now = new AtomicLong();
+        accountDao = mock(AccountDao.class);
+
+        cachingDaoInterceptor = new CachingDaoInterceptor(now::get);
+        cachingDaoInterceptor.setTimeToLive(1000);
+
+        ProxyFactory proxyFactory = new ProxyFactory(accountDao);
+        proxyFactory.addAdvice(cachingDaoInterceptor);
+        cachingAccountDao = (AccountDao) proxyFactory.getProxy();
+    }
+
+    @After
+    public void tearDown() {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testFindByIdCached() {
+
+        // setup
+        int fakeId = 1;
+        Account fakeAccount = account(fakeId, 0);
+        when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
+
+        // exercise
+        Account first = cachingAccountDao.findById(fakeId);
+        Account second = cachingAccountDao.findById(fakeId);
+
+        // verify
+        assertSame(fakeAccount, first);
+        assertNotSame("Cached account should be copied", fakeAccount, second);
+        assertEquals(fakeAccount.getId(), second.getId());
+        assertEquals(fakeAccount.getVersion(), second.getVersion());
+        verify(accountDao, times(1)).findById(fakeId);
+        assertEquals(1, cachingDaoInterceptor.getHits());
+        assertEquals(1, cachingDaoInterceptor.getMisses());
+    }
+
+    @Test
+    public void testFindByIdExpired() {
+
+        // setup
+        int fakeId = 1;
+        when(accountDao.findById(fakeId)).thenReturn(account(fakeId, 0));
+        cachingAccountDao.findById(fakeId);
+
+        // exercise
+        now.set(1000);
+        cachingAccountDao.findById(fakeId);
+
+        // verify
+        verify(accountDao, times(2)).findById(fakeId);
+    }
+
+    @Test
+    public void testFindByIdInTransaction() {
+
+        // setup
+        int fakeId = 1;
+        when(accountDao.findById(fakeId)).thenReturn(account(fakeId, 0));
+        cachingAccountDao.findById(fakeId);
+        beginTransaction(true);
+
+        // exercise
+        cachingAccountDao.findById(fakeId);
+
+        // verify
+        verify(accountDao, times(2)).findById(fakeId);
+    }
+
+    @Test
+    public void testInvalidateOnWrite() {
+
+        // setup
+        int fakeId = 1;
+        Account fakeAccount = account(fakeId, 0);
+        when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
+        cachingAccountDao.findById(fakeId);
+        beginTransaction(false);
+
+        // exercise
+        cachingAccountDao.saveOrUpdate(fakeAccount);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        endTransaction();
+        cachingAccountDao.findById(fakeId);
+
+        // verify
+        verify(accountDao, times(2)).findById(fakeId);
+        assertEquals(0, cachingDaoInterceptor.getHits());
+    }
+
+    @Test
+    public void testInvalidateOnGuardedUpdate() {
+
+        // setup
+        int fakeId = 1;
+        when(accountDao.findById(fakeId)).thenReturn(account(fakeId, 0));
+        cachingAccountDao.findById(fakeId);
+        beginTransaction(false);
+
+        // exercise
+        cachingAccountDao.credit(fakeId, 100);
+        endTransaction();
+        cachingAccountDao.findById(fakeId);
+
+        // verify
+        verify(accountDao, times(2)).findById(fakeId);
+    }
+
+    @Test
+    public void testCustomerDeleteInvalidatesAccounts() {
+
+        // setup
+        int fakeId = 1;
+        CustomerDao customerDao = mock(CustomerDao.class);
+        ProxyFactory proxyFactory = new ProxyFactory(customerDao);
+        proxyFactory.addAdvice(cachingDaoInterceptor);
+        CustomerDao cachingCustomerDao = (CustomerDao) proxyFactory.getProxy();
+
+        when(accountDao.findById(fakeId)).thenReturn(account(fakeId, 0));
+        cachingAccountDao.findById(fakeId);
+        beginTransaction(false);
+
+        // exercise
+        cachingCustomerDao.delete(2);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        endTransaction();
+        when(accountDao.findById(fakeId)).thenReturn(null);
+
+        // verify
+        assertNull("Deleted account should not be read from the cache", cachingAccountDao.findById(fakeId));
+        verify(accountDao, times(2)).findById(fakeId);
+    }
+
+    @Test
+    public void testSlotNumberNotInvalidated() {
+
+        // setup
+        int fakeId = 1;
+        int otherId = 2;
+        when(accountDao.findById(otherId)).thenReturn(account(otherId, 0));
+        cachingAccountDao.findById(otherId);
+        beginTransaction(false);
+
+        // exercise
+        cachingAccountDao.creditSlot(fakeId, otherId, 100);
+        endTransaction();
+        cachingAccountDao.findById(otherId);
+
+        // verify
+        verify(accountDao, times(1)).findById(otherId);
+        assertEquals(1, cachingDaoInterceptor.getHits());
+    }
+
+    @Test
+    public void testStaleLoadNotCached() {
+
+        // setup
+        int fakeId = 1;
+
+        // the account changes while it is loaded
+        when(accountDao.findById(fakeId)).thenAnswer(invocation -> {
+            beginTransaction(false);
+            cachingAccountDao.credit(fakeId, 100);
+            endTransaction();
+            return account(fakeId, 0);
+        });
+
+        // exercise
+        cachingAccountDao.findById(fakeId);
+
+        // verify
+        assertEquals("Stale account should not be cached", 0, cachingDaoInterceptor.getSize());
+    }
+
+    @Test
+    public void testOlderVersionNotCached() {
+
+        // setup
+        int fakeId = 1;
+        Account newer = account(fakeId, 2);
+
+        // a concurrent read caches a newer version while the older one is loaded
+        when(accountDao.findById(fakeId)).thenAnswer(invocation -> {
+            doReturn(newer).when(accountDao).findById(fakeId);
+            cachingAccountDao.findById(fakeId);
+            return account(fakeId, 1);
+        });
+
+        // exercise
+        cachingAccountDao.findById(fakeId);
+        Account cached = cachingAccountDao.findById(fakeId);
+
+        // verify
+        assertEquals("Newer version should be kept", newer.getVersion(), cached.getVersion());
+        verify(accountDao, times(2)).findById(fakeId);
+    }
+
+    @Test
+    public void testCachedCopyChanged() {
+
+        // setup
+        int fakeId = 1;
+        Account fakeAccount = account(fakeId, 0);
+        fakeAccount.credit(100);
+        when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
+
+        // exercise
+        cachingAccountDao.findById(fakeId).credit(100);
+        cachingAccountDao.findById(fakeId).credit(100);
+
+        // verify
+        assertEquals("Cached account should not change", 100, cachingAccountDao.findById(fakeId).getBalance());
+    }
+
+    @Test
+    public void testCachedCopyWithCustomer() {
+
+        // setup
+        int fakeId = 1;
+        Account fakeAccount = account(fakeId, 0);
+        Customer fakeCustomer = new Customer();
+        fakeCustomer.setId(2);
+        fakeCustomer.addAccount(fakeAccount);
+        when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
+        cachingAccountDao.findById(fakeId);
+
+        // exercise
+        Account cached = cachingAccountDao.findById(fakeId);
+
+        // verify
+        assertEquals(Integer.valueOf(2), cached.getCustomer().getId());
+        assertSame("References should be copied once", cached, cached.getCustomer().getAccounts().get(0));
+        assertNotSame(fakeCustomer, cached.getCustomer());
+    }
+
+    private Account account(int id, int version) {
+        Account account = new CheckingAccount();
+        account.setId(id);
+        account.setVersion(version);
+        return account;
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private void endTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+}
@@ -0,0 +1,49 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.cache;
+
+import io.codeforall.bootcamp.javabank.persistence.jpa.JpaIntegrationTestHelper;
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import org.hibernate.Hibernate;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ModelCopierTest extends JpaIntegrationTestHelper {
+
+    @Test
+    public void testCopyWithoutLazyCustomer() {
+
+        // setup
+        Account account = em.find(Account.class, 1);
+        em.clear();
+
+        // exercise
+        Account copy = ModelCopier.copy(account);
+
+        // verify
+        assertFalse(Hibernate.isInitialized(account.getCustomer()));
+        assertNull("Customer not loaded should be left unset", copy.getCustomer());
+        assertEquals(account.getBalance(), copy.getBalance());
+        assertEquals(account.getVersion(), copy.getVersion());
+    }
+
+    @Test
+    public void testCopyWithLoadedAccounts() {
+
+        // setup
+        Customer customer = em.find(Customer.class, 1);
+        Hibernate.initialize(customer.getAccounts());
+        em.clear();
+
+        // exercise
+        Customer copy = ModelCopier.copy(customer);
+        copy.getAccounts().get(0).credit(100);
+
+        // verify
+        assertEquals(customer.getAccounts().size(), copy.getAccounts().size());
+        assertSame(copy, copy.getAccounts().get(0).getCustomer());
+        assertEquals("Only the copy should be credited",
+                customer.getAccounts().get(0).getBalance() + 100, copy.getAccounts().get(0).getBalance());
+        assertTrue("Recipients not loaded should be left empty", copy.getRecipients().isEmpty());
+    }
+}
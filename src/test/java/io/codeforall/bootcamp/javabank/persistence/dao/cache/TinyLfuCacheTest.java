@@ -0,0 +1,107 @@
+package io.codeforall.bootcamp.javabank.persistence.dao.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testPut() {
+
+        // setup
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10);
+
+        // exercise
+        boolean cached = cache.put(1, "one");
+
+        // verify
+        assertTrue(cached);
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBounded() {
+
+        // setup
+        int maximumSize = 10;
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(maximumSize);
+
+        // exercise
+        for (int i = 0; i < 1000; i++) {
+            cache.get(i);
+            cache.put(i, "value");
+        }
+
+        // verify
+        assertEquals(maximumSize, cache.size());
+    }
+
+    @Test
+    public void testKeepFrequent() {
+
+        // setup
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10);
+
+        for (int i = 0; i < 10; i++) {
+            for (int reads = 0; reads < 5; reads++) {
+                cache.get(i);
+            }
+            cache.put(i, "popular");
+        }
+
+        // exercise
+        for (int i = 100; i < 200; i++) {
+            cache.get(i);
+            cache.put(i, "scan");
+        }
+
+        // verify
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Popular keys should survive a scan", "popular", cache.peek(i));
+        }
+
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void testAdmitMoreFrequent() {
+
+        // setup
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(2);
+        cache.get(1);
+        cache.put(1, "one");
+        cache.get(2);
+        cache.put(2, "two");
+
+        // exercise
+        for (int reads = 0; reads < 5; reads++) {
+            cache.get(3);
+        }
+
+        boolean cached = cache.put(3, "three");
+
+        // verify
+        assertTrue(cached);
+        assertEquals("three", cache.peek(3));
+        assertNull("Least recently used key should be evicted", cache.peek(1));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testRemove() {
+
+        // setup
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10);
+        cache.put(1, "one");
+
+        // exercise
+        cache.remove(1);
+
+        // verify
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+}
@@ -1,23 +1,31 @@
 package io.codeforall.bootcamp.javabank.persistence.jpa.dao;
 
 import io.codeforall.bootcamp.javabank.persistence.jpa.JpaIntegrationTestHelper;
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
 import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
 import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
 import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaAccountDao;
+import io.codeforall.bootcamp.javabank.persistence.statistics.StatementAssert;
+import io.codeforall.bootcamp.javabank.persistence.statistics.StatementStatistics;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.persistence.LockModeType;
 import javax.persistence.Query;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
 public class JpaAccountDaoIntegrationTest extends JpaIntegrationTestHelper {
 
     private final static Integer INVALID_ID = 9999;
-    private final static double DOUBLE_DELTA = 0.1;
 
     private JpaAccountDao accountDao;
 
@@ -42,7 +50,7 @@ public class JpaAccountDaoIntegrationTest extends JpaIntegrationTestHelper {
         assertNotNull("Account is null", account);
         Assert.assertEquals("Account id is wrong", id, account.getId().intValue());
         Assert.assertEquals("Account type is wrong", AccountType.CHECKING.toString(), account.getAccountType().toString());
-        assertEquals("Account balance is wrong", 100, account.getBalance(), DOUBLE_DELTA);
+        assertEquals("Account balance is wrong", 10000L, account.getBalance());
 
     }
 
@@ -114,7 +122,7 @@ public class JpaAccountDaoIntegrationTest extends JpaIntegrationTestHelper {
         // setup
         int id = 1;
         Account account = em.find(Account.class, id);
-        account.credit(100);
+        account.credit(10000);
 
         // exercise
         em.getTransaction().begin();
@@ -123,7 +131,217 @@ public class JpaAccountDaoIntegrationTest extends JpaIntegrationTestHelper {
 
         // verify
         account = em.find(Account.class, id);
-        assertEquals("Account balance is wrong", 200, account.getBalance(), DOUBLE_DELTA);
+        assertEquals("Account balance is wrong", 20000L, account.getBalance());
+
+    }
+
+    @Test
+    public void testFindByIdForUpdate() {
+
+        // setup
+        int id = 1;
+
+        // exercise
+        em.getTransaction().begin();
+        Account account = accountDao.findByIdForUpdate(id);
+        LockModeType lockMode = em.getLockMode(account);
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("Account id is wrong", id, account.getId().intValue());
+        assertEquals("Account should be locked", LockModeType.PESSIMISTIC_WRITE, lockMode);
+
+    }
+
+    @Test
+    public void testCreditSlot() {
+
+        // setup
+        int id = 1;
+
+        // exercise
+        em.getTransaction().begin();
+        boolean created = accountDao.createSlots(id, 4);
+        boolean credited = accountDao.creditSlot(id, 2, 500);
+        boolean creditedMissingSlot = accountDao.creditSlot(id, 4, 500);
+        boolean creditedNegativeAmount = accountDao.creditSlot(id, 1, -500);
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        assertTrue("Slots should be created", created);
+        assertTrue("Slot should be credited", credited);
+        assertFalse("Missing slot should not be credited", creditedMissingSlot);
+        assertFalse("Negative amount should not be credited", creditedNegativeAmount);
+        assertEquals("Hot accounts are wrong", Collections.singletonList(id), accountDao.findHotIds());
+        assertEquals("Slots should not be read with the account", 10000L, em.find(Account.class, id).getBalance());
+        assertEquals("Slot balances are wrong", Collections.singletonMap(id, 500L),
+                accountDao.sumSlotsByAccounts(Arrays.asList(id, 2)));
+        assertEquals("Customer balance is wrong", Long.valueOf(15550), accountDao.sumBalanceByCustomer(1));
+        assertEquals("Bank balance is wrong", 36650, accountDao.sumBalanceTotal());
+        assertEquals("Checking balance is wrong", Long.valueOf(13550), accountDao.sumBalanceByType().get(AccountType.CHECKING));
+
+    }
+
+    @Test
+    public void testFindByIdsWithoutSlots() throws Exception {
+
+        // exercise
+        StatementStatistics statistics = StatementAssert.record(() -> accountDao.findByIds(Arrays.asList(1, 2)));
+
+        // verify
+        assertEquals(1, statistics.getStatementCount());
+        assertFalse("Slots should not be read with the accounts",
+                statistics.getStatementCounts().keySet().iterator().next().contains("account_slot"));
+    }
+
+    @Test
+    public void testCreateSlotsInvalid() {
+
+        // exercise
+        em.getTransaction().begin();
+        boolean created = accountDao.createSlots(INVALID_ID, 4);
+        em.getTransaction().commit();
+
+        // verify
+        assertFalse("Slots should not be created", created);
+        assertTrue("There should be no hot accounts", accountDao.findHotIds().isEmpty());
+
+    }
+
+    @Test
+    public void testConsolidateSlots() {
+
+        // setup
+        int id = 1;
+        em.getTransaction().begin();
+        accountDao.createSlots(id, 4);
+        accountDao.creditSlot(id, 0, 300);
+        accountDao.creditSlot(id, 3, 200);
+        em.getTransaction().commit();
+
+        // exercise
+        em.getTransaction().begin();
+        long consolidated = accountDao.consolidateSlots(id);
+        boolean debited = accountDao.debit(id, 10500);
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        assertEquals("Consolidated amount is wrong", 500, consolidated);
+        assertTrue("Consolidated balance should be debited", debited);
+        assertEquals("Account balance is wrong", 0L, em.find(Account.class, id).getBalance());
+        assertEquals("Bank balance is wrong", 36150 - 10000, accountDao.sumBalanceTotal());
+
+    }
+
+    @Test
+    public void testCredit() {
+
+        // setup
+        int id = 1;
+        int version = em.find(Account.class, id).getVersion();
+        em.clear();
+
+        // exercise
+        em.getTransaction().begin();
+        boolean credited = accountDao.credit(id, 5000);
+        em.getTransaction().commit();
+
+        // verify
+        Account account = em.find(Account.class, id);
+        assertTrue("Account should be credited", credited);
+        assertEquals("Account balance is wrong", 15000L, account.getBalance());
+        assertEquals("Account version is wrong", version + 1, account.getVersion().intValue());
+
+    }
+
+    @Test
+    public void testCreditInvalid() {
+
+        // exercise
+        em.getTransaction().begin();
+        boolean creditedInvalidAccount = accountDao.credit(INVALID_ID, 5000);
+        boolean creditedNegativeAmount = accountDao.credit(1, -5000);
+        em.getTransaction().commit();
+
+        // verify
+        assertFalse("Invalid account should not be credited", creditedInvalidAccount);
+        assertFalse("Negative amount should not be credited", creditedNegativeAmount);
+        assertEquals("Account balance is wrong", 10000L, em.find(Account.class, 1).getBalance());
+
+    }
+
+    @Test
+    public void testCreditEvictsOnlyAccount() {
+
+        // setup
+        Customer customer = em.find(Customer.class, 1);
+        customer.getAccounts().size();
+        em.clear();
+        Cache cache = emf.unwrap(SessionFactory.class).getCache();
+
+        // exercise
+        em.getTransaction().begin();
+        accountDao.credit(1, 5000);
+        em.getTransaction().commit();
+
+        // verify
+        assertFalse("Credited account should be evicted", cache.containsEntity(Account.class, 1));
+        assertTrue("Other accounts should stay cached", cache.containsEntity(Account.class, 2));
+        assertTrue("Customer accounts should stay cached", cache.containsCollection(Customer.class.getName() + ".accounts", 1));
+        assertEquals("Account balance is wrong", 15000L, em.find(Account.class, 1).getBalance());
+
+    }
+
+    @Test
+    public void testDebit() {
+
+        // exercise
+        em.getTransaction().begin();
+        boolean debitedChecking = accountDao.debit(1, 10000);
+        boolean debitedSavings = accountDao.debit(4, 5000);
+        em.getTransaction().commit();
+
+        // verify
+        assertTrue("Checking account should be debited", debitedChecking);
+        assertTrue("Savings account should be debited", debitedSavings);
+        assertEquals("Checking account balance is wrong", 0L, em.find(Account.class, 1).getBalance());
+        assertEquals("Savings account balance is wrong", 10000L, em.find(Account.class, 4).getBalance());
+
+    }
+
+    @Test
+    public void testDebitInsufficientFunds() {
+
+        // exercise
+        em.getTransaction().begin();
+        boolean debitedChecking = accountDao.debit(1, 10050);
+        boolean debitedSavings = accountDao.debit(4, 5050);
+        em.getTransaction().commit();
+
+        // verify
+        assertFalse("Checking account should not be overdrawn", debitedChecking);
+        assertFalse("Savings account should keep the minimum balance", debitedSavings);
+        assertEquals("Checking account balance is wrong", 10000L, em.find(Account.class, 1).getBalance());
+        assertEquals("Savings account balance is wrong", 15000L, em.find(Account.class, 4).getBalance());
+
+    }
+
+    @Test
+    public void testWithdraw() {
+
+        // exercise
+        em.getTransaction().begin();
+        boolean withdrawnChecking = accountDao.withdraw(1, 5000);
+        boolean withdrawnSavings = accountDao.withdraw(4, 1000);
+        em.getTransaction().commit();
+
+        // verify
+        assertTrue("Checking account should allow withdrawals", withdrawnChecking);
+        assertFalse("Savings account should not allow withdrawals", withdrawnSavings);
+        assertEquals("Checking account balance is wrong", 5000L, em.find(Account.class, 1).getBalance());
+        assertEquals("Savings account balance is wrong", 15000L, em.find(Account.class, 4).getBalance());
 
     }
 
@@ -143,6 +361,78 @@ public class JpaAccountDaoIntegrationTest extends JpaIntegrationTestHelper {
         assertNotNull("Account owned by customer should not be deleted", account);
     }
 
+    @Test
+    public void testSumBalanceByCustomer() {
+
+        // exercise
+        Long balance = accountDao.sumBalanceByCustomer(1);
+        Long noAccountsBalance = accountDao.sumBalanceByCustomer(4);
+        Long invalidBalance = accountDao.sumBalanceByCustomer(INVALID_ID);
+
+        // verify
+        assertEquals("Customer balance is wrong", Long.valueOf(15050), balance);
+        assertEquals("Customer without accounts balance is wrong", Long.valueOf(0), noAccountsBalance);
+        assertNull("Invalid customer balance should be null", invalidBalance);
+    }
+
+    @Test
+    public void testFindBalancesByCustomer() {
+
+        // setup
+        em.getTransaction().begin();
+        accountDao.createSlots(2, 4);
+        accountDao.creditSlot(2, 1, 500);
+        em.getTransaction().commit();
+        em.clear();
+
+        // exercise
+        Map<Integer, Long> balances = accountDao.findBalancesByCustomer(1);
+        Map<Integer, Long> noAccountsBalances = accountDao.findBalancesByCustomer(4);
+        Map<Integer, Long> invalidBalances = accountDao.findBalancesByCustomer(INVALID_ID);
+
+        // verify
+        assertEquals("Number of accounts is wrong", 2, balances.size());
+        assertEquals("Account balance is wrong", Long.valueOf(10000), balances.get(1));
+        assertEquals("Hot account balance is wrong", Long.valueOf(5550), balances.get(2));
+        assertTrue("Customer without accounts should have no balances", noAccountsBalances.isEmpty());
+        assertNull("Invalid customer balances should be null", invalidBalances);
+    }
+
+    @Test
+    public void testSumBalanceByCustomers() {
+
+        // exercise
+        Map<Integer, Long> balances = accountDao.sumBalanceByCustomers(Arrays.asList(1, 2, 4, INVALID_ID));
+
+        // verify
+        assertEquals("Number of balances is wrong", 3, balances.size());
+        assertEquals("First customer balance is wrong", Long.valueOf(15050), balances.get(1));
+        assertEquals("Second customer balance is wrong", Long.valueOf(16000), balances.get(2));
+        assertEquals("Customer without accounts balance is wrong", Long.valueOf(0), balances.get(4));
+        assertTrue("Balances should be empty", accountDao.sumBalanceByCustomers(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testSumBalanceTotal() {
+
+        // exercise
+        long balance = accountDao.sumBalanceTotal();
+
+        // verify
+        assertEquals("Accounts without a customer should be left out", 36150, balance);
+    }
+
+    @Test
+    public void testSumBalanceByType() {
+
+        // exercise
+        Map<AccountType, Long> balances = accountDao.sumBalanceByType();
+
+        // verify
+        assertEquals("Checking balance is wrong", Long.valueOf(13050), balances.get(AccountType.CHECKING));
+        assertEquals("Savings balance is wrong", Long.valueOf(23100), balances.get(AccountType.SAVINGS));
+    }
+
     @Test
     public void testDeleteOrphanAccount() {
 
@@ -1,5 +1,6 @@
 package io.codeforall.bootcamp.javabank.persistence.jpa.dao;
 
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
 import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
 import io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount;
@@ -8,6 +9,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -73,6 +75,24 @@ public class JpaAccountDaoTest {
 
     }
 
+    @Test
+    public void testFindByIdForUpdate() {
+
+        // setup
+        int fakeId = 9999;
+        Account fakeAccount = new CheckingAccount();
+        fakeAccount.setId(fakeId);
+        when(em.find(Account.class, fakeId, LockModeType.PESSIMISTIC_WRITE)).thenReturn(fakeAccount);
+
+        // exercise
+        Account account = customerDao.findByIdForUpdate(fakeId);
+
+        // verify
+        verify(em, times(1)).find(Account.class, fakeId, LockModeType.PESSIMISTIC_WRITE);
+        assertEquals(fakeAccount, account);
+
+    }
+
     @Test
     public void testFindByIdSavings() {
 
@@ -140,6 +160,24 @@ public class JpaAccountDaoTest {
 
     }
 
+    @Test
+    public void testDeleteOwned() {
+
+        // setup
+        int fakeId = 9999;
+        Account fakeAccount = new CheckingAccount();
+        fakeAccount.setId(fakeId);
+        fakeAccount.setCustomer(new Customer());
+        when(em.find(Account.class, fakeId)).thenReturn(fakeAccount);
+
+        // exercise
+        customerDao.delete(fakeId);
+
+        // verify
+        verify(em, never()).remove(any());
+
+    }
+
     @Test
     public void testDeleteSavings() {
 
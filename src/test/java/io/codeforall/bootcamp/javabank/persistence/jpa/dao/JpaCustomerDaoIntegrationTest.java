@@ -5,11 +5,20 @@ import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
 import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
 import io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
+import io.codeforall.bootcamp.javabank.persistence.dao.SortOrder;
 import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaCustomerDao;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -17,7 +26,6 @@ import static org.junit.Assert.*;
 public class JpaCustomerDaoIntegrationTest extends JpaIntegrationTestHelper {
 
     private final static Integer INVALID_ID = 9999;
-    private final static double DOUBLE_DELTA = 0.1;
 
     private JpaCustomerDao customerDao;
 
@@ -46,6 +54,59 @@ public class JpaCustomerDaoIntegrationTest extends JpaIntegrationTestHelper {
 
     }
 
+    @Test
+    public void testFindByIdWithAccounts() {
+
+        // setup
+        int id = 2;
+        PersistenceUnitUtil persistenceUnitUtil = emf.getPersistenceUnitUtil();
+
+        // exercise
+        Customer lazyCustomer = customerDao.findById(id);
+        em.clear();
+        Customer customer = customerDao.findByIdWithAccounts(id);
+
+        // verify
+        assertFalse("Accounts should not be loaded by default", persistenceUnitUtil.isLoaded(lazyCustomer, "accounts"));
+        assertTrue("Accounts should be loaded", persistenceUnitUtil.isLoaded(customer, "accounts"));
+        assertEquals("Number of accounts is wrong", 2, customer.getAccounts().size());
+        assertNull("invalid customer should not be found", customerDao.findByIdWithAccounts(INVALID_ID));
+    }
+
+    @Test
+    public void testFindDetail() {
+
+        // setup
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // exercise
+        CustomerDetailView detail = customerDao.findDetail(1);
+
+        // verify
+        assertTrue("Detail should be fetched in two statements at most", statistics.getPrepareStatementCount() <= 2);
+        assertEquals("Customer id is wrong", Integer.valueOf(1), detail.getId());
+        assertEquals("Customer first name is wrong", "Rui", detail.getFirstName());
+        assertEquals("Number of accounts is wrong", 2, detail.getAccounts().size());
+        assertEquals("Account order is wrong", Integer.valueOf(1), detail.getAccounts().get(0).getId());
+        assertEquals("Number of recipients is wrong", 2, detail.getRecipients().size());
+        assertEquals("Recipient order is wrong", Integer.valueOf(1), detail.getRecipients().get(0).getId());
+    }
+
+    @Test
+    public void testFindDetailNoAccounts() {
+
+        // exercise
+        CustomerDetailView detail = customerDao.findDetail(4);
+
+        // verify
+        assertNotNull("Customer detail is null", detail);
+        assertTrue("Accounts should be empty", detail.getAccounts().isEmpty());
+        assertTrue("Recipients should be empty", detail.getRecipients().isEmpty());
+        assertNull("invalid customer should not be found", customerDao.findDetail(INVALID_ID));
+    }
+
     @Test()
     public void testFindByIdInvalid() {
 
@@ -69,6 +130,52 @@ public class JpaCustomerDaoIntegrationTest extends JpaIntegrationTestHelper {
 
     }
 
+    @Test
+    public void testFindPage() {
+
+        // exercise
+        List<Customer> firstPage = customerDao.findPage(null, 3, SortOrder.ASCENDING);
+        List<Customer> lastPage = customerDao.findPage(firstPage.get(2).getId(), 3, SortOrder.ASCENDING);
+
+        // verify
+        assertEquals("Number of customers in first page is wrong", 3, firstPage.size());
+        assertEquals("First customer id is wrong", 1, firstPage.get(0).getId().intValue());
+        assertEquals("Number of customers in last page is wrong", 1, lastPage.size());
+        assertEquals("Last customer id is wrong", 4, lastPage.get(0).getId().intValue());
+
+    }
+
+    @Test
+    public void testFindPageDescending() {
+
+        // exercise
+        List<Customer> customers = customerDao.findPage(3, 10, SortOrder.DESCENDING);
+
+        // verify
+        assertEquals("Number of customers is wrong", 2, customers.size());
+        assertEquals("First customer id is wrong", 2, customers.get(0).getId().intValue());
+        assertEquals("Second customer id is wrong", 1, customers.get(1).getId().intValue());
+
+    }
+
+    @Test
+    public void testFindSummaryPage() {
+
+        // exercise
+        List<CustomerSummary> summaries = customerDao.findSummaryPage(1, 2, SortOrder.ASCENDING);
+
+        // verify
+        assertEquals("Number of summaries is wrong", 2, summaries.size());
+        assertEquals("Summary id is wrong", 2, summaries.get(0).getId().intValue());
+        assertEquals("Summary first name is wrong", "Sergio", summaries.get(0).getFirstName());
+        assertEquals("Summary last name is wrong", "Gouveia", summaries.get(0).getLastName());
+        assertEquals("Summary email is wrong", "mail@gmail.com", summaries.get(0).getEmail());
+        assertEquals("Summary phone is wrong", "777888", summaries.get(0).getPhone());
+        assertEquals("Summary id is wrong", 3, summaries.get(1).getId().intValue());
+        assertEquals("No entities should be managed", 0, em.unwrap(Session.class).getStatistics().getEntityCount());
+
+    }
+
     @Test
     public void testFindAllFail() {
 
@@ -125,8 +232,8 @@ public class JpaCustomerDaoIntegrationTest extends JpaIntegrationTestHelper {
     public void testAddCustomerWithAccounts() {
 
         // setup
-        double caBalance = 100;
-        double saBalance = 101;
+        long caBalance = 10000;
+        long saBalance = 10100;
         Account ca = new CheckingAccount();
         Account sa = new SavingsAccount();
         ca.credit(caBalance);
@@ -147,8 +254,58 @@ public class JpaCustomerDaoIntegrationTest extends JpaIntegrationTestHelper {
         assertNotNull("customer not found", addedCustomer);
         assertNotNull("customer accounts not found", customer.getAccounts());
         assertEquals("customer number of accounts wrong", newCustomer.getAccounts().size(), customer.getAccounts().size());
-        assertEquals("first account balance is wrong", caBalance, customer.getAccounts().get(0).getBalance(), DOUBLE_DELTA);
-        assertEquals("second account balance is wrong", saBalance, customer.getAccounts().get(1).getBalance(), DOUBLE_DELTA);
+        assertEquals("first account balance is wrong", caBalance, customer.getAccounts().get(0).getBalance());
+        assertEquals("second account balance is wrong", saBalance, customer.getAccounts().get(1).getBalance());
+
+    }
+
+    @Test
+    public void testSaveAll() {
+
+        // setup
+        int total = 120;
+        List<Customer> newCustomers = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            Customer customer = new Customer();
+            customer.setFirstName("first name " + i);
+            customer.setLastName("last name " + i);
+            customer.addAccount(new CheckingAccount());
+            newCustomers.add(customer);
+        }
+
+        // exercise
+        em.getTransaction().begin();
+        List<Customer> addedCustomers = customerDao.saveAll(newCustomers);
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("Number of added customers is wrong", total, addedCustomers.size());
+        assertEquals("Number of customers is wrong", total + 4, customerDao.findAll().size());
+        for (Customer addedCustomer : addedCustomers) {
+            assertTrue("Customer id should not collide with existing data", addedCustomer.getId() > 4);
+            assertNotNull("Customer not found", em.find(Customer.class, addedCustomer.getId()));
+        }
+
+    }
+
+    @Test
+    public void testSaveAllUpdates() {
+
+        // setup
+        int id = 1;
+        String firstName = "updated customer";
+        Customer existingCustomer = em.find(Customer.class, id);
+        existingCustomer.setFirstName(firstName);
+        em.clear();
+
+        // exercise
+        em.getTransaction().begin();
+        customerDao.saveAll(Collections.singletonList(existingCustomer));
+        em.getTransaction().commit();
+
+        // verify
+        Customer customer = em.find(Customer.class, id);
+        assertEquals("customer first name is wrong", firstName, customer.getFirstName());
 
     }
 
@@ -191,7 +348,7 @@ public class JpaCustomerDaoIntegrationTest extends JpaIntegrationTestHelper {
         Customer customer = em.find(Customer.class, id);
         assertEquals("customer first name is wrong", firstName, customer.getFirstName());
         assertEquals("number of accounts is wrong", 2, customer.getAccounts().size());
-        assertEquals("account balance is wrong", 100, customer.getAccounts().get(0).getBalance(), DOUBLE_DELTA);
+        assertEquals("account balance is wrong", 10000L, customer.getAccounts().get(0).getBalance());
 
     }
 
@@ -214,7 +371,7 @@ public class JpaCustomerDaoIntegrationTest extends JpaIntegrationTestHelper {
         Customer customer = em.find(Customer.class, id);
         assertEquals("customer first name is wrong", firstName, customer.getFirstName());
         assertEquals("number of accounts is wrong", 1, customer.getAccounts().size());
-        assertEquals("account balance is wrong", 100, customer.getAccounts().get(0).getBalance(), DOUBLE_DELTA);
+        assertEquals("account balance is wrong", 10000L, customer.getAccounts().get(0).getBalance());
 
     }
 
@@ -5,11 +5,14 @@ import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaCustomerDao;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -71,6 +74,27 @@ public class JpaCustomerDaoTest {
 
     }
 
+    @Test
+    public void testFindByIdWithAccounts() {
+
+        // setup
+        int fakeId = 9999;
+        Customer fakeCustomer = new Customer();
+        fakeCustomer.setId(fakeId);
+        EntityGraph fakeGraph = mock(EntityGraph.class);
+        when(em.getEntityGraph(Customer.ACCOUNTS_GRAPH)).thenReturn(fakeGraph);
+        when(em.find(eq(Customer.class), eq(fakeId), anyMap())).thenReturn(fakeCustomer);
+
+        // exercise
+        Customer customer = customerDao.findByIdWithAccounts(fakeId);
+
+        // verify
+        verify(em, times(1)).find(Customer.class, fakeId,
+                Collections.singletonMap("javax.persistence.loadgraph", fakeGraph));
+        assertEquals(fakeCustomer, customer);
+
+    }
+
     @Test
     public void testSaveOrUpdate() {
 
@@ -87,6 +111,29 @@ public class JpaCustomerDaoTest {
 
     }
 
+    @Test
+    public void testSaveAll() {
+
+        // setup
+        Customer newCustomer = new Customer();
+        Customer existingCustomer = new Customer();
+        Customer mergedCustomer = new Customer();
+        existingCustomer.setId(9999);
+        when(em.merge(existingCustomer)).thenReturn(mergedCustomer);
+        customerDao.setBatchSize(1);
+
+        // exercise
+        List<Customer> customers = customerDao.saveAll(Arrays.asList(newCustomer, existingCustomer));
+
+        // verify
+        verify(em, times(1)).persist(newCustomer);
+        verify(em, times(1)).merge(existingCustomer);
+        verify(em, times(3)).flush();
+        verify(em, times(3)).clear();
+        assertEquals(Arrays.asList(newCustomer, mergedCustomer), customers);
+
+    }
+
     @Test
     public void testDelete() {
 
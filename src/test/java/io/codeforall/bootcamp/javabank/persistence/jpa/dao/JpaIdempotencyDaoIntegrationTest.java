@@ -0,0 +1,104 @@
+package io.codeforall.bootcamp.javabank.persistence.jpa.dao;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaIdempotencyDao;
+import io.codeforall.bootcamp.javabank.persistence.jpa.JpaIntegrationTestHelper;
+import io.codeforall.bootcamp.javabank.persistence.model.account.IdempotencyRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class JpaIdempotencyDaoIntegrationTest extends JpaIntegrationTestHelper {
+
+    private JpaIdempotencyDao idempotencyDao;
+
+    @Before
+    public void setup() {
+
+        idempotencyDao = new JpaIdempotencyDao();
+        idempotencyDao.setEm(em);
+
+    }
+
+    @Test
+    public void testInsert() {
+
+        // exercise
+        em.getTransaction().begin();
+        idempotencyDao.insert(record("key", 60000));
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        IdempotencyRecord record = idempotencyDao.findByKey("key");
+        assertNotNull("Record should be found", record);
+        assertEquals("Fingerprint is wrong", "deposit:1:100", record.getFingerprint());
+
+    }
+
+    @Test
+    public void testFindByKeyInvalid() {
+
+        // exercise
+        IdempotencyRecord record = idempotencyDao.findByKey("unknown");
+
+        // verify
+        assertNull("Record should not be found", record);
+
+    }
+
+    @Test
+    public void testDeleteExpired() {
+
+        // setup
+        em.getTransaction().begin();
+        idempotencyDao.insert(record("expired", -60000));
+        idempotencyDao.insert(record("kept", 60000));
+        em.getTransaction().commit();
+        em.clear();
+
+        // exercise
+        em.getTransaction().begin();
+        int deleted = idempotencyDao.deleteExpired(new Date());
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        assertEquals("Number of deleted records is wrong", 1, deleted);
+        assertNull("Expired record should be deleted", idempotencyDao.findByKey("expired"));
+        assertNotNull("Record should be kept until it expires", idempotencyDao.findByKey("kept"));
+
+    }
+
+    @Test
+    public void testInsertDuplicate() {
+
+        // setup
+        em.getTransaction().begin();
+        idempotencyDao.insert(record("key", 60000));
+        em.getTransaction().commit();
+        em.clear();
+
+        // exercise
+        em.getTransaction().begin();
+
+        try {
+            idempotencyDao.insert(record("key", 60000));
+            fail("Duplicate key should not be inserted");
+
+        } catch (ConcurrencyFailureException ex) {
+            // expected, so the request is retried and finds the record
+
+        } finally {
+            em.getTransaction().rollback();
+        }
+
+    }
+
+    private IdempotencyRecord record(String key, long expiresIn) {
+        return new IdempotencyRecord(key, "deposit:1:100", new Date(System.currentTimeMillis() + expiresIn));
+    }
+}
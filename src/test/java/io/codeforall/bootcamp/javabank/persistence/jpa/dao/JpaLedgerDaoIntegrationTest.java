@@ -0,0 +1,95 @@
+package io.codeforall.bootcamp.javabank.persistence.jpa.dao;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaLedgerDao;
+import io.codeforall.bootcamp.javabank.persistence.jpa.JpaIntegrationTestHelper;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntryType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JpaLedgerDaoIntegrationTest extends JpaIntegrationTestHelper {
+
+    private JpaLedgerDao ledgerDao;
+
+    @Before
+    public void setup() {
+
+        ledgerDao = new JpaLedgerDao();
+        ledgerDao.setEm(em);
+
+    }
+
+    @Test
+    public void testAppend() {
+
+        // exercise
+        em.getTransaction().begin();
+        ledgerDao.append(LedgerEntry.transferOut(1, 3, 500));
+        ledgerDao.append(LedgerEntry.transferIn(3, 1, 500));
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        List<LedgerEntry> srcHistory = ledgerDao.findHistory(1, null, 10);
+        List<LedgerEntry> dstHistory = ledgerDao.findHistory(3, null, 10);
+        assertEquals("Source history size is wrong", 1, srcHistory.size());
+        assertEquals("Source entry type is wrong", LedgerEntryType.TRANSFER_OUT, srcHistory.get(0).getType());
+        assertEquals("Source entry amount is wrong", -500, srcHistory.get(0).getAmount());
+        assertEquals("Source entry counterpart is wrong", Integer.valueOf(3), srcHistory.get(0).getCounterpartId());
+        assertEquals("Destination history size is wrong", 1, dstHistory.size());
+        assertEquals("Destination entry amount is wrong", 500, dstHistory.get(0).getAmount());
+        assertNotNull("Entry creation time should be set", dstHistory.get(0).getCreationTime());
+
+    }
+
+    @Test
+    public void testFindHistoryPages() {
+
+        // setup
+        em.getTransaction().begin();
+
+        for (int i = 1; i <= 5; i++) {
+            ledgerDao.append(LedgerEntry.deposit(1, i * 100));
+            ledgerDao.append(LedgerEntry.deposit(2, i * 100));
+        }
+
+        em.getTransaction().commit();
+        em.clear();
+
+        // exercise
+        List<LedgerEntry> latest = ledgerDao.findHistory(1, null, 2);
+        List<LedgerEntry> previous = ledgerDao.findHistory(1, latest.get(1).getId(), 2);
+        List<LedgerEntry> oldest = ledgerDao.findHistory(1, previous.get(1).getId(), 2);
+
+        // verify
+        assertEquals("Latest page size is wrong", 2, latest.size());
+        assertEquals("Latest entry is wrong", 500, latest.get(0).getAmount());
+        assertEquals("Latest page is wrong", 400, latest.get(1).getAmount());
+        assertEquals("Previous page is wrong", 300, previous.get(0).getAmount());
+        assertEquals("Previous page is wrong", 200, previous.get(1).getAmount());
+        assertEquals("Oldest page size is wrong", 1, oldest.size());
+        assertEquals("Oldest entry is wrong", 100, oldest.get(0).getAmount());
+
+        for (List<LedgerEntry> page : new List[]{latest, previous, oldest}) {
+            for (LedgerEntry entry : page) {
+                assertEquals("Entry account is wrong", Integer.valueOf(1), entry.getAccountId());
+            }
+        }
+
+    }
+
+    @Test
+    public void testFindHistoryEmpty() {
+
+        // exercise
+        List<LedgerEntry> history = ledgerDao.findHistory(1, null, 10);
+
+        // verify
+        assertTrue("History should be empty", history.isEmpty());
+
+    }
+}
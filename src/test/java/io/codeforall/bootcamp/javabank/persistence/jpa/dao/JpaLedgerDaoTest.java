@@ -0,0 +1,70 @@
+package io.codeforall.bootcamp.javabank.persistence.jpa.dao;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaLedgerDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class JpaLedgerDaoTest {
+
+    private JpaLedgerDao ledgerDao;
+    private EntityManager em;
+
+    @Before
+    public void setup() {
+
+        em = mock(EntityManager.class);
+
+        ledgerDao = new JpaLedgerDao();
+        ledgerDao.setEm(em);
+
+    }
+
+    @Test
+    public void testAppend() {
+
+        // setup
+        LedgerEntry entry = LedgerEntry.deposit(1, 100);
+
+        // exercise
+        ledgerDao.append(entry);
+
+        // verify
+        verify(em, times(1)).persist(entry);
+        verify(em, never()).merge(any());
+
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindHistoryBefore() {
+
+        // setup
+        int fakeAccountId = 1;
+        int fakeBeforeId = 9999;
+        List<LedgerEntry> fakeEntries = new ArrayList<>();
+        TypedQuery<LedgerEntry> query = mock(TypedQuery.class);
+        when(em.createQuery(anyString(), eq(LedgerEntry.class))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        when(query.getResultList()).thenReturn(fakeEntries);
+
+        // exercise
+        List<LedgerEntry> entries = ledgerDao.findHistory(fakeAccountId, fakeBeforeId, 10);
+
+        // verify
+        verify(query, times(1)).setParameter("accountId", fakeAccountId);
+        verify(query, times(1)).setParameter("beforeId", fakeBeforeId);
+        verify(query, times(1)).setMaxResults(10);
+        assertEquals(fakeEntries, entries);
+
+    }
+}
@@ -0,0 +1,63 @@
+package io.codeforall.bootcamp.javabank.persistence.model.account;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+public class MoneyTest {
+
+    @Test
+    public void testOfUnits() {
+        assertEquals(10000, Money.ofUnits(100));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOfUnitsOverflow() {
+        Money.ofUnits(Long.MAX_VALUE / 10);
+    }
+
+    @Test
+    public void testAddIsExact() {
+
+        // 0.1 + 0.2 is not 0.3 with doubles
+        long sum = Money.add(Money.parse("0.1"), Money.parse("0.2"));
+
+        assertEquals(Money.parse("0.3"), sum);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testAddOverflow() {
+        Money.add(Long.MAX_VALUE, 1);
+    }
+
+    @Test
+    public void testSubtract() {
+        assertEquals(-50, Money.subtract(100, 150));
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(10050, Money.parse("100.5"));
+        assertEquals(10050, Money.parse(" 100.50 "));
+        assertEquals(100, Money.parse("1"));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testParseFractionOfCent() {
+        Money.parse("1.005");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseInvalid() {
+        Money.parse("one");
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("100.50", Money.format(10050));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals(new BigDecimal("0.07"), Money.toDecimal(7));
+    }
+}
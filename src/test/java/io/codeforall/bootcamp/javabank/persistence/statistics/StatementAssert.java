@@ -0,0 +1,74 @@
+package io.codeforall.bootcamp.javabank.persistence.statistics;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Asserts the number of statements an action prepares, requires the {@link StatementRecorder}
+ * to be configured as the hibernate statement inspector, as in the test profile
+ */
+public final class StatementAssert {
+
+    private StatementAssert() {
+    }
+
+    /**
+     * An action to record the statements of
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Records the statements an action prepares
+     *
+     * @param action the action to run
+     * @return the statements prepared
+     * @throws Exception if the action throws
+     */
+    public static StatementStatistics record(Action action) throws Exception {
+
+        StatementStatistics statistics = StatementRecorder.start();
+
+        try {
+            action.run();
+            return statistics;
+
+        } finally {
+            StatementRecorder.stop();
+        }
+    }
+
+    /**
+     * Asserts an action prepares no more than a number of statements, and repeats no select
+     *
+     * @param max    the highest number of statements
+     * @param action the action to run
+     * @return the statements prepared
+     * @throws Exception if the action throws
+     */
+    public static StatementStatistics assertMaxStatements(int max, Action action) throws Exception {
+
+        StatementStatistics statistics = record(action);
+
+        assertTrue("Expected at most " + max + " statements, but were " + statistics.getStatementCount() +
+                        ": " + statistics.getStatementCounts(),
+                statistics.getStatementCount() <= max);
+
+        assertNoRepeatedSelects(statistics);
+        return statistics;
+    }
+
+    /**
+     * Asserts no select statement was prepared more than once
+     *
+     * @param statistics the statements prepared
+     */
+    public static void assertNoRepeatedSelects(StatementStatistics statistics) {
+
+        Map<String, Integer> repeated = statistics.getRepeatedSelects(2);
+        assertTrue("Selects repeated, likely an N+1: " + repeated, repeated.isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+package io.codeforall.bootcamp.javabank.persistence.statistics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class StatementRecorderTest {
+
+    private static final String SELECT = "select c.id from Customer c where c.id=?";
+    private static final String UPDATE = "update Account set balance=? where id=?";
+
+    private final StatementRecorder statementRecorder = new StatementRecorder();
+
+    @After
+    public void tearDown() {
+
+        // a failed test may leave its recordings started
+        StatementStatistics statistics;
+
+        do {
+            statistics = StatementRecorder.stop();
+        } while (statistics != null);
+    }
+
+    @Test
+    public void testInspect() {
+
+        // setup
+        StatementStatistics statistics = StatementRecorder.start();
+
+        // exercise
+        String sql = statementRecorder.inspect(SELECT);
+        statementRecorder.inspect(UPDATE);
+        statementRecorder.inspect(SELECT);
+        StatementStatistics stopped = StatementRecorder.stop();
+
+        // verify
+        assertEquals("Statement should not be changed", SELECT, sql);
+        assertSame(statistics, stopped);
+        assertEquals(3, statistics.getStatementCount());
+        assertEquals(Integer.valueOf(2), statistics.getStatementCounts().get(SELECT));
+        assertEquals(Integer.valueOf(1), statistics.getStatementCounts().get(UPDATE));
+    }
+
+    @Test
+    public void testInspectNotRecording() {
+
+        // exercise
+        String sql = statementRecorder.inspect(SELECT);
+
+        // verify
+        assertEquals(SELECT, sql);
+        assertNull(StatementRecorder.stop());
+    }
+
+    @Test
+    public void testNestedRecordings() {
+
+        // setup
+        StatementStatistics outer = StatementRecorder.start();
+        statementRecorder.inspect(SELECT);
+
+        // exercise
+        StatementStatistics inner = StatementRecorder.start();
+        statementRecorder.inspect(UPDATE);
+        StatementRecorder.stop();
+        statementRecorder.inspect(SELECT);
+        StatementRecorder.stop();
+
+        // verify
+        assertEquals(1, inner.getStatementCount());
+        assertEquals(3, outer.getStatementCount());
+    }
+
+    @Test
+    public void testRepeatedSelects() {
+
+        // setup
+        StatementStatistics statistics = StatementRecorder.start();
+
+        // exercise
+        for (int i = 0; i < 3; i++) {
+            statementRecorder.inspect(SELECT);
+            statementRecorder.inspect(UPDATE);
+        }
+
+        // verify
+        assertEquals(Collections.singletonMap(SELECT, 3), statistics.getRepeatedSelects(3));
+        assertTrue(statistics.getRepeatedSelects(4).isEmpty());
+    }
+}
@@ -0,0 +1,219 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaAccountDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaIdempotencyDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaLedgerDao;
+import io.codeforall.bootcamp.javabank.persistence.jpa.JpaIntegrationTestHelper;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class AccountServiceImplIntegrationTest extends JpaIntegrationTestHelper {
+
+    private AccountServiceImpl accountService;
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+
+        accountService = newAccountService();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    public void testDepositIdempotentStatements() {
+
+        // setup
+        em.getTransaction().begin();
+        accountService.deposit(1, 5000, "key");
+        em.getTransaction().commit();
+        long firstStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+
+        // exercise
+        em.getTransaction().begin();
+        accountService.deposit(1, 5000, "key");
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("Deposit should also look up and insert its key", 5, firstStatements);
+        assertEquals("Retry should be answered from memory", 0, statistics.getPrepareStatementCount());
+        assertEquals("Balance is wrong", 15000, em.find(Account.class, 1).getBalance());
+    }
+
+    @Test
+    public void testDepositStatements() {
+
+        // exercise
+        em.getTransaction().begin();
+        accountService.deposit(1, 5000);
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("Only the account should be loaded", 1, statistics.getEntityLoadCount());
+        assertEquals("No collections should be fetched", 0, statistics.getCollectionFetchCount());
+        assertEquals("Deposit should select and update the account and insert its entry", 3, statistics.getPrepareStatementCount());
+        assertEquals("Balance is wrong", 15000, em.find(Account.class, 1).getBalance());
+    }
+
+    @Test
+    public void testTransferStatements() {
+
+        // exercise
+        em.getTransaction().begin();
+        accountService.transfer(1, 3, 5000);
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("Only the two accounts should be loaded", 2, statistics.getEntityLoadCount());
+        assertEquals("No collections should be fetched", 0, statistics.getCollectionFetchCount());
+        assertEquals("Transfer should select both accounts and batch both updates and both entries", 4, statistics.getPrepareStatementCount());
+        assertEquals("Source balance is wrong", 5000, em.find(Account.class, 1).getBalance());
+        assertEquals("Destination balance is wrong", 6000, em.find(Account.class, 3).getBalance());
+    }
+
+    @Test
+    public void testAtomicTransferStatements() {
+
+        // setup
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+
+        // exercise
+        em.getTransaction().begin();
+        accountService.transfer(1, 3, 5000);
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("No accounts should be loaded", 0, statistics.getEntityLoadCount());
+        assertEquals("Transfer should lock and update both accounts and batch both entries", 4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPessimisticTransferStatements() {
+
+        // setup
+        accountService.setConcurrencyMode(ConcurrencyMode.PESSIMISTIC);
+
+        // exercise
+        em.getTransaction().begin();
+        accountService.transfer(3, 1, 500);
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("Only the two accounts should be loaded", 2, statistics.getEntityLoadCount());
+        assertEquals("Transfer should lock both accounts and batch both updates and both entries", 4, statistics.getPrepareStatementCount());
+        assertEquals("Source balance is wrong", 500, em.find(Account.class, 3).getBalance());
+        assertEquals("Destination balance is wrong", 10500, em.find(Account.class, 1).getBalance());
+    }
+
+    @Test
+    public void testTransferBatchStatements() {
+
+        // setup
+        List<TransferRequest> requests = Arrays.asList(
+                new TransferRequest(1, 3, 1000),
+                new TransferRequest(3, 5, 1500),
+                new TransferRequest(5, 1, 500),
+                new TransferRequest(3, 1, 100000));
+
+        // exercise
+        em.getTransaction().begin();
+        List<TransferResult> results = accountService.transferBatch(requests);
+        em.getTransaction().commit();
+
+        // verify
+        assertEquals("Transfer should be rejected", TransferStatus.INSUFFICIENT_FUNDS, results.get(3).getStatus());
+        assertEquals("Only the three accounts should be loaded", 3, statistics.getEntityLoadCount());
+        assertEquals("Batch should find the sources with slots, select all accounts at once " +
+                "and batch the updates and the entries", 4, statistics.getPrepareStatementCount());
+        assertEquals("Balance is wrong", 9500, em.find(Account.class, 1).getBalance());
+        assertEquals("Balance is wrong", 500, em.find(Account.class, 3).getBalance());
+        assertEquals("Balance is wrong", 3050, em.find(Account.class, 5).getBalance());
+    }
+
+    @Test
+    public void testWithdrawMadeHotElsewhere() {
+
+        // setup
+        AccountServiceImpl otherInstance = newAccountService();
+        em.getTransaction().begin();
+        otherInstance.makeHot(1);
+        otherInstance.deposit(1, 5000);
+        em.getTransaction().commit();
+        em.clear();
+
+        // read again, as after a restart
+        accountService.loadHotAccounts();
+
+        // exercise
+        em.getTransaction().begin();
+        accountService.withdraw(1, 12000);
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        assertEquals("Balance is wrong", 3000, accountService.get(1).getBalance());
+    }
+
+    @Test
+    public void testAtomicTransferMadeHotElsewhere() {
+
+        // setup
+        AccountServiceImpl otherInstance = newAccountService();
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        em.getTransaction().begin();
+        otherInstance.makeHot(1);
+        otherInstance.deposit(1, 5000);
+        em.getTransaction().commit();
+        em.clear();
+
+        // read again, as after a restart
+        accountService.loadHotAccounts();
+
+        // exercise
+        em.getTransaction().begin();
+        accountService.transfer(1, 3, 12000);
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        assertEquals("Source balance is wrong", 3000, accountService.get(1).getBalance());
+        assertEquals("Destination balance is wrong", 13000, accountService.get(3).getBalance());
+    }
+
+    // each instance reads the hot accounts once, as a separate application instance would
+    private AccountServiceImpl newAccountService() {
+
+        JpaAccountDao accountDao = new JpaAccountDao();
+        accountDao.setEm(em);
+
+        AccountServiceImpl accountService = new AccountServiceImpl();
+        JpaLedgerDao ledgerDao = new JpaLedgerDao();
+        ledgerDao.setEm(em);
+
+        accountService.setAccountDao(accountDao);
+        accountService.setLedgerDao(ledgerDao);
+
+        JpaIdempotencyDao idempotencyDao = new JpaIdempotencyDao();
+        idempotencyDao.setEm(em);
+        accountService.setIdempotencyDao(idempotencyDao);
+        accountService.setIdempotencyCache(new IdempotencyCache());
+
+        // transactions are begun and committed by the tests
+        accountService.setTransactionManager(mock(PlatformTransactionManager.class));
+        accountService.loadHotAccounts();
+        return accountService;
+    }
+}
@@ -1,23 +1,54 @@
 package io.codeforall.bootcamp.javabank.services;
 
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntryType;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Money;
+import io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount;
 import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.IdempotencyDao;
+import io.codeforall.bootcamp.javabank.persistence.model.account.IdempotencyRecord;
+import io.codeforall.bootcamp.javabank.persistence.dao.LedgerDao;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import static org.mockito.Mockito.*;
 
 public class AccountServiceImplTest {
 
     private AccountDao accountDao;
+    private LedgerDao ledgerDao;
+    private IdempotencyDao idempotencyDao;
     private AccountServiceImpl accountService;
 
     @Before
     public void setup() {
 
         accountDao = mock(AccountDao.class);
+        ledgerDao = mock(LedgerDao.class);
+        idempotencyDao = mock(IdempotencyDao.class);
         accountService = new AccountServiceImpl();
         accountService.setAccountDao(accountDao);
+        accountService.setLedgerDao(ledgerDao);
+        accountService.setIdempotencyDao(idempotencyDao);
+        accountService.setIdempotencyCache(new IdempotencyCache());
+        accountService.setTransactionManager(mock(PlatformTransactionManager.class));
     }
 
 
@@ -26,9 +57,10 @@ public class AccountServiceImplTest {
 
         // setup
         int fakeId = 1;
-        double amount = 100.5;
+        long amount = 10050;
         Account fakeAccount = mock(Account.class);
         when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
+        when(fakeAccount.canCredit(amount)).thenReturn(true);
 
         // exercise
         accountService.deposit(fakeId, amount);
@@ -36,6 +68,102 @@ public class AccountServiceImplTest {
         // verify
         verify(fakeAccount, times(1)).credit(amount);
         verify(accountDao, times(1)).saveOrUpdate(fakeAccount);
+        verify(ledgerDao, times(1)).append(argThat(entry ->
+                entry.getType() == LedgerEntryType.DEPOSIT && entry.getAmount() == amount));
+    }
+
+    @Test
+    public void testDepositAll() {
+
+        // setup
+        int fakeId = 1;
+        Account fakeAccount = mock(Account.class);
+        when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
+        when(fakeAccount.canCredit(300)).thenReturn(true);
+
+        // exercise
+        accountService.depositAll(fakeId, Arrays.asList(100L, -50L, 200L));
+
+        // verify
+        verify(fakeAccount, times(1)).credit(300);
+        verify(accountDao, times(1)).saveOrUpdate(fakeAccount);
+        verify(ledgerDao, times(1)).append(argThat(entry ->
+                entry.getType() == LedgerEntryType.DEPOSIT && entry.getAmount() == 100));
+        verify(ledgerDao, times(1)).append(argThat(entry ->
+                entry.getType() == LedgerEntryType.DEPOSIT && entry.getAmount() == 200));
+        verify(ledgerDao, times(2)).append(any(LedgerEntry.class));
+    }
+
+    @Test
+    public void testDepositIdempotent() {
+
+        // setup
+        int fakeId = 1;
+        long amount = 10050;
+        Account fakeAccount = mock(Account.class);
+        when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
+        when(fakeAccount.canCredit(amount)).thenReturn(true);
+
+        // exercise
+        accountService.deposit(fakeId, amount, "key");
+        accountService.deposit(fakeId, amount, "key");
+
+        // verify
+        verify(fakeAccount, times(1)).credit(amount);
+        verify(idempotencyDao, times(1)).findByKey("key");
+        verify(idempotencyDao, times(1)).insert(argThat(record ->
+                record.getKey().equals("key") && record.getFingerprint().equals("deposit:1:10050")));
+    }
+
+    @Test
+    public void testIdempotencyRetention() {
+
+        // setup
+        long before = System.currentTimeMillis();
+        accountService.setIdempotencyRetention(60000);
+        when(accountDao.credit(1, 100)).thenReturn(true);
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+
+        // exercise
+        accountService.deposit(1, 100, "key");
+
+        // verify
+        verify(idempotencyDao, times(1)).insert(argThat(record ->
+                record.getExpirationTime().getTime() >= before + 60000 &&
+                        record.getExpirationTime().getTime() <= System.currentTimeMillis() + 60000));
+    }
+
+    @Test
+    public void testDepositKnownKey() {
+
+        // setup
+        when(idempotencyDao.findByKey("key")).thenReturn(new IdempotencyRecord("key", "deposit:1:10050", new Date()));
+
+        // exercise
+        accountService.deposit(1, 10050, "key");
+
+        // verify
+        verifyZeroInteractions(accountDao, ledgerDao);
+        verify(idempotencyDao, never()).insert(any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTransferKeyReused() {
+
+        // setup
+        when(idempotencyDao.findByKey("key")).thenReturn(new IdempotencyRecord("key", "transfer:1:2:100", new Date()));
+
+        // exercise
+        accountService.transfer(1, 2, 200, "key");
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithdrawInvalidKey() {
+
+        // exercise
+        accountService.withdraw(1, 100, "");
+
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -54,10 +182,11 @@ public class AccountServiceImplTest {
 
         // setup
         int fakeId = 1;
-        double amount = 100.5;
+        long amount = 10050;
         Account fakeAccount = mock(Account.class);
         when(accountDao.findById(fakeId)).thenReturn(fakeAccount);
         when(fakeAccount.canWithdraw()).thenReturn(true);
+        when(fakeAccount.canDebit(amount)).thenReturn(true);
 
         // exercise
         accountService.withdraw(fakeId, amount);
@@ -65,6 +194,8 @@ public class AccountServiceImplTest {
         // verify
         verify(fakeAccount, times(1)).debit(amount);
         verify(accountDao, times(1)).saveOrUpdate(fakeAccount);
+        verify(ledgerDao, times(1)).append(argThat(entry ->
+                entry.getType() == LedgerEntryType.WITHDRAWAL && entry.getAmount() == -amount));
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -74,7 +205,7 @@ public class AccountServiceImplTest {
         when(accountDao.findById(anyInt())).thenReturn(null);
 
         // exercise
-        accountService.withdraw(1, 100);
+        accountService.withdraw(1, 10000);
 
     }
 
@@ -84,13 +215,13 @@ public class AccountServiceImplTest {
         // setup
         int fakeSrcId = 9998;
         int fakeDstId = 9999;
-        double amount = 100.5;
+        long amount = 10050;
         Account fakeSrcAccount = mock(Account.class);
         Account fakeDstAccount = mock(Account.class);
         when(accountDao.findById(fakeSrcId)).thenReturn(fakeSrcAccount);
         when(accountDao.findById(fakeDstId)).thenReturn(fakeDstAccount);
-        when(fakeSrcAccount.canDebit(anyDouble())).thenReturn(true);
-        when(fakeDstAccount.canCredit(anyDouble())).thenReturn(true);
+        when(fakeSrcAccount.canDebit(anyLong())).thenReturn(true);
+        when(fakeDstAccount.canCredit(anyLong())).thenReturn(true);
 
         // exercise
         accountService.transfer(fakeSrcId, fakeDstId, amount);
@@ -102,6 +233,10 @@ public class AccountServiceImplTest {
         verify(fakeDstAccount, times(1)).canCredit(amount);
         verify(fakeSrcAccount, times(1)).debit(amount);
         verify(fakeDstAccount, times(1)).credit(amount);
+        verify(ledgerDao, times(1)).append(argThat(entry -> entry.getType() == LedgerEntryType.TRANSFER_OUT &&
+                entry.getAccountId() == fakeSrcId && entry.getCounterpartId() == fakeDstId && entry.getAmount() == -amount));
+        verify(ledgerDao, times(1)).append(argThat(entry -> entry.getType() == LedgerEntryType.TRANSFER_IN &&
+                entry.getAccountId() == fakeDstId && entry.getCounterpartId() == fakeSrcId && entry.getAmount() == amount));
     }
 
     @Test
@@ -110,13 +245,13 @@ public class AccountServiceImplTest {
         // setup
         int fakeSrcId = 9998;
         int fakeDstId = 9999;
-        double amount = 100.5;
+        long amount = 10050;
         Account fakeSrcAccount = mock(Account.class);
         Account fakeDstAccount = mock(Account.class);
         when(accountDao.findById(fakeSrcId)).thenReturn(fakeSrcAccount);
         when(accountDao.findById(fakeDstId)).thenReturn(fakeDstAccount);
-        when(fakeSrcAccount.canDebit(anyDouble())).thenReturn(false);
-        when(fakeDstAccount.canCredit(anyDouble())).thenReturn(true);
+        when(fakeSrcAccount.canDebit(anyLong())).thenReturn(false);
+        when(fakeDstAccount.canCredit(anyLong())).thenReturn(true);
 
         // exercise
         accountService.transfer(fakeSrcId, fakeDstId, amount);
@@ -133,13 +268,13 @@ public class AccountServiceImplTest {
         // setup
         int fakeSrcId = 9998;
         int fakeDstId = 9999;
-        double amount = 100.5;
+        long amount = 10050;
         Account fakeSrcAccount = mock(Account.class);
         Account fakeDstAccount = mock(Account.class);
         when(accountDao.findById(fakeSrcId)).thenReturn(fakeSrcAccount);
         when(accountDao.findById(fakeDstId)).thenReturn(fakeDstAccount);
-        when(fakeSrcAccount.canDebit(anyDouble())).thenReturn(true);
-        when(fakeDstAccount.canCredit(anyDouble())).thenReturn(false);
+        when(fakeSrcAccount.canDebit(anyLong())).thenReturn(true);
+        when(fakeDstAccount.canCredit(anyLong())).thenReturn(false);
 
         // exercise
         accountService.transfer(fakeSrcId, fakeDstId, amount);
@@ -156,7 +291,7 @@ public class AccountServiceImplTest {
         // setup
         int fakeSrcId = 9998;
         int fakeDstId = 9999;
-        double amount = 100.5;
+        long amount = 10050;
         Account fakeDstAccount = mock(Account.class);
         when(accountDao.findById(fakeSrcId)).thenReturn(null);
         when(accountDao.findById(fakeDstId)).thenReturn(fakeDstAccount);
@@ -171,7 +306,7 @@ public class AccountServiceImplTest {
         // setup
         int fakeSrcId = 9998;
         int fakeDstId = 9999;
-        double amount = 100.5;
+        long amount = 10050;
         Account fakeSrcAccount = mock(Account.class);
         when(accountDao.findById(fakeSrcId)).thenReturn(fakeSrcAccount);
         when(accountDao.findById(fakeDstId)).thenReturn(null);
@@ -179,4 +314,500 @@ public class AccountServiceImplTest {
         // exercise
         accountService.transfer(fakeSrcId, fakeDstId, amount);
     }
+
+    @Test
+    public void testDepositAtomic() {
+
+        // setup
+        int fakeId = 1;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.credit(fakeId, amount)).thenReturn(true);
+
+        // exercise
+        accountService.deposit(fakeId, amount);
+
+        // verify
+        verify(accountDao, times(1)).credit(fakeId, amount);
+        verify(accountDao, never()).findById(anyInt());
+        verify(accountDao, never()).saveOrUpdate(any(Account.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDepositAtomicInvalidAccount() {
+
+        // setup
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.credit(anyInt(), anyLong())).thenReturn(false);
+        when(accountDao.findById(anyInt())).thenReturn(null);
+
+        // exercise
+        accountService.deposit(1, 100);
+    }
+
+    @Test
+    public void testWithdrawAtomic() {
+
+        // setup
+        int fakeId = 1;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.withdraw(fakeId, amount)).thenReturn(true);
+
+        // exercise
+        accountService.withdraw(fakeId, amount);
+
+        // verify
+        verify(accountDao, times(1)).withdraw(fakeId, amount);
+        verify(accountDao, never()).findById(anyInt());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithdrawAtomicInvalidAccountType() {
+
+        // setup
+        int fakeId = 1;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.withdraw(anyInt(), anyLong())).thenReturn(false);
+        when(accountDao.findById(fakeId)).thenReturn(new SavingsAccount());
+
+        // exercise
+        accountService.withdraw(fakeId, 10000);
+    }
+
+    @Test
+    public void testWithdrawAtomicInsufficientFunds() {
+
+        // setup
+        int fakeId = 1;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.withdraw(fakeId, amount)).thenReturn(false);
+        when(accountDao.findById(fakeId)).thenReturn(new CheckingAccount());
+
+        // exercise
+        accountService.withdraw(fakeId, amount);
+
+        // verify
+        verify(accountDao, times(1)).findById(fakeId);
+    }
+
+    @Test
+    public void testTransferAtomic() {
+
+        // setup
+        int fakeSrcId = 9998;
+        int fakeDstId = 9999;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.debit(fakeSrcId, amount)).thenReturn(true);
+        when(accountDao.credit(fakeDstId, amount)).thenReturn(true);
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+
+        // verify
+        verify(accountDao, times(1)).debit(fakeSrcId, amount);
+        verify(accountDao, times(1)).credit(fakeDstId, amount);
+        verify(accountDao, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testTransferAtomicDebitNotPossible() {
+
+        // setup
+        int fakeSrcId = 9998;
+        int fakeDstId = 9999;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.debit(fakeSrcId, amount)).thenReturn(false);
+        when(accountDao.findById(fakeSrcId)).thenReturn(new CheckingAccount());
+        when(accountDao.findById(fakeDstId)).thenReturn(new CheckingAccount());
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+
+        // verify
+        verify(accountDao, never()).credit(anyInt(), anyLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTransferAtomicInvalidDstAccount() {
+
+        // setup
+        int fakeSrcId = 9998;
+        int fakeDstId = 9999;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.debit(fakeSrcId, amount)).thenReturn(true);
+        when(accountDao.credit(fakeDstId, amount)).thenReturn(false);
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+    }
+
+    @Test
+    public void testTransferAtomicLocksFirst() {
+
+        // setup
+        int fakeSrcId = 9999;
+        int fakeDstId = 9998;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.debit(fakeSrcId, amount)).thenReturn(true);
+        when(accountDao.credit(fakeDstId, amount)).thenReturn(true);
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+
+        // verify
+        InOrder inOrder = inOrder(accountDao);
+        inOrder.verify(accountDao).lockAll(Arrays.asList(fakeSrcId, fakeDstId));
+        inOrder.verify(accountDao).debit(fakeSrcId, amount);
+        inOrder.verify(accountDao).credit(fakeDstId, amount);
+    }
+
+    @Test
+    public void testTransferAtomicDstFirstDebitNotPossible() {
+
+        // setup
+        int fakeSrcId = 9999;
+        int fakeDstId = 9998;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.debit(fakeSrcId, amount)).thenReturn(false);
+        when(accountDao.findById(fakeSrcId)).thenReturn(new CheckingAccount());
+        when(accountDao.findById(fakeDstId)).thenReturn(new CheckingAccount());
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+
+        // verify
+        verify(accountDao, never()).credit(anyInt(), anyLong());
+    }
+
+    @Test
+    public void testDepositPessimistic() {
+
+        // setup
+        int fakeId = 1;
+        long amount = 10050;
+        Account fakeAccount = mock(Account.class);
+        accountService.setConcurrencyMode(ConcurrencyMode.PESSIMISTIC);
+        when(accountDao.findByIdForUpdate(fakeId)).thenReturn(fakeAccount);
+        when(fakeAccount.canCredit(amount)).thenReturn(true);
+
+        // exercise
+        accountService.deposit(fakeId, amount);
+
+        // verify
+        verify(fakeAccount, times(1)).credit(amount);
+        verify(accountDao, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testTransferPessimistic() {
+
+        // setup
+        int fakeSrcId = 9999;
+        int fakeDstId = 9998;
+        long amount = 10050;
+        Account fakeSrcAccount = mock(Account.class);
+        Account fakeDstAccount = mock(Account.class);
+        accountService.setConcurrencyMode(ConcurrencyMode.PESSIMISTIC);
+        when(accountDao.findByIdForUpdate(fakeSrcId)).thenReturn(fakeSrcAccount);
+        when(accountDao.findByIdForUpdate(fakeDstId)).thenReturn(fakeDstAccount);
+        when(fakeSrcAccount.canDebit(anyLong())).thenReturn(true);
+        when(fakeDstAccount.canCredit(anyLong())).thenReturn(true);
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+
+        // verify
+        InOrder lockOrder = inOrder(accountDao);
+        lockOrder.verify(accountDao).findByIdForUpdate(fakeDstId);
+        lockOrder.verify(accountDao).findByIdForUpdate(fakeSrcId);
+        verify(fakeSrcAccount, times(1)).debit(amount);
+        verify(fakeDstAccount, times(1)).credit(amount);
+        verify(accountDao, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testTransferPessimisticDebitNotPossible() {
+
+        // setup
+        int fakeSrcId = 9998;
+        int fakeDstId = 9999;
+        long amount = 10050;
+        Account fakeSrcAccount = mock(Account.class);
+        Account fakeDstAccount = mock(Account.class);
+        accountService.setConcurrencyMode(ConcurrencyMode.PESSIMISTIC);
+        when(accountDao.findByIdForUpdate(fakeSrcId)).thenReturn(fakeSrcAccount);
+        when(accountDao.findByIdForUpdate(fakeDstId)).thenReturn(fakeDstAccount);
+        when(fakeSrcAccount.canDebit(anyLong())).thenReturn(false);
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+
+        // verify
+        verify(fakeSrcAccount, never()).debit(anyLong());
+        verify(fakeDstAccount, never()).credit(anyLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTransferPessimisticInvalidSrcAccount() {
+
+        // setup
+        accountService.setConcurrencyMode(ConcurrencyMode.PESSIMISTIC);
+        when(accountDao.findByIdForUpdate(9999)).thenReturn(mock(Account.class));
+
+        // exercise
+        accountService.transfer(9998, 9999, 10050);
+    }
+
+    @Test
+    public void testMakeHot() {
+
+        // setup
+        int fakeId = 9999;
+        long amount = 10050;
+        when(accountDao.createSlots(fakeId, AccountServiceImpl.DEFAULT_HOT_SLOTS)).thenReturn(true);
+        when(accountDao.creditSlot(eq(fakeId), anyInt(), eq(amount))).thenReturn(true);
+
+        // exercise
+        accountService.makeHot(fakeId);
+        accountService.deposit(fakeId, amount);
+
+        // verify
+        verify(accountDao, times(1)).createSlots(fakeId, AccountServiceImpl.DEFAULT_HOT_SLOTS);
+        verify(accountDao, times(1)).creditSlot(eq(fakeId), anyInt(), eq(amount));
+        verify(accountDao, never()).credit(anyInt(), anyLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMakeHotInvalidAccount() {
+
+        // setup
+        when(accountDao.createSlots(anyInt(), anyInt())).thenReturn(false);
+
+        // exercise
+        accountService.makeHot(9999);
+    }
+
+    @Test
+    public void testDepositHot() {
+
+        // setup
+        int fakeId = 9999;
+        long amount = 10050;
+        accountService.setHotSlots(4);
+        when(accountDao.findHotIds()).thenReturn(Collections.singletonList(fakeId));
+        when(accountDao.creditSlot(eq(fakeId), anyInt(), eq(amount))).thenReturn(true);
+
+        // exercise
+        accountService.deposit(fakeId, amount);
+
+        // verify
+        verify(accountDao, times(1)).creditSlot(eq(fakeId), intThat(slot -> slot >= 0 && slot < 4), eq(amount));
+        verify(accountDao, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testTransferHotConsolidates() {
+
+        // setup
+        int fakeSrcId = 9998;
+        int fakeDstId = 9999;
+        long amount = 10050;
+        when(accountDao.findHotIds()).thenReturn(Collections.singletonList(fakeSrcId));
+        when(accountDao.debit(fakeSrcId, amount)).thenReturn(false, true);
+        when(accountDao.consolidateSlots(fakeSrcId)).thenReturn(amount);
+        when(accountDao.credit(fakeDstId, amount)).thenReturn(true);
+
+        // exercise
+        accountService.transfer(fakeSrcId, fakeDstId, amount);
+
+        // verify
+        InOrder order = inOrder(accountDao);
+        order.verify(accountDao).debit(fakeSrcId, amount);
+        order.verify(accountDao).consolidateSlots(fakeSrcId);
+        order.verify(accountDao).debit(fakeSrcId, amount);
+        order.verify(accountDao).credit(fakeDstId, amount);
+        verify(accountDao, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testWithdrawHotInsufficientFunds() {
+
+        // setup
+        int fakeId = 9999;
+        long amount = 10050;
+        when(accountDao.findHotIds()).thenReturn(Collections.singletonList(fakeId));
+        when(accountDao.withdraw(fakeId, amount)).thenReturn(false);
+        when(accountDao.consolidateSlots(fakeId)).thenReturn(Money.ZERO);
+        when(accountDao.findById(fakeId)).thenReturn(new CheckingAccount());
+
+        // exercise
+        accountService.withdraw(fakeId, amount);
+
+        // verify
+        verify(accountDao, times(1)).withdraw(fakeId, amount);
+        verify(accountDao, times(1)).consolidateSlots(fakeId);
+    }
+
+    @Test
+    public void testWithdrawNotHotInsufficientFunds() {
+
+        // setup
+        int fakeId = 9999;
+        long amount = 10050;
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.withdraw(fakeId, amount)).thenReturn(false);
+        when(accountDao.findById(fakeId)).thenReturn(new CheckingAccount());
+
+        // exercise
+        accountService.withdraw(fakeId, amount);
+
+        // verify
+        verify(accountDao, times(1)).withdraw(fakeId, amount);
+        verify(accountDao, never()).consolidateSlots(anyInt());
+    }
+
+    @Test
+    public void testMakeHotRolledBack() {
+
+        // setup
+        int fakeId = 9999;
+        when(accountDao.createSlots(eq(fakeId), anyInt())).thenReturn(true);
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.creditSlot(eq(fakeId), anyInt(), anyLong())).thenReturn(true);
+        when(accountDao.credit(fakeId, 100)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // exercise
+        try {
+            accountService.makeHot(fakeId);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        accountService.deposit(fakeId, 100);
+
+        // verify
+        verify(accountDao, never()).creditSlot(anyInt(), anyInt(), anyLong());
+        verify(accountDao, times(1)).credit(fakeId, 100);
+    }
+
+    @Test
+    public void testTransferDebitNotPossibleNotRecorded() {
+
+        // setup
+        accountService.setConcurrencyMode(ConcurrencyMode.ATOMIC);
+        when(accountDao.debit(9998, 10050)).thenReturn(false);
+        when(accountDao.findById(anyInt())).thenReturn(new CheckingAccount());
+
+        // exercise
+        accountService.transfer(9998, 9999, 10050);
+
+        // verify
+        verify(ledgerDao, never()).append(any());
+    }
+
+    @Test
+    public void testGetHistory() {
+
+        // setup
+        int fakeId = 9999;
+        List<LedgerEntry> fakeEntries = Collections.singletonList(LedgerEntry.deposit(fakeId, 100));
+        when(ledgerDao.findHistory(fakeId, null, 10)).thenReturn(fakeEntries);
+
+        // exercise
+        List<LedgerEntry> entries = accountService.getHistory(fakeId, null, 10);
+
+        // verify
+        verify(ledgerDao, times(1)).findHistory(fakeId, null, 10);
+        assertEquals(fakeEntries, entries);
+    }
+
+    @Test
+    public void testTransferBatch() {
+
+        // setup
+        Account checking = new CheckingAccount();
+        checking.setId(1);
+        checking.credit(10000);
+        Account savings = new SavingsAccount();
+        savings.setId(2);
+        savings.credit(SavingsAccount.MIN_BALANCE + 1000);
+        when(accountDao.findByIds(anyCollection())).thenReturn(Arrays.asList(checking, savings));
+
+        List<TransferRequest> requests = Arrays.asList(
+                new TransferRequest(1, 2, 6000),
+                new TransferRequest(1, 2, 6000),
+                new TransferRequest(2, 1, 8000),
+                new TransferRequest(1, 9999, 100),
+                new TransferRequest(2, 1, -100),
+                new TransferRequest(2, 1, 7000));
+
+        // exercise
+        List<TransferResult> results = accountService.transferBatch(requests);
+
+        // verify
+        assertEquals(requests.size(), results.size());
+        assertEquals(TransferStatus.APPLIED, results.get(0).getStatus());
+        assertEquals(TransferStatus.INSUFFICIENT_FUNDS, results.get(1).getStatus());
+        assertEquals(TransferStatus.MINIMUM_BALANCE, results.get(2).getStatus());
+        assertEquals(TransferStatus.INVALID_ACCOUNT, results.get(3).getStatus());
+        assertEquals(TransferStatus.INVALID_AMOUNT, results.get(4).getStatus());
+        assertEquals(TransferStatus.APPLIED, results.get(5).getStatus());
+        assertSame(requests.get(5), results.get(5).getRequest());
+        assertEquals(11000, checking.getBalance());
+        assertEquals(SavingsAccount.MIN_BALANCE, savings.getBalance());
+        verify(accountDao, times(1)).findByIds(new TreeSet<>(Arrays.asList(1, 2, 9999)));
+        verify(accountDao, never()).lockAll(anyCollection());
+        verify(accountDao, never()).findById(anyInt());
+        verify(ledgerDao, times(4)).append(any(LedgerEntry.class));
+    }
+
+    @Test
+    public void testTransferBatchChunks() {
+
+        // setup
+        accountService.setTransferChunkSize(2);
+        accountService.setConcurrencyMode(ConcurrencyMode.PESSIMISTIC);
+        List<TransferRequest> requests = Arrays.asList(
+                new TransferRequest(3, 1, 100),
+                new TransferRequest(2, 1, 100),
+                new TransferRequest(5, 4, 100));
+
+        // exercise
+        List<TransferResult> results = accountService.transferBatch(requests);
+
+        // verify
+        assertEquals(3, results.size());
+        InOrder order = inOrder(accountDao);
+        order.verify(accountDao).lockAll(new TreeSet<>(Arrays.asList(1, 2, 3)));
+        order.verify(accountDao).findByIds(anyCollection());
+        order.verify(accountDao).lockAll(new TreeSet<>(Arrays.asList(4, 5)));
+        order.verify(accountDao).findByIds(anyCollection());
+    }
+
+    @Test
+    public void testTransferBatchConflict() {
+
+        // setup
+        List<TransferRequest> requests = Arrays.asList(new TransferRequest(1, 2, 100), new TransferRequest(2, 1, 100));
+        when(accountDao.findByIds(anyCollection())).thenThrow(new ObjectOptimisticLockingFailureException("account", 1));
+
+        // exercise
+        List<TransferResult> results = accountService.transferBatch(requests);
+
+        // verify
+        assertEquals(2, results.size());
+        assertEquals(TransferStatus.CONFLICT, results.get(0).getStatus());
+        assertEquals(TransferStatus.CONFLICT, results.get(1).getStatus());
+    }
 }
@@ -0,0 +1,372 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncAccountServiceTest {
+
+    private AccountService accountService;
+    private AsyncAccountService asyncAccountService;
+
+    @Before
+    public void setup() {
+
+        accountService = mock(AccountService.class);
+
+        asyncAccountService = new AsyncAccountService();
+        asyncAccountService.setAccountService(accountService);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        asyncAccountService.shutdown();
+    }
+
+    @Test
+    public void testTransfer() throws Exception {
+
+        // setup
+        asyncAccountService.start();
+
+        // exercise
+        asyncAccountService.transfer(1, 2, 100, "key").get(5, TimeUnit.SECONDS);
+
+        // verify
+        verify(accountService, times(1)).transfer(1, 2, 100, "key");
+        assertEquals(1, asyncAccountService.getSubmitted());
+        assertEquals(1, asyncAccountService.getCompleted());
+    }
+
+    @Test
+    public void testOrderPerAccount() throws Exception {
+
+        // setup
+        asyncAccountService.setPartitions(4);
+        asyncAccountService.start();
+        List<Long> amounts = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> amounts.add(invocation.getArgument(1)))
+                .when(accountService).deposit(eq(1), anyLong(), isNull());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // exercise
+        for (long amount = 1; amount <= 100; amount++) {
+            futures.add(asyncAccountService.deposit(1, amount, null));
+            futures.add(asyncAccountService.withdraw(2, amount, null));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // verify
+        assertEquals(100, amounts.size());
+
+        for (int i = 0; i < amounts.size(); i++) {
+            assertEquals("Deposits should be applied in order", i + 1, amounts.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testTransferHoldsBothPartitions() throws Exception {
+
+        // setup
+        asyncAccountService.setPartitions(2);
+        asyncAccountService.start();
+        int srcId = 1;
+        int dstId = 2;
+
+        while (asyncAccountService.partition(dstId) == asyncAccountService.partition(srcId)) {
+            dstId++;
+        }
+
+        int fakeDstId = dstId;
+
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            return null;
+        }).when(accountService).deposit(fakeDstId, 100, null);
+
+        CompletableFuture<Void> deposit = asyncAccountService.deposit(fakeDstId, 100, null);
+        applying.await(5, TimeUnit.SECONDS);
+
+        // exercise
+        CompletableFuture<Void> transfer = asyncAccountService.transfer(srcId, fakeDstId, 100, null);
+
+        // verify
+        Thread.sleep(100);
+        verify(accountService, never()).transfer(anyInt(), anyInt(), anyLong(), any());
+
+        release.countDown();
+        CompletableFuture.allOf(deposit, transfer).get(5, TimeUnit.SECONDS);
+        verify(accountService, times(1)).transfer(srcId, fakeDstId, 100, null);
+    }
+
+    @Test
+    public void testTransferOrderedWithLaterMovements() throws Exception {
+
+        // setup
+        asyncAccountService.setPartitions(2);
+        asyncAccountService.start();
+        int srcId = idInPartition(0);
+        int dstId = idInPartition(1);
+        CountDownLatch release = block(srcId);
+
+        // exercise
+        CompletableFuture<Void> transfer = asyncAccountService.transfer(srcId, dstId, 100, null);
+        CompletableFuture<Void> withdraw = asyncAccountService.withdraw(dstId, 100, null);
+
+        // verify
+        Thread.sleep(100);
+        verify(accountService, never()).withdraw(anyInt(), anyLong(), any());
+
+        release.countDown();
+        CompletableFuture.allOf(transfer, withdraw).get(5, TimeUnit.SECONDS);
+        InOrder inOrder = inOrder(accountService);
+        inOrder.verify(accountService).transfer(srcId, dstId, 100, null);
+        inOrder.verify(accountService).withdraw(dstId, 100, null);
+    }
+
+    @Test
+    public void testShutdownTimeout() throws Exception {
+
+        // setup
+        asyncAccountService.setPartitions(2);
+        asyncAccountService.setShutdownTimeout(100);
+        asyncAccountService.start();
+        int srcId = idInPartition(0);
+        int dstId = idInPartition(1);
+        CountDownLatch release = block(srcId);
+        CompletableFuture<Void> transfer = asyncAccountService.transfer(srcId, dstId, 100, null);
+        CompletableFuture<Void> withdraw = asyncAccountService.withdraw(dstId, 100, null);
+
+        // exercise
+        asyncAccountService.shutdown();
+
+        // verify
+        try {
+            transfer.get(5, TimeUnit.SECONDS);
+            fail("Transfer should be failed");
+
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+
+        assertTrue("Withdrawal should be failed", withdraw.isCompletedExceptionally());
+        release.countDown();
+        verify(accountService, never()).transfer(anyInt(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    public void testSingleWriter() throws Exception {
+
+        // setup
+        int accounts = 8;
+        asyncAccountService.setPartitions(4);
+        asyncAccountService.start();
+        Map<Integer, AtomicInteger> writers = new ConcurrentHashMap<>();
+        AtomicInteger maxWriters = new AtomicInteger();
+
+        doAnswer(invocation -> {
+
+            List<AtomicInteger> changed = Arrays.asList(
+                    writers.computeIfAbsent(invocation.getArgument(0), id -> new AtomicInteger()),
+                    writers.computeIfAbsent(invocation.getArgument(1), id -> new AtomicInteger()));
+
+            for (AtomicInteger counter : changed) {
+                maxWriters.accumulateAndGet(counter.incrementAndGet(), Math::max);
+            }
+
+            Thread.sleep(1);
+            changed.forEach(AtomicInteger::decrementAndGet);
+            return null;
+
+        }).when(accountService).transfer(anyInt(), anyInt(), anyLong(), any());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // exercise
+        for (int i = 0; i < 200; i++) {
+            int srcId = 1 + i % accounts;
+            int dstId = 1 + (i * 3 + 1) % accounts;
+            futures.add(asyncAccountService.transfer(srcId, dstId, 100, null));
+            futures.add(asyncAccountService.transfer(dstId, srcId, 100, null));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        // verify
+        assertEquals("Accounts should only be changed by one thread at a time", 1, maxWriters.get());
+        verify(accountService, times(400)).transfer(anyInt(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+
+        // setup
+        asyncAccountService.start();
+        doThrow(new IllegalArgumentException("invalid account type")).when(accountService).withdraw(1, 100, null);
+
+        // exercise
+        CompletableFuture<Void> future = asyncAccountService.withdraw(1, 100, null);
+
+        // verify
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Withdrawal should fail");
+
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testInvalidAccount() {
+
+        // setup
+        asyncAccountService.start();
+
+        // exercise
+        CompletableFuture<Void> future = asyncAccountService.deposit(null, 100, null);
+
+        // verify
+        assertTrue("Deposit should fail", future.isCompletedExceptionally());
+        verifyZeroInteractions(accountService);
+    }
+
+    @Test
+    public void testReject() throws Exception {
+
+        // setup
+        asyncAccountService.setPartitions(1);
+        asyncAccountService.setQueueCapacity(1);
+        asyncAccountService.start();
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            return null;
+        }).when(accountService).deposit(1, 100, null);
+
+        CompletableFuture<Void> first = asyncAccountService.deposit(1, 100, null);
+        applying.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> second = asyncAccountService.deposit(1, 200, null);
+
+        // exercise
+        CompletableFuture<Void> third = asyncAccountService.deposit(1, 300, null);
+
+        // verify
+        assertEquals(1, asyncAccountService.getQueueDepth());
+        assertTrue("Deposit should be rejected", third.isCompletedExceptionally());
+        assertEquals(1, asyncAccountService.getRejected());
+
+        try {
+            third.get();
+            fail("Deposit should be rejected");
+
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        verify(accountService, never()).deposit(1, 300, null);
+        assertTrue("Wait time should be measured", asyncAccountService.getMaxWaitTime() > 0);
+    }
+
+    @Test
+    public void testSubmitAfterShutdown() throws Exception {
+
+        // setup
+        asyncAccountService.setPartitions(2);
+        asyncAccountService.start();
+        asyncAccountService.shutdown();
+
+        // exercise
+        CompletableFuture<Void> transfer = asyncAccountService.transfer(idInPartition(0), idInPartition(1), 100, null);
+
+        // verify
+        assertTrue("Transfer should be rejected", transfer.isCompletedExceptionally());
+        assertEquals(1, asyncAccountService.getRejected());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+
+        // setup
+        asyncAccountService.setPartitions(1);
+        asyncAccountService.setQueueCapacity(1);
+        asyncAccountService.setBackpressurePolicy(BackpressurePolicy.BLOCK);
+        asyncAccountService.start();
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            return null;
+        }).when(accountService).deposit(1, 100, null);
+
+        asyncAccountService.deposit(1, 100, null);
+        applying.await(5, TimeUnit.SECONDS);
+        asyncAccountService.deposit(1, 200, null);
+
+        // exercise
+        CompletableFuture<CompletableFuture<Void>> blocked =
+                CompletableFuture.supplyAsync(() -> asyncAccountService.deposit(1, 300, null));
+
+        // verify
+        Thread.sleep(100);
+        assertFalse("Submission should wait for room in the queue", blocked.isDone());
+
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+        verify(accountService, times(1)).deposit(1, 300, null);
+        assertEquals(0, asyncAccountService.getRejected());
+    }
+
+    private int idInPartition(int partition) {
+
+        int id = 1;
+
+        while (asyncAccountService.partition(id) != partition) {
+            id++;
+        }
+
+        return id;
+    }
+
+    // keeps the worker of an account busy until released
+    private CountDownLatch block(int id) throws InterruptedException {
+
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            return null;
+        }).when(accountService).deposit(id, 1, null);
+
+        asyncAccountService.deposit(id, 1, null);
+        applying.await(5, TimeUnit.SECONDS);
+        return release;
+    }
+}
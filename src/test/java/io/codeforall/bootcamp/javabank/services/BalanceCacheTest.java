@@ -0,0 +1,205 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BalanceCacheTest {
+
+    private AccountDao accountDao;
+    private BalanceCache balanceCache;
+
+    @Before
+    public void setup() {
+
+        accountDao = mock(AccountDao.class);
+        when(accountDao.findBalancesByCustomer(1)).thenReturn(balances(10000, 5050));
+
+        balanceCache = new BalanceCache();
+        balanceCache.setAccountDao(accountDao);
+    }
+
+    @After
+    public void tearDown() {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testGetBalance() {
+
+        // exercise
+        Long first = balanceCache.getBalance(1);
+        Long second = balanceCache.getBalance(1);
+
+        // verify
+        assertEquals(Long.valueOf(15050), first);
+        assertEquals(Long.valueOf(15050), second);
+        verify(accountDao, times(1)).findBalancesByCustomer(1);
+        assertEquals(1, balanceCache.getHits());
+        assertEquals(1, balanceCache.getMisses());
+    }
+
+    @Test
+    public void testGetBalanceInvalidCustomer() {
+
+        // setup
+        when(accountDao.findBalancesByCustomer(9999)).thenReturn(null);
+
+        // exercise
+        Long balance = balanceCache.getBalance(9999);
+
+        // verify
+        assertNull(balance);
+        assertEquals(0, balanceCache.size());
+    }
+
+    @Test
+    public void testRecordOnCommit() {
+
+        // setup
+        balanceCache.getBalance(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // exercise
+        balanceCache.record(1, 500);
+        balanceCache.record(2, -50);
+        balanceCache.record(3, 1000);
+        long uncommitted = balanceCache.getBalance(1);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // verify
+        assertEquals("Uncommitted changes should not be seen", 15050, uncommitted);
+        assertEquals(Long.valueOf(15500), balanceCache.getBalance(1));
+        assertNull("Transaction changes should be released", TransactionSynchronizationManager.getResource(balanceCache));
+        verify(accountDao, times(1)).findBalancesByCustomer(1);
+    }
+
+    @Test
+    public void testRecordRollback() {
+
+        // setup
+        balanceCache.getBalance(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // exercise
+        balanceCache.record(1, 500);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // verify
+        assertEquals(Long.valueOf(15050), balanceCache.getBalance(1));
+        assertNull("Transaction changes should be released", TransactionSynchronizationManager.getResource(balanceCache));
+    }
+
+    @Test
+    public void testRecordUnknownOutcome() {
+
+        // setup
+        balanceCache.getBalance(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // exercise
+        balanceCache.record(1, 500);
+        complete(TransactionSynchronization.STATUS_UNKNOWN);
+        balanceCache.getBalance(1);
+
+        // verify
+        verify(accountDao, times(2)).findBalancesByCustomer(1);
+    }
+
+    @Test
+    public void testGetBalanceWhileCommitting() {
+
+        // setup
+        TransactionSynchronizationManager.initSynchronization();
+        balanceCache.record(1, 500);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+
+        // exercise
+        balanceCache.getBalance(1);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        balanceCache.getBalance(1);
+
+        // verify
+        verify(accountDao, times(2)).findBalancesByCustomer(1);
+        assertEquals(1, balanceCache.size());
+    }
+
+    @Test
+    public void testReconcile() {
+
+        // setup
+        when(accountDao.findBalancesByCustomer(2)).thenReturn(Collections.singletonMap(3, 1000L));
+        balanceCache.getBalance(1);
+        balanceCache.getBalance(2);
+        doReturn(balances(10000, 6000)).when(accountDao).findBalancesByCustomer(1);
+        doReturn(null).when(accountDao).findBalancesByCustomer(2);
+
+        // exercise
+        int repaired = balanceCache.reconcile();
+
+        // verify
+        assertEquals(1, repaired);
+        assertEquals(1, balanceCache.getRepairs());
+        assertEquals("Deleted customer should be forgotten", 1, balanceCache.size());
+        assertEquals(Long.valueOf(16000), balanceCache.getBalance(1));
+    }
+
+    @Test
+    public void testEvict() {
+
+        // setup
+        balanceCache.getBalance(1);
+
+        // exercise
+        balanceCache.evict(1);
+        balanceCache.record(1, 100);
+
+        // verify
+        assertEquals(0, balanceCache.size());
+        assertEquals(Long.valueOf(15050), balanceCache.getBalance(1));
+        assertEquals(2, balanceCache.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxCustomers() {
+        balanceCache.setMaxCustomers(0);
+    }
+
+    // account ids start at 1
+    private Map<Integer, Long> balances(long... amounts) {
+
+        Map<Integer, Long> balances = new HashMap<>();
+
+        for (int i = 0; i < amounts.length; i++) {
+            balances.put(i + 1, amounts[i]);
+        }
+
+        return balances;
+    }
+
+    private void complete(int status) {
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        if (status != TransactionSynchronization.STATUS_ROLLED_BACK) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        }
+
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,157 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaAccountDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaCustomerDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.jpa.JpaRecipientDao;
+import io.codeforall.bootcamp.javabank.persistence.jpa.JpaIntegrationTestHelper;
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
+import io.codeforall.bootcamp.javabank.persistence.statistics.StatementAssert;
+import io.codeforall.bootcamp.javabank.persistence.statistics.StatementStatistics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static io.codeforall.bootcamp.javabank.persistence.statistics.StatementAssert.assertMaxStatements;
+import static org.junit.Assert.*;
+
+public class CustomerServiceImplIntegrationTest extends JpaIntegrationTestHelper {
+
+    private CustomerServiceImpl customerService;
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+
+        JpaCustomerDao customerDao = new JpaCustomerDao();
+        customerDao.setEm(em);
+        JpaRecipientDao recipientDao = new JpaRecipientDao();
+        recipientDao.setEm(em);
+        JpaAccountDao accountDao = new JpaAccountDao();
+        accountDao.setEm(em);
+
+        customerService = new CustomerServiceImpl();
+        customerService.setCustomerDao(customerDao);
+        customerService.setRecipientDao(recipientDao);
+        customerService.setAccountDao(accountDao);
+
+        BalanceCache balanceCache = new BalanceCache();
+        balanceCache.setAccountDao(accountDao);
+        customerService.setBalanceCache(balanceCache);
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    public void testListRecipientsCached() {
+
+        // setup
+        listRecipients(1);
+        statistics.clear();
+
+        // exercise
+        List<Recipient> recipients = listRecipients(1);
+
+        // verify
+        assertEquals("Number of recipients is wrong", 2, recipients.size());
+        assertEquals("Customer and recipients should be read from the cache", 0, statistics.getPrepareStatementCount());
+        assertEquals("Number of cache hits is wrong", 4, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    public void testRemoveRecipientEvicts() {
+
+        // setup
+        listRecipients(1);
+
+        // exercise
+        em.getTransaction().begin();
+        customerService.removeRecipient(1, 1);
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        List<Recipient> recipients = listRecipients(1);
+        assertEquals("Number of recipients is wrong", 1, recipients.size());
+        assertEquals("Wrong recipient removed", Integer.valueOf(2), recipients.get(0).getId());
+        assertNull("Recipient should be deleted", em.find(Recipient.class, 1));
+    }
+
+    @Test
+    public void testUpdateEvicts() {
+
+        // setup
+        Customer customer = em.find(Customer.class, 1);
+        em.clear();
+        customer.setFirstName("Changed");
+        assertTrue("Customer should be cached", emf.getCache().contains(Customer.class, 1));
+
+        // exercise
+        em.getTransaction().begin();
+        customerService.update(customer);
+        em.getTransaction().commit();
+        em.clear();
+
+        // verify
+        assertEquals("Customer should be updated", "Changed", em.find(Customer.class, 1).getFirstName());
+    }
+
+    @Test
+    public void testGetStatements() throws Exception {
+        assertMaxStatements(1, () -> customerService.get(1));
+    }
+
+    @Test
+    public void testGetDetailStatements() throws Exception {
+        assertMaxStatements(3, () -> customerService.getDetail(1));
+    }
+
+    @Test
+    public void testListSummariesStatements() throws Exception {
+        assertMaxStatements(1, () -> customerService.listSummaries(null, 21));
+    }
+
+    @Test
+    public void testListPageStatements() throws Exception {
+        assertMaxStatements(1, () -> customerService.listPage(null, 21));
+    }
+
+    @Test
+    public void testListRecipientsStatements() throws Exception {
+        assertMaxStatements(2, () -> customerService.listRecipients(1));
+    }
+
+    @Test
+    public void testGetBalanceStatements() throws Exception {
+        assertMaxStatements(2, () -> customerService.getBalance(1));
+    }
+
+    @Test
+    public void testRepeatedSelects() throws Exception {
+
+        // exercise
+        StatementStatistics statistics = StatementAssert.record(() -> {
+            for (int id = 1; id <= 3; id++) {
+                customerService.get(id);
+            }
+        });
+
+        // verify
+        assertEquals("Customer select should be reported", 1, statistics.getRepeatedSelects(3).size());
+    }
+
+    // each read starts with an empty persistence context, so only the second level cache can spare the database
+    private List<Recipient> listRecipients(Integer id) {
+
+        em.getTransaction().begin();
+        List<Recipient> recipients = customerService.listRecipients(id);
+        em.getTransaction().commit();
+        em.clear();
+
+        return recipients;
+    }
+}
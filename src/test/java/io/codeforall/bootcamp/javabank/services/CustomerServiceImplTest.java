@@ -2,15 +2,25 @@ package io.codeforall.bootcamp.javabank.services;
 
 import io.codeforall.bootcamp.javabank.persistence.model.Recipient;
 import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.AccountType;
 import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
 import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerDetailView;
+import io.codeforall.bootcamp.javabank.persistence.model.view.CustomerSummary;
 import io.codeforall.bootcamp.javabank.persistence.dao.AccountDao;
 import io.codeforall.bootcamp.javabank.persistence.dao.CustomerDao;
 import io.codeforall.bootcamp.javabank.persistence.dao.RecipientDao;
+import io.codeforall.bootcamp.javabank.persistence.dao.SortOrder;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static junit.framework.TestCase.assertNotNull;
 import static org.junit.Assert.*;
@@ -18,12 +28,12 @@ import static org.mockito.Mockito.*;
 
 public class CustomerServiceImplTest {
 
-    private static final double DOUBLE_PRECISION = 0.1;
 
     private CustomerDao customerDao;
     private CustomerServiceImpl customerService;
     private RecipientDao recipientDao;
     private AccountDao accountDao;
+    private BalanceCache balanceCache;
 
     @Before
     public void setup() {
@@ -31,11 +41,13 @@ public class CustomerServiceImplTest {
         customerDao = mock(CustomerDao.class);
         recipientDao = mock(RecipientDao.class);
         accountDao = mock(AccountDao.class);
+        balanceCache = mock(BalanceCache.class);
 
         customerService = new CustomerServiceImpl();
         customerService.setCustomerDao(customerDao);
         customerService.setRecipientDao(recipientDao);
         customerService.setAccountDao(accountDao);
+        customerService.setBalanceCache(balanceCache);
     }
 
     @Test
@@ -44,7 +56,7 @@ public class CustomerServiceImplTest {
         // setup
         int fakeId = 9999;
         Customer fakeCustomer = new Customer();
-        when(customerDao.findById(fakeId)).thenReturn(fakeCustomer);
+        when(customerDao.findByIdWithAccounts(fakeId)).thenReturn(fakeCustomer);
 
         // exercise
         Customer customer = customerService.get(fakeId);
@@ -54,37 +66,161 @@ public class CustomerServiceImplTest {
     }
 
     @Test
-    public void testGetBalance() {
+    public void testGetDetail() {
 
         // setup
         int fakeId = 9999;
-        Account a1 = new CheckingAccount();
-        Account a2 = new CheckingAccount();
-        a1.credit(100);
-        a2.credit(200);
         Customer fakeCustomer = new Customer();
-        fakeCustomer.getAccounts().add(0, a1);
-        fakeCustomer.getAccounts().add(1, a2);
-        when(customerDao.findById(fakeId)).thenReturn(fakeCustomer);
+        fakeCustomer.setId(fakeId);
+        CustomerDetailView fakeDetail = new CustomerDetailView(fakeCustomer, new ArrayList<>(), new ArrayList<>());
+        when(customerDao.findDetail(fakeId)).thenReturn(fakeDetail);
+
+        // exercise
+        CustomerDetailView detail = customerService.getDetail(fakeId);
+
+        // verify
+        assertEquals(fakeDetail, detail);
+    }
+
+    @Test
+    public void testGetDetailHotAccount() {
+
+        // setup
+        int fakeId = 9999;
+        Customer fakeCustomer = new Customer();
+        fakeCustomer.setId(fakeId);
+        Account hotAccount = new CheckingAccount();
+        hotAccount.setId(1);
+        hotAccount.credit(1000);
+        Account account = new CheckingAccount();
+        account.setId(2);
+        account.credit(2000);
+        CustomerDetailView fakeDetail = new CustomerDetailView(fakeCustomer, Arrays.asList(hotAccount, account),
+                new ArrayList<>());
+        when(customerDao.findDetail(fakeId)).thenReturn(fakeDetail);
+        when(accountDao.sumSlotsByAccounts(Arrays.asList(1, 2))).thenReturn(Collections.singletonMap(1, 500L));
+
+        // exercise
+        CustomerDetailView detail = customerService.getDetail(fakeId);
+
+        // verify
+        assertEquals("Hot account balance should include its slots", 1500, detail.getAccounts().get(0).getBalance());
+        assertEquals(2000, detail.getAccounts().get(1).getBalance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetDetailInvalidCustomer() {
+
+        // setup
+        when(customerDao.findDetail(anyInt())).thenReturn(null);
 
         // exercise
-        double result = customerService.getBalance(fakeId);
+        customerService.getDetail(1);
+    }
+
+    @Test
+    public void testGetBalance() {
+
+        // setup
+        int fakeId = 9999;
+        long fakeBalance = 30000;
+        when(balanceCache.getBalance(fakeId)).thenReturn(fakeBalance);
+
+        // exercise
+        long result = customerService.getBalance(fakeId);
 
         // verify
-        assertEquals(a1.getBalance() + a2.getBalance(), result, DOUBLE_PRECISION);
+        assertEquals(fakeBalance, result);
+        verify(customerDao, never()).findById(anyInt());
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testGetBalanceInvalidCustomer() {
 
         // setup
-        when(customerDao.findById(anyInt())).thenReturn(null);
+        when(balanceCache.getBalance(anyInt())).thenReturn(null);
 
         // exercise
         customerService.getBalance(1);
 
     }
 
+    @Test
+    public void testGetBalances() {
+
+        // setup
+        List<Integer> fakeIds = Arrays.asList(1, 2);
+        Map<Integer, Long> fakeBalances = new HashMap<>();
+        when(accountDao.sumBalanceByCustomers(fakeIds)).thenReturn(fakeBalances);
+
+        // exercise
+        Map<Integer, Long> balances = customerService.getBalances(fakeIds);
+
+        // verify
+        assertEquals(fakeBalances, balances);
+    }
+
+    @Test
+    public void testGetBankBalance() {
+
+        // setup
+        long fakeBalance = 30000;
+        when(accountDao.sumBalanceTotal()).thenReturn(fakeBalance);
+
+        // exercise
+        long result = customerService.getBankBalance();
+
+        // verify
+        assertEquals(fakeBalance, result);
+    }
+
+    @Test
+    public void testGetBankBalanceByType() {
+
+        // setup
+        Map<AccountType, Long> fakeBalances = new EnumMap<>(AccountType.class);
+        when(accountDao.sumBalanceByType()).thenReturn(fakeBalances);
+
+        // exercise
+        Map<AccountType, Long> balances = customerService.getBankBalanceByType();
+
+        // verify
+        assertEquals(fakeBalances, balances);
+    }
+
+    @Test
+    public void testListPage() {
+
+        // setup
+        int fakeAfterId = 9999;
+        int limit = 10;
+        List<Customer> fakeCustomers = new ArrayList<>();
+        when(customerDao.findPage(fakeAfterId, limit, SortOrder.ASCENDING)).thenReturn(fakeCustomers);
+
+        // exercise
+        List<Customer> customers = customerService.listPage(fakeAfterId, limit);
+
+        // verify
+        assertEquals(fakeCustomers, customers);
+        verify(customerDao, times(1)).findPage(fakeAfterId, limit, SortOrder.ASCENDING);
+    }
+
+    @Test
+    public void testListSummaries() {
+
+        // setup
+        int limit = 10;
+        List<CustomerSummary> fakeSummaries = new ArrayList<>();
+        when(customerDao.findSummaryPage(null, limit, SortOrder.ASCENDING)).thenReturn(fakeSummaries);
+
+        // exercise
+        List<CustomerSummary> summaries = customerService.listSummaries(null, limit);
+
+        // verify
+        assertEquals(fakeSummaries, summaries);
+        verify(customerDao, never()).findPage(any(), anyInt(), any());
+    }
+
     @Test
     public void testListRecipients() {
 
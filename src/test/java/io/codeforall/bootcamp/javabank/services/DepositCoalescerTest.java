@@ -0,0 +1,248 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DepositCoalescerTest {
+
+    private AccountService accountService;
+    private DepositCoalescer depositCoalescer;
+
+    @Before
+    public void setup() {
+
+        accountService = mock(AccountService.class);
+
+        depositCoalescer = new DepositCoalescer();
+        depositCoalescer.setAccountService(accountService);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        depositCoalescer.shutdown();
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+
+        // setup
+        int fakeId = 1;
+        depositCoalescer.setMaxLatency(200);
+        depositCoalescer.start();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // exercise
+        for (int i = 1; i <= 10; i++) {
+            futures.add(depositCoalescer.deposit(fakeId, i * 100));
+        }
+
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // verify
+        verify(accountService, times(1)).depositAll(fakeId,
+                Arrays.asList(100L, 200L, 300L, 400L, 500L, 600L, 700L, 800L, 900L, 1000L));
+        assertEquals(10, depositCoalescer.getDeposits());
+        assertEquals(1, depositCoalescer.getFlushes());
+    }
+
+    @Test
+    public void testCoalescePerAccount() throws Exception {
+
+        // setup
+        depositCoalescer.setMaxLatency(200);
+        depositCoalescer.start();
+
+        // exercise
+        CompletableFuture<Void> first = depositCoalescer.deposit(1, 100);
+        CompletableFuture<Void> second = depositCoalescer.deposit(2, 200);
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        // verify
+        verify(accountService, times(1)).depositAll(1, Collections.singletonList(100L));
+        verify(accountService, times(1)).depositAll(2, Collections.singletonList(200L));
+    }
+
+    @Test
+    public void testFullBatch() throws Exception {
+
+        // setup
+        int fakeId = 1;
+        depositCoalescer.setMaxLatency(60000);
+        depositCoalescer.setMaxBatchSize(3);
+        depositCoalescer.start();
+
+        // exercise
+        depositCoalescer.deposit(fakeId, 100);
+        depositCoalescer.deposit(fakeId, 100);
+        depositCoalescer.deposit(fakeId, 100).get(5, TimeUnit.SECONDS);
+
+        // verify
+        verify(accountService, times(1)).depositAll(fakeId, Arrays.asList(100L, 100L, 100L));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+
+        // setup
+        int fakeId = 1;
+        depositCoalescer.setMaxLatency(200);
+        depositCoalescer.start();
+        doThrow(new IllegalArgumentException("invalid account id")).when(accountService)
+                .depositAll(fakeId, Arrays.asList(100L, 200L));
+
+        // exercise
+        CompletableFuture<Void> first = depositCoalescer.deposit(fakeId, 100);
+        CompletableFuture<Void> second = depositCoalescer.deposit(fakeId, 200);
+
+        // verify
+        for (CompletableFuture<Void> future : new CompletableFuture[]{first, second}) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Deposit should fail");
+
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IllegalArgumentException);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidAmount() {
+
+        // setup
+        depositCoalescer.start();
+
+        // exercise
+        CompletableFuture<Void> future = depositCoalescer.deposit(1, -100);
+
+        // verify
+        assertTrue("Deposit should be done", future.isDone());
+        assertFalse("Deposit should not fail", future.isCompletedExceptionally());
+        verifyZeroInteractions(accountService);
+    }
+
+    @Test
+    public void testConcurrentDeposits() throws Exception {
+
+        // setup
+        int threads = 8;
+        int depositsPerThread = 500;
+        depositCoalescer.setMaxLatency(1);
+        depositCoalescer.setMaxBatchSize(50);
+        depositCoalescer.start();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<CompletableFuture<Void>>>> results = new ArrayList<>();
+
+        // exercise
+        for (int thread = 0; thread < threads; thread++) {
+            results.add(executor.submit(() -> {
+
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                start.await();
+
+                for (int i = 0; i < depositsPerThread; i++) {
+                    futures.add(depositCoalescer.deposit(1 + i % 2, 1));
+                }
+
+                return futures;
+            }));
+        }
+
+        start.countDown();
+
+        for (Future<List<CompletableFuture<Void>>> result : results) {
+            for (CompletableFuture<Void> future : result.get()) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        executor.shutdown();
+
+        // verify
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> amounts = ArgumentCaptor.forClass(List.class);
+        verify(accountService, atLeastOnce()).depositAll(anyInt(), amounts.capture());
+        assertEquals("Every deposit should be applied once", threads * depositsPerThread,
+                amounts.getAllValues().stream().mapToLong(List::size).sum());
+        assertTrue("Deposits should be grouped", depositCoalescer.getFlushes() < depositCoalescer.getDeposits());
+    }
+
+    @Test
+    public void testShutdownAppliesPending() throws Exception {
+
+        // setup
+        int fakeId = 1;
+        depositCoalescer.setMaxLatency(200);
+        depositCoalescer.start();
+        CompletableFuture<Void> future = depositCoalescer.deposit(fakeId, 100);
+
+        // exercise
+        depositCoalescer.shutdown();
+
+        // verify
+        future.get(5, TimeUnit.SECONDS);
+        verify(accountService, times(1)).depositAll(fakeId, Collections.singletonList(100L));
+    }
+
+    @Test
+    public void testShutdownFailsPending() throws Exception {
+
+        // setup
+        int fakeId = 1;
+        depositCoalescer.setMaxLatency(60000);
+        depositCoalescer.setShutdownTimeout(0);
+        depositCoalescer.start();
+        CompletableFuture<Void> future = depositCoalescer.deposit(fakeId, 100);
+
+        // exercise
+        depositCoalescer.shutdown();
+
+        // verify
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Deposit should fail");
+
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+
+        verifyZeroInteractions(accountService);
+    }
+
+    @Test
+    public void testDepositAfterShutdown() throws Exception {
+
+        // setup
+        depositCoalescer.start();
+        depositCoalescer.shutdown();
+
+        // exercise
+        CompletableFuture<Void> future = depositCoalescer.deposit(1, 100);
+
+        // verify
+        assertTrue("Deposit should be rejected", future.isCompletedExceptionally());
+        assertEquals(0, depositCoalescer.getDeposits());
+        verifyZeroInteractions(accountService);
+    }
+}
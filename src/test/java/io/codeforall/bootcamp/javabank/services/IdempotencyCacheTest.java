@@ -0,0 +1,95 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class IdempotencyCacheTest {
+
+    private AtomicLong now;
+    private IdempotencyCache idempotencyCache;
+
+    @Before
+    public void setup() {
+
+        now = new AtomicLong();
+
+        idempotencyCache = new IdempotencyCache(now::get);
+        idempotencyCache.setMaxKeys(3);
+        idempotencyCache.setTimeToLive(1000);
+    }
+
+    @Test
+    public void testPut() {
+
+        // exercise
+        idempotencyCache.put("key", "deposit:1:100");
+
+        // verify
+        assertEquals("deposit:1:100", idempotencyCache.get("key"));
+        assertNull(idempotencyCache.get("unknown"));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+
+        // exercise
+        String first = idempotencyCache.putIfAbsent("key", "deposit:1:100");
+        String second = idempotencyCache.putIfAbsent("key", "deposit:1:200");
+
+        // verify
+        assertNull(first);
+        assertEquals("deposit:1:100", second);
+        assertEquals("deposit:1:100", idempotencyCache.get("key"));
+    }
+
+    @Test
+    public void testEvictOldest() {
+
+        // setup
+        for (int i = 1; i <= 3; i++) {
+            idempotencyCache.put("key" + i, "deposit:1:" + i);
+        }
+
+        // exercise
+        idempotencyCache.put("key4", "deposit:1:4");
+
+        // verify
+        assertEquals(3, idempotencyCache.size());
+        assertNull("Oldest key should be evicted", idempotencyCache.get("key1"));
+        assertEquals("deposit:1:4", idempotencyCache.get("key4"));
+    }
+
+    @Test
+    public void testExpire() {
+
+        // setup
+        idempotencyCache.put("old", "deposit:1:100");
+        now.set(500);
+        idempotencyCache.put("new", "deposit:1:200");
+
+        // exercise
+        now.set(1000);
+
+        // verify
+        assertNull("Old key should be expired", idempotencyCache.get("old"));
+        assertEquals("deposit:1:200", idempotencyCache.get("new"));
+        assertEquals(1, idempotencyCache.size());
+    }
+
+    @Test
+    public void testRemove() {
+
+        // setup
+        idempotencyCache.put("key", "deposit:1:100");
+
+        // exercise
+        idempotencyCache.remove("key");
+
+        // verify
+        assertNull(idempotencyCache.get("key"));
+    }
+}
@@ -0,0 +1,96 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.persistence.dao.IdempotencyDao;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyPurgerTest {
+
+    private IdempotencyDao idempotencyDao;
+    private PlatformTransactionManager transactionManager;
+    private IdempotencyPurger idempotencyPurger;
+
+    @Before
+    public void setup() {
+
+        idempotencyDao = mock(IdempotencyDao.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        idempotencyPurger = new IdempotencyPurger();
+        idempotencyPurger.setIdempotencyDao(idempotencyDao);
+        idempotencyPurger.setTransactionManager(transactionManager);
+    }
+
+    @After
+    public void tearDown() {
+        idempotencyPurger.shutdown();
+    }
+
+    @Test
+    public void testPurge() {
+
+        // setup
+        long before = System.currentTimeMillis();
+        when(idempotencyDao.deleteExpired(any(Date.class))).thenReturn(3);
+
+        // exercise
+        int deleted = idempotencyPurger.purge();
+
+        // verify
+        assertEquals(3, deleted);
+        assertEquals(3, idempotencyPurger.getPurged());
+        verify(idempotencyDao, times(1)).deleteExpired(argThat(now -> now.getTime() >= before));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    public void testScheduledPurge() {
+
+        // setup
+        idempotencyPurger.setPurgeInterval(10);
+
+        // exercise
+        idempotencyPurger.start();
+
+        // verify
+        verify(idempotencyDao, timeout(1000).atLeast(2)).deleteExpired(any(Date.class));
+    }
+
+    @Test
+    public void testScheduledPurgeFailure() {
+
+        // setup
+        idempotencyPurger.setPurgeInterval(10);
+        when(idempotencyDao.deleteExpired(any(Date.class)))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+
+        // exercise
+        idempotencyPurger.start();
+
+        // verify
+        verify(idempotencyDao, timeout(1000).atLeast(2)).deleteExpired(any(Date.class));
+        assertEquals(1, idempotencyPurger.getFailures());
+    }
+
+    @Test
+    public void testPurgeDisabled() throws InterruptedException {
+
+        // setup
+        idempotencyPurger.setPurgeInterval(0);
+
+        // exercise
+        idempotencyPurger.start();
+        Thread.sleep(50);
+
+        // verify
+        verifyZeroInteractions(idempotencyDao);
+    }
+}
@@ -0,0 +1,58 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PeriodicTaskTest {
+
+    private PeriodicTask periodicTask;
+
+    @After
+    public void tearDown() {
+        periodicTask.shutdown();
+    }
+
+    @Test
+    public void testFailureCounted() throws InterruptedException {
+
+        // setup
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+        periodicTask = new PeriodicTask("periodic-task-test", () -> {
+
+            done.countDown();
+
+            if (runs.incrementAndGet() == 1) {
+                throw new IllegalStateException("database down");
+            }
+        });
+
+        // exercise
+        periodicTask.start(10);
+
+        // verify
+        assertTrue("Task should keep running after a failure", done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, periodicTask.getFailures());
+    }
+
+    @Test
+    public void testDisabled() throws InterruptedException {
+
+        // setup
+        AtomicInteger runs = new AtomicInteger();
+        periodicTask = new PeriodicTask("periodic-task-test", runs::incrementAndGet);
+
+        // exercise
+        periodicTask.start(0);
+        Thread.sleep(50);
+
+        // verify
+        assertEquals(0, runs.get());
+    }
+}
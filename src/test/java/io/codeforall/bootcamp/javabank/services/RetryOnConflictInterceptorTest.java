@@ -0,0 +1,154 @@
+package io.codeforall.bootcamp.javabank.services;
+
+import io.codeforall.bootcamp.javabank.metrics.MetricsInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.OptimisticLockException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RetryOnConflictInterceptorTest {
+
+    private RetryOnConflictInterceptor interceptor;
+    private MethodInvocation invocation;
+
+    @Before
+    public void setup() {
+
+        interceptor = new RetryOnConflictInterceptor();
+        interceptor.setMaxAttempts(3);
+        interceptor.setInitialBackoff(1);
+        interceptor.setMaxBackoff(2);
+
+        invocation = mock(MethodInvocation.class);
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void testRetrySucceeds() throws Throwable {
+
+        // setup
+        Object result = new Object();
+        when(invocation.proceed())
+                .thenThrow(new ObjectOptimisticLockingFailureException("account", 1))
+                .thenReturn(result);
+
+        // exercise
+        Object invocationResult = interceptor.invoke(invocation);
+
+        // verify
+        assertEquals(result, invocationResult);
+        verify(invocation, times(2)).proceed();
+        assertEquals(2, interceptor.getAttempts());
+        assertEquals(1, interceptor.getRetries());
+        assertEquals(0, interceptor.getGiveUps());
+    }
+
+    @Test
+    public void testGiveUp() throws Throwable {
+
+        // setup
+        RuntimeException conflict = new RuntimeException(new OptimisticLockException());
+        when(invocation.proceed()).thenThrow(conflict);
+
+        // exercise
+        try {
+            interceptor.invoke(invocation);
+            fail("Conflict should be thrown after the last attempt");
+
+        } catch (RuntimeException ex) {
+
+            // verify
+            assertSame(conflict, ex);
+        }
+
+        verify(invocation, times(3)).proceed();
+        assertEquals(3, interceptor.getAttempts());
+        assertEquals(2, interceptor.getRetries());
+        assertEquals(1, interceptor.getGiveUps());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRetryOnOtherFailures() throws Throwable {
+
+        // setup
+        when(invocation.proceed()).thenThrow(new IllegalArgumentException("invalid account id"));
+
+        // exercise
+        try {
+            interceptor.invoke(invocation);
+        } finally {
+
+            // verify
+            verify(invocation, times(1)).proceed();
+            assertEquals(0, interceptor.getRetries());
+        }
+    }
+
+    @Test
+    public void testNoRetryInsideTransaction() throws Throwable {
+
+        // setup
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        when(invocation.proceed()).thenThrow(new ObjectOptimisticLockingFailureException("account", 1));
+
+        // exercise
+        try {
+            interceptor.invoke(invocation);
+            fail("Conflict should be thrown");
+
+        } catch (ObjectOptimisticLockingFailureException ex) {
+
+            // verify
+            verify(invocation, times(1)).proceed();
+            assertEquals(0, interceptor.getRetries());
+        }
+    }
+
+    @Test
+    public void testIsConflict() {
+        assertTrue(RetryOnConflictInterceptor.isConflict(new ObjectOptimisticLockingFailureException("account", 1)));
+        assertTrue(RetryOnConflictInterceptor.isConflict(new RuntimeException(new OptimisticLockException())));
+        assertFalse(RetryOnConflictInterceptor.isConflict(new IllegalArgumentException()));
+    }
+
+    @Test
+    public void testAppliedOutsideTransaction() throws Exception {
+
+        // setup
+        GenericXmlApplicationContext ctx = new GenericXmlApplicationContext();
+        ctx.getEnvironment().setActiveProfiles("test");
+        ctx.load("file:src/main/webapp/WEB-INF/spring/spring-config.xml");
+        ctx.refresh();
+
+        try {
+
+            // exercise
+            Advised measured = (Advised) ctx.getBean(AccountService.class);
+            Advised outer = (Advised) measured.getTargetSource().getTarget();
+            Object inner = outer.getTargetSource().getTarget();
+
+            // verify
+            assertTrue("Metrics should be the outermost proxy", measured.getAdvisors()[0].getAdvice() instanceof MetricsInterceptor);
+            assertTrue("Retry should be the outer proxy", outer.getAdvisors()[0].getAdvice() instanceof RetryOnConflictInterceptor);
+            assertTrue("Transaction should be the inner proxy", AopUtils.isAopProxy(inner));
+            assertTrue(AopUtils.getTargetClass(inner) == AccountServiceImpl.class);
+
+        } finally {
+            ctx.close();
+        }
+    }
+}
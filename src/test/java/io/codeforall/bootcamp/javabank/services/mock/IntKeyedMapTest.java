@@ -0,0 +1,140 @@
+package io.codeforall.bootcamp.javabank.services.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IntKeyedMapTest {
+
+    private IntKeyedMap<String> map;
+
+    @Before
+    public void setup() {
+        map = new IntKeyedMap<>();
+    }
+
+    @Test
+    public void testPutAndGet() {
+
+        // exercise
+        String previous = map.put(1, "one");
+        map.put(100000, "far");
+
+        // verify
+        assertNull(previous);
+        assertEquals("one", map.get(1));
+        assertEquals("far", map.get(100000));
+        assertNull(map.get(2));
+        assertNull(map.get(-1));
+        assertNull(map.get(Integer.MAX_VALUE));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testPutReplaces() {
+
+        // setup
+        map.put(1, "one");
+
+        // exercise
+        String previous = map.put(1, "uno");
+
+        // verify
+        assertEquals("one", previous);
+        assertEquals("uno", map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+
+        // exercise
+        String first = map.putIfAbsent(1, "one");
+        String second = map.putIfAbsent(1, "uno");
+
+        // verify
+        assertNull(first);
+        assertEquals("one", second);
+        assertEquals("one", map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRemove() {
+
+        // setup
+        map.put(1, "one");
+
+        // exercise
+        String removed = map.remove(1);
+
+        // verify
+        assertEquals("one", removed);
+        assertNull(map.remove(1));
+        assertNull(map.remove(123456));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutNegativeKey() {
+        map.put(-1, "minus one");
+    }
+
+    @Test
+    public void testValuesAfter() {
+
+        // setup
+        for (int key = 1; key <= 3000; key += 2) {
+            map.put(key, String.valueOf(key));
+        }
+
+        // exercise
+        List<String> values = map.valuesAfter(1023, 3);
+
+        // verify
+        assertEquals(3, values.size());
+        assertEquals("1025", values.get(0));
+        assertEquals("1029", values.get(2));
+        assertEquals(1500, map.values().size());
+        assertEquals("1", map.values().get(0));
+        assertTrue(map.valuesAfter(3000, 10).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentPuts() throws InterruptedException {
+
+        // setup
+        int threads = 8;
+        int keysPerThread = 5000;
+        List<Thread> writers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < keysPerThread; i++) {
+                    int key = i * threads + offset;
+                    map.put(key, String.valueOf(key));
+                }
+            }));
+        }
+
+        // exercise
+        for (Thread writer : writers) {
+            writer.start();
+        }
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // verify
+        assertEquals(threads * keysPerThread, map.size());
+        for (int key = 0; key < threads * keysPerThread; key++) {
+            assertEquals(String.valueOf(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package io.codeforall.bootcamp.javabank.services.mock;
+
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntry;
+import io.codeforall.bootcamp.javabank.persistence.model.account.LedgerEntryType;
+import io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount;
+import io.codeforall.bootcamp.javabank.services.TransferRequest;
+import io.codeforall.bootcamp.javabank.services.TransferResult;
+import io.codeforall.bootcamp.javabank.services.TransferStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.*;
+
+public class MockAccountServiceTest {
+
+    private MockAccountService accountService;
+
+    @Before
+    public void setup() {
+        accountService = new MockAccountService();
+    }
+
+    @Test
+    public void testAdd() {
+
+        // setup
+        Account first = new CheckingAccount();
+        Account given = new CheckingAccount();
+        given.setId(10);
+        Account next = new CheckingAccount();
+
+        // exercise
+        accountService.add(first);
+        accountService.add(given);
+        accountService.add(next);
+
+        // verify
+        assertEquals(Integer.valueOf(1), first.getId());
+        assertEquals(Integer.valueOf(11), next.getId());
+        assertSame(given, accountService.get(10));
+    }
+
+    @Test
+    public void testDeposit() {
+
+        // setup
+        Account account = accountService.add(new CheckingAccount());
+
+        // exercise
+        accountService.deposit(account.getId(), 10050);
+
+        // verify
+        assertEquals(10050, account.getBalance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDepositInvalidId() {
+        accountService.deposit(9999, 10050);
+    }
+
+    @Test
+    public void testDepositIdempotent() {
+
+        // setup
+        Account account = accountService.add(new CheckingAccount());
+
+        // exercise
+        accountService.deposit(account.getId(), 10050, "key");
+        accountService.deposit(account.getId(), 10050, "key");
+
+        // verify
+        assertEquals(10050, account.getBalance());
+        assertEquals(1, accountService.getHistory(account.getId(), null, 10).size());
+    }
+
+    @Test
+    public void testDepositIdempotentAfterFailure() {
+
+        // setup
+        int fakeId = 9999;
+
+        try {
+            accountService.deposit(fakeId, 10050, "key");
+            fail("Deposit should fail");
+
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+
+        Account account = new CheckingAccount();
+        account.setId(fakeId);
+        accountService.add(account);
+
+        // exercise
+        accountService.deposit(fakeId, 10050, "key");
+
+        // verify
+        assertEquals("Failed deposit key should be forgotten", 10050, account.getBalance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTransferKeyReused() {
+
+        // setup
+        Account src = accountService.add(new CheckingAccount());
+        Account dst = accountService.add(new CheckingAccount());
+        accountService.deposit(src.getId(), 10000);
+        accountService.transfer(src.getId(), dst.getId(), 100, "key");
+
+        // exercise
+        accountService.transfer(src.getId(), dst.getId(), 200, "key");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithdrawSavings() {
+
+        // setup
+        Account account = accountService.add(new SavingsAccount());
+
+        // exercise
+        accountService.withdraw(account.getId(), 100);
+    }
+
+    @Test
+    public void testTransfer() {
+
+        // setup
+        Account src = accountService.add(new CheckingAccount());
+        Account dst = accountService.add(new CheckingAccount());
+        src.credit(10000);
+
+        // exercise
+        accountService.transfer(src.getId(), dst.getId(), 4000);
+        accountService.transfer(src.getId(), dst.getId(), 7000);
+
+        // verify
+        assertEquals(6000, src.getBalance());
+        assertEquals(4000, dst.getBalance());
+    }
+
+    @Test
+    public void testTransferBatch() {
+
+        // setup
+        Account src = accountService.add(new CheckingAccount());
+        Account dst = accountService.add(new SavingsAccount());
+        src.credit(10000);
+
+        // exercise
+        List<TransferResult> results = accountService.transferBatch(Arrays.asList(
+                new TransferRequest(src.getId(), dst.getId(), 6000),
+                new TransferRequest(src.getId(), dst.getId(), 6000),
+                new TransferRequest(dst.getId(), src.getId(), 1000),
+                new TransferRequest(src.getId(), 9999, 100)));
+
+        // verify
+        assertEquals(TransferStatus.APPLIED, results.get(0).getStatus());
+        assertEquals(TransferStatus.INSUFFICIENT_FUNDS, results.get(1).getStatus());
+        assertEquals(TransferStatus.MINIMUM_BALANCE, results.get(2).getStatus());
+        assertEquals(TransferStatus.INVALID_ACCOUNT, results.get(3).getStatus());
+        assertEquals(4000, src.getBalance());
+        assertEquals(6000, dst.getBalance());
+    }
+
+    @Test
+    public void testHistory() {
+
+        // setup
+        Account src = accountService.add(new CheckingAccount());
+        Account dst = accountService.add(new CheckingAccount());
+        accountService.deposit(src.getId(), 10000);
+        accountService.transfer(src.getId(), dst.getId(), 4000);
+        accountService.transfer(src.getId(), dst.getId(), 7000);
+        accountService.withdraw(src.getId(), 1000);
+
+        // exercise
+        List<LedgerEntry> latest = accountService.getHistory(src.getId(), null, 2);
+        List<LedgerEntry> oldest = accountService.getHistory(src.getId(), latest.get(1).getId(), 2);
+
+        // verify
+        assertEquals(2, latest.size());
+        assertEquals(LedgerEntryType.WITHDRAWAL, latest.get(0).getType());
+        assertEquals(LedgerEntryType.TRANSFER_OUT, latest.get(1).getType());
+        assertEquals(-4000, latest.get(1).getAmount());
+        assertEquals(1, oldest.size());
+        assertEquals(LedgerEntryType.DEPOSIT, oldest.get(0).getType());
+        assertEquals(1, accountService.getHistory(dst.getId(), null, 10).size());
+        assertTrue(accountService.getHistory(9999, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentTransfers() throws InterruptedException {
+
+        // setup
+        int accounts = 16;
+        long initialBalance = 100000;
+
+        for (int i = 0; i < accounts; i++) {
+            accountService.add(new CheckingAccount()).credit(initialBalance);
+        }
+
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            workers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20000; i++) {
+                    accountService.transfer(random.nextInt(accounts) + 1, random.nextInt(accounts) + 1,
+                            random.nextInt(1, 500));
+                }
+            }));
+        }
+
+        // exercise
+        for (Thread worker : workers) {
+            worker.start();
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // verify
+        long total = 0;
+        for (int id = 1; id <= accounts; id++) {
+            long balance = accountService.getBalance(accountService.get(id));
+            assertTrue("Balance should never be negative", balance >= 0);
+            total += balance;
+        }
+
+        assertEquals("Money should be conserved", accounts * initialBalance, total);
+    }
+}
@@ -0,0 +1,126 @@
+package io.codeforall.bootcamp.javabank.services.mock;
+
+import io.codeforall.bootcamp.javabank.persistence.model.Customer;
+import io.codeforall.bootcamp.javabank.persistence.model.account.Account;
+import io.codeforall.bootcamp.javabank.persistence.model.account.CheckingAccount;
+import io.codeforall.bootcamp.javabank.persistence.model.account.SavingsAccount;
+import io.codeforall.bootcamp.javabank.services.AccountService;
+import io.codeforall.bootcamp.javabank.services.CustomerService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericXmlApplicationContext;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MockCustomerServiceTest {
+
+    private MockCustomerService customerService;
+    private MockAccountService accountService;
+
+    @Before
+    public void setup() {
+
+        accountService = new MockAccountService();
+
+        customerService = new MockCustomerService();
+        customerService.setAccountService(accountService);
+    }
+
+    @Test
+    public void testUpdateAddsAccounts() {
+
+        // setup
+        Customer customer = new Customer();
+        Account account = new CheckingAccount();
+        customer.addAccount(account);
+
+        // exercise
+        customerService.update(customer);
+
+        // verify
+        assertNotNull(customer.getId());
+        assertSame(customer, customerService.get(customer.getId()));
+        assertSame(account, accountService.get(account.getId()));
+    }
+
+    @Test
+    public void testGetBalance() {
+
+        // setup
+        Customer customer = new Customer();
+        Account checking = new CheckingAccount();
+        Account savings = new SavingsAccount();
+        customer.addAccount(checking);
+        customer.addAccount(savings);
+        customerService.update(customer);
+
+        // exercise
+        accountService.deposit(checking.getId(), 10000);
+        accountService.deposit(savings.getId(), 20050);
+
+        // verify
+        assertEquals(30050, customerService.getBalance(customer.getId()));
+        assertEquals(30050, customerService.getBankBalance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetBalanceInvalidCustomer() {
+        customerService.getBalance(9999);
+    }
+
+    @Test
+    public void testListPage() {
+
+        // setup
+        for (int i = 0; i < 5; i++) {
+            customerService.update(new Customer());
+        }
+
+        // exercise
+        List<Customer> customers = customerService.listPage(2, 2);
+
+        // verify
+        assertEquals(2, customers.size());
+        assertEquals(Integer.valueOf(3), customers.get(0).getId());
+        assertEquals(Integer.valueOf(4), customers.get(1).getId());
+    }
+
+    @Test
+    public void testDeleteRemovesAccounts() {
+
+        // setup
+        Customer customer = new Customer();
+        Account account = new CheckingAccount();
+        customer.addAccount(account);
+        customerService.update(customer);
+
+        // exercise
+        customerService.delete(customer.getId());
+
+        // verify
+        assertNull(customerService.get(customer.getId()));
+        assertNull(accountService.get(account.getId()));
+    }
+
+    @Test
+    public void testMemoryProfile() {
+
+        // setup
+        GenericXmlApplicationContext ctx = new GenericXmlApplicationContext();
+        ctx.getEnvironment().setActiveProfiles("memory");
+        ctx.load("file:src/main/webapp/WEB-INF/spring/spring-config.xml");
+
+        // exercise
+        ctx.refresh();
+
+        // verify
+        try {
+            assertTrue(ctx.getBean(CustomerService.class) instanceof MockCustomerService);
+            assertTrue(ctx.getBean(AccountService.class) instanceof MockAccountService);
+        } finally {
+            ctx.close();
+        }
+    }
+}